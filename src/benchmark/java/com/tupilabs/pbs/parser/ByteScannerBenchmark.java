@@ -0,0 +1,116 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2012-2015 Bruno P. Kinoshita, BioUno
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tupilabs.pbs.parser;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.tupilabs.pbs.model.Job;
+
+/**
+ * Scans a synthetic ~100 MB qstat -f output for line and attribute delimiters byte by byte and with
+ * {@link ByteScanner}, and parses it with {@link QstatJobsByteParser}. Run with a large enough heap, e.g.
+ * <code>-jvmArgs -Xmx2g</code>.
+ *
+ * @author Bruno P. Kinoshita
+ * @since 0.11
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ByteScannerBenchmark {
+
+    private byte[] bytes;
+
+    private final QstatJobsByteParser parser = new QstatJobsByteParser();
+
+    @Setup
+    public void setUp() {
+        final byte[] chunk = SyntheticOutput.qstatJobs(10000).getBytes(Charset.defaultCharset());
+        final int copies = Math.max(1, (100 << 20) / chunk.length);
+        bytes = new byte[chunk.length * copies];
+        for (int i = 0; i < copies; i++) {
+            System.arraycopy(chunk, 0, bytes, i * chunk.length, chunk.length);
+        }
+    }
+
+    @Benchmark
+    public int scalarScan() {
+        int delimiters = 0;
+        int position = 0;
+        while (position < bytes.length) {
+            int newline = position;
+            while (newline < bytes.length && bytes[newline] != '\n') {
+                newline++;
+            }
+            for (int i = position; i < newline; i++) {
+                if (bytes[i] == '=') {
+                    delimiters++;
+                    break;
+                }
+            }
+            position = newline + 1;
+        }
+        return delimiters;
+    }
+
+    @Benchmark
+    public int swarScan() {
+        int delimiters = 0;
+        int position = 0;
+        while (position < bytes.length) {
+            int newline = ByteScanner.indexOf(bytes, position, bytes.length, (byte) '\n');
+            if (newline < 0) {
+                newline = bytes.length;
+            }
+            if (ByteScanner.indexOf(bytes, position, newline, (byte) '=') >= 0) {
+                delimiters++;
+            }
+            position = newline + 1;
+        }
+        return delimiters;
+    }
+
+    @Benchmark
+    public List<Job> parse() throws Exception {
+        return parser.parse(new ByteArrayInputStream(bytes));
+    }
+
+}
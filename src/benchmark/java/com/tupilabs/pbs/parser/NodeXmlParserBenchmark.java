@@ -0,0 +1,96 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2012-2015 Bruno P. Kinoshita, BioUno
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tupilabs.pbs.parser;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+
+import org.apache.commons.io.input.CharSequenceInputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.tupilabs.pbs.model.Node;
+
+/**
+ * Parses a synthetic 10k-node qnodes -x document with the previous SAX code path (new factory per call, String
+ * re-encoded to bytes), the pooled SAX parser, and the StAX stream parser.
+ *
+ * @author Bruno P. Kinoshita
+ * @since 0.11
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NodeXmlParserBenchmark {
+
+    private String xml;
+
+    private byte[] bytes;
+
+    private final NodeXmlParser saxParser = new NodeXmlParser();
+
+    private final NodeXmlStreamParser streamParser = new NodeXmlStreamParser();
+
+    @Setup
+    public void setUp() {
+        xml = SyntheticOutput.qnodesXml(10000);
+        bytes = xml.getBytes(Charset.defaultCharset());
+    }
+
+    @Benchmark
+    public List<Node> legacySax() throws Exception {
+        final SAXParserFactory factory = SAXParserFactory.newInstance();
+        final SAXParser parser = factory.newSAXParser();
+        final NodeXmlHandler handler = new NodeXmlHandler();
+        parser.parse(new CharSequenceInputStream(xml, Charset.defaultCharset()), handler);
+        return handler.getNodes();
+    }
+
+    @Benchmark
+    public List<Node> pooledSax() throws Exception {
+        return saxParser.parse(xml);
+    }
+
+    @Benchmark
+    public List<Node> staxStream() throws Exception {
+        return streamParser.parse(new ByteArrayInputStream(bytes));
+    }
+
+}
@@ -0,0 +1,99 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2012-2015 Bruno P. Kinoshita, BioUno
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tupilabs.pbs.parser;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.tupilabs.pbs.model.Job;
+
+/**
+ * Parses the same synthetic 10k jobs as qstat -f text with {@link QstatJobsParser} and {@link QstatJobsByteParser},
+ * and as qstat -f -x XML with {@link QstatJobsXmlParser}. All start from the bytes of the process output.
+ * {@link QstatJobsIncrementalParser} parses the same output again, as when polling jobs that did not change.
+ *
+ * @author Bruno P. Kinoshita
+ * @since 0.11
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QstatJobsParserBenchmark {
+
+    private byte[] text;
+
+    private byte[] xml;
+
+    private final QstatJobsParser textParser = new QstatJobsParser();
+
+    private final QstatJobsXmlParser xmlParser = new QstatJobsXmlParser();
+
+    private final QstatJobsByteParser byteParser = new QstatJobsByteParser();
+
+    private final QstatJobsIncrementalParser incrementalParser = new QstatJobsIncrementalParser();
+
+    @Setup
+    public void setUp() throws Exception {
+        text = SyntheticOutput.qstatJobs(10000).getBytes(Charset.defaultCharset());
+        xml = SyntheticOutput.qstatJobsXml(10000).getBytes(Charset.defaultCharset());
+        incrementalParser.parse(text, 0, text.length);
+    }
+
+    @Benchmark
+    public List<Job> text() throws Exception {
+        return textParser.parse(new String(text, Charset.defaultCharset()));
+    }
+
+    @Benchmark
+    public List<Job> textBytes() throws Exception {
+        return byteParser.parse(new ByteArrayInputStream(text));
+    }
+
+    @Benchmark
+    public List<Job> textIncremental() throws Exception {
+        return incrementalParser.parse(new ByteArrayInputStream(text));
+    }
+
+    @Benchmark
+    public List<Job> xmlStream() throws Exception {
+        return xmlParser.parse(new ByteArrayInputStream(xml));
+    }
+
+}
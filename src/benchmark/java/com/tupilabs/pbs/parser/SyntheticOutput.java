@@ -0,0 +1,186 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2012-2015 Bruno P. Kinoshita, BioUno
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tupilabs.pbs.parser;
+
+/**
+ * Synthetic PBS command outputs for the benchmarks.
+ *
+ * @author Bruno P. Kinoshita
+ * @since 0.11
+ */
+public final class SyntheticOutput {
+
+    private SyntheticOutput() {
+    }
+
+    /**
+     * @param count number of nodes
+     * @return a qnodes -x (pbsnodes -x) document
+     */
+    public static String qnodesXml(int count) {
+        final StringBuilder sb = new StringBuilder(count * 900);
+        sb.append("<Data>");
+        for (int i = 0; i < count; i++) {
+            final String name = String.format("n%05d", i);
+            final boolean busy = i % 3 == 0;
+            sb.append("<Node><name>").append(name).append("</name>");
+            sb.append("<state>").append(busy ? "job-exclusive,busy" : (i % 50 == 0 ? "down,offline" : "free"))
+                    .append("</state>");
+            sb.append("<power_state>Running</power_state><np>16</np>");
+            sb.append("<properties>").append(i % 4 == 0 ? "bigmem,ib" : "ib").append("</properties>");
+            sb.append("<ntype>cluster</ntype>");
+            if (busy) {
+                sb.append("<jobs>");
+                for (int core = 0; core < 16; core++) {
+                    if (core > 0) {
+                        sb.append(',');
+                    }
+                    sb.append(core).append('/').append(100000 + i).append(".server.example.com");
+                }
+                sb.append("</jobs>");
+            }
+            sb.append("<status>rectime=1442740315,macaddr=02:42:ac:11:00:02,cpuclock=Fixed,varattr=,jobs=");
+            if (busy) {
+                sb.append(100000 + i).append(".server.example.com");
+            }
+            sb.append(",state=").append(busy ? "busy" : "free");
+            sb.append(",netload=3117641,gres=,loadave=").append(busy ? "16.02" : "0.00");
+            sb.append(",ncpus=16,physmem=131916332kb,availmem=").append(120000000 - i).append("kb");
+            sb.append(",totmem=133014904kb,idletime=").append(i).append(",nusers=1,nsessions=1,sessions=").append(i);
+            sb.append(",uname=Linux ").append(name).append(" 3.10.0-1160.el7.x86_64 #1 SMP x86_64,opsys=linux");
+            sb.append("</status><mom_service_port>15002</mom_service_port><mom_manager_port>15003</mom_manager_port>");
+            sb.append("</Node>");
+        }
+        sb.append("</Data>");
+        return sb.toString();
+    }
+
+    /**
+     * @param count number of jobs
+     * @return a qstat -f document, with the same jobs as {@link #qstatJobsXml(int)}
+     */
+    public static String qstatJobs(int count) {
+        final StringBuilder sb = new StringBuilder(count * 1400);
+        for (int i = 0; i < count; i++) {
+            final String[][] attributes = jobAttributes(i);
+            sb.append("Job Id: ").append(attributes[0][1]).append('\n');
+            for (int a = 1; a < attributes.length; a++) {
+                final String value = attributes[a][1];
+                sb.append("    ").append(attributes[a][0]).append(" = ");
+                // qstat -f wraps long values with a newline and a tab
+                for (int start = 0; start < value.length(); start += 64) {
+                    if (start > 0) {
+                        sb.append("\n\t");
+                    }
+                    sb.append(value, start, Math.min(start + 64, value.length()));
+                }
+                sb.append('\n');
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @param count number of jobs
+     * @return a qstat -f -x document, with the same jobs as {@link #qstatJobs(int)}
+     */
+    public static String qstatJobsXml(int count) {
+        final StringBuilder sb = new StringBuilder(count * 1400);
+        sb.append("<Data>");
+        for (int i = 0; i < count; i++) {
+            final String[][] attributes = jobAttributes(i);
+            sb.append("<Job>");
+            String parent = null;
+            for (final String[] attribute : attributes) {
+                final int dot = attribute[0].indexOf('.');
+                final String group = dot < 0 ? null : attribute[0].substring(0, dot);
+                if (parent != null && !parent.equals(group)) {
+                    sb.append("</").append(parent).append('>');
+                }
+                if (group != null && !group.equals(parent)) {
+                    sb.append('<').append(group).append('>');
+                }
+                parent = group;
+                final String element = dot < 0 ? attribute[0] : attribute[0].substring(dot + 1);
+                sb.append('<').append(element).append('>').append(attribute[1]).append("</").append(element)
+                        .append('>');
+            }
+            if (parent != null) {
+                sb.append("</").append(parent).append('>');
+            }
+            sb.append("</Job>");
+        }
+        sb.append("</Data>");
+        return sb.toString();
+    }
+
+    private static String[][] jobAttributes(int i) {
+        final boolean running = i % 3 != 0;
+        final String user = "user" + (i % 40);
+        return new String[][] {
+                { "Job_Id", (100000 + i) + ".server.example.com" },
+                { "Job_Name", "sample-" + i },
+                { "Job_Owner", user + "@login1.example.com" },
+                { "resources_used.cput", running ? "01:02:03" : "00:00:00" },
+                { "resources_used.mem", (i * 10) + "kb" },
+                { "resources_used.vmem", (i * 20) + "kb" },
+                { "resources_used.walltime", running ? "00:20:00" : "00:00:00" },
+                { "job_state", running ? "R" : "Q" },
+                { "queue", i % 5 == 0 ? "short" : "batch" },
+                { "server", "server.example.com" },
+                { "Checkpoint", "u" },
+                { "ctime", "1760860800" },
+                { "Error_Path", "login1.example.com:/home/" + user + "/sample-" + i + ".e" + (100000 + i) },
+                { "exec_host", running ? String.format("n%05d/0-15", i % 10000) : "" },
+                { "Hold_Types", "n" },
+                { "Join_Path", "n" },
+                { "Keep_Files", "n" },
+                { "Mail_Points", "a" },
+                { "mtime", "1760861000" },
+                { "Output_Path", "login1.example.com:/home/" + user + "/sample-" + i + ".o" + (100000 + i) },
+                { "Priority", "0" },
+                { "qtime", "1760860800" },
+                { "Rerunable", "True" },
+                { "Resource_List.nodes", "1:ppn=16" },
+                { "Resource_List.walltime", "24:00:00" },
+                { "session_id", String.valueOf(20000 + i) },
+                { "substate", running ? "42" : "10" },
+                { "Variable_List", "PBS_O_QUEUE=batch,PBS_O_HOME=/home/" + user + ",PBS_O_LOGNAME=" + user
+                        + ",PBS_O_PATH=/usr/local/bin:/usr/bin:/bin,PBS_O_SHELL=/bin/bash,PBS_O_LANG=en_US.UTF-8,"
+                        + "PBS_O_WORKDIR=/home/" + user + "/work,PBS_O_HOST=login1.example.com,"
+                        + "PBS_O_SERVER=server.example.com" },
+                { "euser", user },
+                { "egroup", "users" },
+                { "queue_type", "E" },
+                { "etime", "1760860800" },
+                { "submit_args", "-N sample-" + i + " job.sh" },
+                { "start_time", "1760860900" },
+                { "start_count", "1" },
+                { "fault_tolerant", "False" },
+                { "job_radix", "0" },
+                { "submit_host", "login1.example.com" } };
+    }
+
+}
@@ -0,0 +1,284 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2012-2015 Bruno P. Kinoshita, BioUno
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tupilabs.pbs;
+
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.List;
+
+import org.apache.commons.exec.CommandLine;
+import org.apache.commons.lang.StringUtils;
+
+import com.tupilabs.pbs.model.ArrayJob;
+import com.tupilabs.pbs.model.Job;
+import com.tupilabs.pbs.model.Node;
+import com.tupilabs.pbs.model.Queue;
+import com.tupilabs.pbs.parser.NodeJsonParser;
+import com.tupilabs.pbs.parser.NodeXmlStreamParser;
+import com.tupilabs.pbs.parser.Parser;
+import com.tupilabs.pbs.parser.QstatArrayJobParser;
+import com.tupilabs.pbs.parser.QstatJobsByteParser;
+import com.tupilabs.pbs.parser.QstatJobsJsonParser;
+import com.tupilabs.pbs.parser.QstatJobsXmlParser;
+import com.tupilabs.pbs.parser.QstatQueuesByteParser;
+import com.tupilabs.pbs.parser.QstatQueuesJsonParser;
+
+/**
+ * Maps each logical query (jobs, queues, nodes, array subjobs) to the cheapest command and parser available for a
+ * server dialect.
+ * <p>
+ * Torque servers use the historical commands: qnodes -x, and qstat -f text (or XML, with qstat -f -x). OpenPBS and
+ * PBS Professional servers use the <code>-F json</code> output of qstat and pbsnodes, as their text output differs
+ * from Torque's and qnodes has no XML output there.
+ *
+ * @author Bruno P. Kinoshita
+ * @since 0.11
+ */
+public class CommandPlan {
+
+    private static final String COMMAND_QNODES = "qnodes";
+    private static final String COMMAND_PBSNODES = "pbsnodes";
+    private static final String COMMAND_QSTAT = "qstat";
+
+    private static final String PARAMETER_XML = "-x";
+    private static final String PARAMETER_FULL_STATUS = "-f";
+    private static final String PARAMETER_ARRAY_JOB_STATUS = "-t";
+    private static final String PARAMETER_QUEUE = "-Q";
+    private static final String PARAMETER_ALL_NODES = "-a";
+    private static final String PARAMETER_VERBOSE = "-v";
+    private static final String PARAMETER_FORMAT = "-F";
+    private static final String FORMAT_JSON = "json";
+
+    private static final Parser<InputStream, List<Job>> JOBS_TEXT_PARSER = new QstatJobsByteParser();
+    private static final Parser<InputStream, List<Job>> JOBS_XML_PARSER = new QstatJobsXmlParser();
+    private static final Parser<InputStream, List<Job>> JOBS_JSON_PARSER = new QstatJobsJsonParser();
+    private static final Parser<InputStream, ArrayJob> ARRAY_JOB_TEXT_PARSER = new QstatArrayJobParser();
+    private static final Parser<InputStream, List<Queue>> QUEUES_TEXT_PARSER = new QstatQueuesByteParser();
+    private static final Parser<InputStream, List<Queue>> QUEUES_JSON_PARSER = new QstatQueuesJsonParser();
+    private static final Parser<InputStream, List<Node>> NODES_XML_PARSER = new NodeXmlStreamParser();
+    private static final Parser<InputStream, List<Node>> NODES_JSON_PARSER = new NodeJsonParser();
+
+    private final ServerDialect dialect;
+
+    /**
+     * @param dialect server dialect
+     */
+    public CommandPlan(ServerDialect dialect) {
+        super();
+        this.dialect = dialect;
+    }
+
+    /**
+     * @return the server dialect
+     */
+    public ServerDialect getDialect() {
+        return dialect;
+    }
+
+    /**
+     * Job status query.
+     *
+     * @param jobIds job ids or names; all jobs if empty
+     * @param xml whether Torque servers should be queried for XML (qstat -f -x) instead of text
+     * @return query
+     */
+    public Query<List<Job>> jobs(Collection<String> jobIds, boolean xml) {
+        final CommandLine cmdLine = new CommandLine(COMMAND_QSTAT);
+        cmdLine.addArgument(PARAMETER_FULL_STATUS);
+        final Parser<InputStream, List<Job>> parser;
+        if (dialect.isOpenPBS()) {
+            cmdLine.addArgument(PARAMETER_FORMAT);
+            cmdLine.addArgument(FORMAT_JSON);
+            parser = JOBS_JSON_PARSER;
+        } else if (xml) {
+            cmdLine.addArgument(PARAMETER_XML);
+            parser = JOBS_XML_PARSER;
+        } else {
+            parser = JOBS_TEXT_PARSER;
+        }
+        for (final String jobId : jobIds) {
+            if (StringUtils.isNotBlank(jobId)) {
+                cmdLine.addArgument(jobId);
+            }
+        }
+        return new Query<List<Job>>(cmdLine, parser);
+    }
+
+    /**
+     * Job status command with text output, qstat -f [name], for parsing one job at a time. Both Torque and OpenPBS
+     * print it in the same <code>name = value</code> layout.
+     *
+     * @param name job id or name; all jobs if blank
+     * @return command line
+     */
+    public CommandLine jobsText(String name) {
+        final CommandLine cmdLine = new CommandLine(COMMAND_QSTAT);
+        cmdLine.addArgument(PARAMETER_FULL_STATUS);
+        if (StringUtils.isNotBlank(name)) {
+            cmdLine.addArgument(name);
+        }
+        return cmdLine;
+    }
+
+    /**
+     * Array subjobs status query.
+     *
+     * @param name array job id; all jobs, with array subjobs expanded, if blank
+     * @return query
+     */
+    public Query<List<Job>> arrayJobs(String name) {
+        final CommandLine cmdLine = new CommandLine(COMMAND_QSTAT);
+        cmdLine.addArgument(PARAMETER_FULL_STATUS);
+        cmdLine.addArgument(PARAMETER_ARRAY_JOB_STATUS);
+        final Parser<InputStream, List<Job>> parser;
+        if (dialect.isOpenPBS()) {
+            cmdLine.addArgument(PARAMETER_FORMAT);
+            cmdLine.addArgument(FORMAT_JSON);
+            parser = JOBS_JSON_PARSER;
+        } else {
+            parser = JOBS_TEXT_PARSER;
+        }
+        if (StringUtils.isNotBlank(name)) {
+            cmdLine.addArgument(name);
+        }
+        return new Query<List<Job>>(cmdLine, parser);
+    }
+
+    /**
+     * Array job status query, qstat -f -t [name], folding the subjobs into an {@link ArrayJob} as they are parsed.
+     * The text output is used for both Torque and OpenPBS, as they print it in the same <code>name = value</code>
+     * layout, and it can be parsed one record at a time.
+     *
+     * @param name array job id
+     * @return query
+     */
+    public Query<ArrayJob> arrayJob(String name) {
+        final CommandLine cmdLine = new CommandLine(COMMAND_QSTAT);
+        cmdLine.addArgument(PARAMETER_FULL_STATUS);
+        cmdLine.addArgument(PARAMETER_ARRAY_JOB_STATUS);
+        cmdLine.addArgument(name);
+        return new Query<ArrayJob>(cmdLine, ARRAY_JOB_TEXT_PARSER);
+    }
+
+    /**
+     * Queue status query.
+     *
+     * @param name queue name; all queues if blank
+     * @return query
+     */
+    public Query<List<Queue>> queues(String name) {
+        final CommandLine cmdLine = new CommandLine(COMMAND_QSTAT);
+        cmdLine.addArgument(PARAMETER_FULL_STATUS);
+        cmdLine.addArgument(PARAMETER_QUEUE);
+        final Parser<InputStream, List<Queue>> parser;
+        if (dialect.isOpenPBS()) {
+            cmdLine.addArgument(PARAMETER_FORMAT);
+            cmdLine.addArgument(FORMAT_JSON);
+            parser = QUEUES_JSON_PARSER;
+        } else {
+            parser = QUEUES_TEXT_PARSER;
+        }
+        if (StringUtils.isNotBlank(name)) {
+            cmdLine.addArgument(name);
+        }
+        return new Query<List<Queue>>(cmdLine, parser);
+    }
+
+    /**
+     * Node status query.
+     *
+     * @param name node name; all nodes if blank
+     * @return query
+     */
+    public Query<List<Node>> nodes(String name) {
+        final CommandLine cmdLine;
+        final Parser<InputStream, List<Node>> parser;
+        if (dialect.isOpenPBS()) {
+            cmdLine = new CommandLine(COMMAND_PBSNODES);
+            if (StringUtils.isNotBlank(name)) {
+                cmdLine.addArgument(PARAMETER_VERBOSE);
+            } else {
+                cmdLine.addArgument(PARAMETER_ALL_NODES);
+                cmdLine.addArgument(PARAMETER_VERBOSE);
+            }
+            cmdLine.addArgument(PARAMETER_FORMAT);
+            cmdLine.addArgument(FORMAT_JSON);
+            parser = NODES_JSON_PARSER;
+        } else {
+            cmdLine = new CommandLine(COMMAND_QNODES);
+            cmdLine.addArgument(PARAMETER_XML);
+            parser = NODES_XML_PARSER;
+        }
+        if (StringUtils.isNotBlank(name)) {
+            cmdLine.addArgument(name);
+        }
+        return new Query<List<Node>>(cmdLine, parser);
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return "CommandPlan[" + dialect + "]";
+    }
+
+    /**
+     * A command line, and the parser for its standard output.
+     *
+     * @param <T> parse result type
+     */
+    public static final class Query<T> {
+
+        private final CommandLine commandLine;
+
+        private final Parser<InputStream, T> parser;
+
+        /**
+         * @param commandLine command line
+         * @param parser parser for the command standard output
+         */
+        public Query(CommandLine commandLine, Parser<InputStream, T> parser) {
+            this.commandLine = commandLine;
+            this.parser = parser;
+        }
+
+        /**
+         * @return the command line
+         */
+        public CommandLine getCommandLine() {
+            return commandLine;
+        }
+
+        /**
+         * @return the parser for the command standard output
+         */
+        public Parser<InputStream, T> getParser() {
+            return parser;
+        }
+
+    }
+
+}
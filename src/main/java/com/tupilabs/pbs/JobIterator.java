@@ -0,0 +1,193 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2012-2015 Bruno P. Kinoshita, BioUno
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tupilabs.pbs;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.commons.exec.DefaultExecuteResultHandler;
+import org.apache.commons.exec.ExecuteWatchdog;
+
+import com.tupilabs.pbs.model.Job;
+import com.tupilabs.pbs.parser.QstatJobsIterator;
+import com.tupilabs.pbs.util.ChunkedOutputStream;
+import com.tupilabs.pbs.util.PBSException;
+import com.tupilabs.pbs.util.PullStreamHandler;
+
+/**
+ * Jobs of a running qstat -f command, parsed one at a time as they are iterated (see {@link PBS#qstatIterator}).
+ * <p>
+ * The command runs as fast as the jobs are consumed. Iterators must be closed when not read to the end: closing
+ * kills the command, so that finding the first matching job, or the top K, does not wait for the whole output. When
+ * read to the end, a failure of the command is thrown as a {@link PBSException} by {@link #hasNext()}.
+ *
+ * @author Bruno P. Kinoshita
+ * @since 0.11
+ */
+public class JobIterator implements Iterator<Job>, Closeable {
+
+    private static final Logger LOGGER = Logger.getLogger(JobIterator.class.getName());
+
+    /**
+     * Time to wait for the command to exit once its output is read, in milliseconds.
+     */
+    private static final long EXIT_TIMEOUT = 60000L;
+
+    private final InputStream output;
+
+    private final QstatJobsIterator jobs;
+
+    private final PullStreamHandler streamHandler;
+
+    private final ExecuteWatchdog watchdog;
+
+    private final DefaultExecuteResultHandler resultHandler;
+
+    private final ChunkedOutputStream err;
+
+    private boolean empty = true;
+
+    private boolean exhausted = false;
+
+    private boolean closed = false;
+
+    /**
+     * @param output command standard output
+     * @param streamHandler stream handler of the command, released on close
+     * @param watchdog watchdog of the command, used to kill it on early close
+     * @param resultHandler result handler of the command, checked once the output is read to the end
+     * @param err command error output, released on close
+     */
+    JobIterator(InputStream output, PullStreamHandler streamHandler, ExecuteWatchdog watchdog,
+            DefaultExecuteResultHandler resultHandler, ChunkedOutputStream err) {
+        super();
+        this.output = output;
+        this.jobs = new QstatJobsIterator(output);
+        this.streamHandler = streamHandler;
+        this.watchdog = watchdog;
+        this.resultHandler = resultHandler;
+        this.err = err;
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see java.util.Iterator#hasNext()
+     */
+    @Override
+    public boolean hasNext() {
+        if (closed) {
+            return false;
+        }
+        try {
+            if (jobs.hasNext()) {
+                return true;
+            }
+        } catch (RuntimeException e) {
+            close();
+            throw e;
+        }
+        exhausted = true;
+        close();
+        checkExit();
+        return false;
+    }
+
+    /**
+     * Wait for the command to exit, and check its exit value and error output, once its output was read to the end.
+     *
+     * @throws PBSException if the command failed
+     */
+    private void checkExit() {
+        try {
+            resultHandler.waitFor(EXIT_TIMEOUT);
+            if (!resultHandler.hasResult()) {
+                throw new PBSException("Timed out waiting for qstat command to exit");
+            }
+            final int exitValue = resultHandler.getExitValue();
+            LOGGER.info("qstat exit value: " + exitValue);
+            PBS.checkJobErrors("qstat", exitValue, empty, err.toString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PBSException("Interrupted waiting for qstat command to exit", e);
+        } finally {
+            err.close();
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see java.util.Iterator#next()
+     */
+    @Override
+    public Job next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        empty = false;
+        return jobs.next();
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see java.util.Iterator#remove()
+     */
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Kill the command, unless its output was read to the end, and release its output.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (!exhausted) {
+            LOGGER.fine("Closing qstat output before its end, killing the command");
+            watchdog.destroyProcess();
+        }
+        // closing the pipe also stops a command that the watchdog was not watching yet
+        try {
+            output.close();
+        } catch (IOException e) {
+            if (LOGGER.isLoggable(Level.FINE)) {
+                LOGGER.log(Level.FINE, "Failed to close qstat output: " + e.getMessage(), e);
+            }
+        }
+        streamHandler.release();
+        if (!exhausted) {
+            // the error output is only checked when the output is read to the end
+            err.close();
+        }
+    }
+
+}
@@ -0,0 +1,293 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2012-2015 Bruno P. Kinoshita, BioUno
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tupilabs.pbs;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.tupilabs.pbs.model.Job;
+import com.tupilabs.pbs.util.PBSException;
+
+/**
+ * Collects single job status lookups arriving from many threads within a short window, and resolves them with one
+ * {@link PBS#qstat(Collection)} call.
+ * <p>
+ * The first lookup of a batch schedules a flush after the window; lookups arriving before the flush join the same
+ * batch. Each caller gets a future completed with its job, or with <code>null</code> if the server does not know the
+ * job anymore.
+ *
+ * @author Bruno P. Kinoshita
+ * @since 0.11
+ */
+public class JobStatusBatcher {
+
+    private static final Logger LOGGER = Logger.getLogger(JobStatusBatcher.class.getName());
+
+    /**
+     * Default batching window, in milliseconds.
+     */
+    public static final long DEFAULT_WINDOW = 100L;
+
+    /**
+     * Batching window, in milliseconds.
+     */
+    private final long window;
+
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Guards the pending lookups and the shutdown flag.
+     */
+    private final Object lock = new Object();
+
+    /**
+     * Lookups of the current batch, by job id, in arrival order.
+     */
+    private Map<String, List<JobFuture>> pending = new LinkedHashMap<String, List<JobFuture>>();
+
+    private boolean shutdown = false;
+
+    /**
+     * Create a batcher with the default window.
+     */
+    public JobStatusBatcher() {
+        this(DEFAULT_WINDOW);
+    }
+
+    /**
+     * Create a batcher.
+     *
+     * @param window batching window, in milliseconds
+     */
+    public JobStatusBatcher(long window) {
+        if (window < 0) {
+            throw new IllegalArgumentException("Invalid batching window: " + window);
+        }
+        this.window = window;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                final Thread thread = new Thread(runnable, "pbs-job-status-batcher");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * @return the batching window, in milliseconds
+     */
+    public long getWindow() {
+        return window;
+    }
+
+    /**
+     * Queue a status lookup for the next batch.
+     *
+     * @param jobId job id
+     * @return future completed with the job, or <code>null</code> if the job is unknown
+     * @throws PBSException if the batcher has been shut down
+     */
+    public Future<Job> submit(String jobId) {
+        final JobFuture future = new JobFuture();
+        synchronized (lock) {
+            if (shutdown) {
+                throw new PBSException("Job status batcher has been shut down");
+            }
+            final boolean first = pending.isEmpty();
+            List<JobFuture> futures = pending.get(jobId);
+            if (futures == null) {
+                futures = new ArrayList<JobFuture>(1);
+                pending.put(jobId, futures);
+            }
+            futures.add(future);
+            if (first) {
+                scheduler.schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        flush();
+                    }
+                }, window, TimeUnit.MILLISECONDS);
+            }
+        }
+        return future;
+    }
+
+    /**
+     * Look up the status of a job, waiting for the batch it joins.
+     *
+     * @param jobId job id
+     * @return the job, or <code>null</code> if the job is unknown
+     * @throws PBSException if the lookup fails
+     */
+    public Job qstat(String jobId) {
+        try {
+            return submit(jobId).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PBSException("Interrupted waiting for job status: " + e.getMessage(), e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof PBSException) {
+                throw (PBSException) e.getCause();
+            }
+            throw new PBSException("Failed to look up job status: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * Resolve the lookups queued so far. Called by the scheduler once the window expires, but can also be called to
+     * resolve the current batch immediately.
+     */
+    public void flush() {
+        final Map<String, List<JobFuture>> batch;
+        synchronized (lock) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            pending = new LinkedHashMap<String, List<JobFuture>>();
+        }
+        if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.fine("Looking up " + batch.size() + " jobs in one batch");
+        }
+        Map<String, Job> jobs = null;
+        Throwable failure = null;
+        try {
+            jobs = lookup(batch.keySet());
+        } catch (RuntimeException e) {
+            failure = e;
+        } catch (Error e) {
+            failure = e;
+        }
+        for (final Map.Entry<String, List<JobFuture>> entry : batch.entrySet()) {
+            final Job job = jobs == null ? null : jobs.get(entry.getKey());
+            for (final JobFuture future : entry.getValue()) {
+                future.complete(job, failure);
+            }
+        }
+    }
+
+    /**
+     * Resolve the pending lookups and stop the scheduler thread. Further lookups are rejected.
+     */
+    public void shutdown() {
+        synchronized (lock) {
+            shutdown = true;
+        }
+        flush();
+        scheduler.shutdown();
+    }
+
+    /**
+     * Look up a batch of jobs. Defaults to {@link PBS#qstat(Collection)}.
+     *
+     * @param jobIds job ids
+     * @return jobs keyed by job id
+     */
+    protected Map<String, Job> lookup(Collection<String> jobIds) {
+        return PBS.qstat(jobIds);
+    }
+
+    /**
+     * Future completed by {@link JobStatusBatcher#flush()}. Cancelling it only stops the caller waiting; the job is
+     * still looked up with its batch.
+     */
+    private static final class JobFuture implements Future<Job> {
+
+        private final CountDownLatch done = new CountDownLatch(1);
+
+        private volatile Job job;
+
+        private volatile Throwable failure;
+
+        private volatile boolean cancelled;
+
+        void complete(Job job, Throwable failure) {
+            this.job = job;
+            this.failure = failure;
+            done.countDown();
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            if (done.getCount() == 0) {
+                return false;
+            }
+            cancelled = true;
+            done.countDown();
+            return true;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public boolean isDone() {
+            return done.getCount() == 0;
+        }
+
+        @Override
+        public Job get() throws InterruptedException, ExecutionException {
+            done.await();
+            return result();
+        }
+
+        @Override
+        public Job get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException,
+                TimeoutException {
+            if (!done.await(timeout, unit)) {
+                throw new TimeoutException("Timed out waiting for job status");
+            }
+            return result();
+        }
+
+        private Job result() throws ExecutionException {
+            if (cancelled) {
+                throw new CancellationException();
+            }
+            if (failure != null) {
+                throw new ExecutionException(failure);
+            }
+            return job;
+        }
+
+    }
+
+}
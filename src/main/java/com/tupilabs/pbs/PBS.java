@@ -23,13 +23,26 @@
  */
 package com.tupilabs.pbs;
 
-import java.io.ByteArrayOutputStream;
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.apache.commons.exec.CommandLine;
@@ -37,18 +50,29 @@ import org.apache.commons.exec.DefaultExecuteResultHandler;
 import org.apache.commons.exec.DefaultExecutor;
 import org.apache.commons.exec.ExecuteException;
 import org.apache.commons.exec.ExecuteStreamHandler;
+import org.apache.commons.exec.ExecuteWatchdog;
 import org.apache.commons.exec.PumpStreamHandler;
 import org.apache.commons.lang.StringUtils;
 
+import com.tupilabs.pbs.model.ArrayJob;
 import com.tupilabs.pbs.model.Job;
+import com.tupilabs.pbs.model.JobFilter;
+import com.tupilabs.pbs.model.JobSnapshot;
+import com.tupilabs.pbs.model.JobSummary;
 import com.tupilabs.pbs.model.Node;
 import com.tupilabs.pbs.model.Queue;
-import com.tupilabs.pbs.parser.NodeXmlParser;
 import com.tupilabs.pbs.parser.ParseException;
-import com.tupilabs.pbs.parser.QstatJobsParser;
-import com.tupilabs.pbs.parser.QstatQueuesParser;
+import com.tupilabs.pbs.parser.QstatJobsIncrementalParser;
+import com.tupilabs.pbs.parser.QstatSummaryParser;
+import com.tupilabs.pbs.util.BufferPool;
+import com.tupilabs.pbs.util.ChunkedOutputStream;
 import com.tupilabs.pbs.util.CommandOutput;
+import com.tupilabs.pbs.util.ParsingStreamHandler;
+import com.tupilabs.pbs.util.PullStreamHandler;
 import com.tupilabs.pbs.util.PBSException;
+import com.tupilabs.pbs.util.PartialSubmissionException;
+import com.tupilabs.pbs.util.SpillingOutputStream;
+import com.tupilabs.pbs.util.Utils;
 
 /**
  * PBS Java API.
@@ -80,39 +104,7 @@ public class PBS {
      * @throws PBSException if an error communicating with the PBS occurs
      */
     public static List<Node> qnodes(String name) {
-        final List<Node> nodes;
-
-        final CommandLine cmdLine = new CommandLine(COMMAND_QNODES);
-        cmdLine.addArgument(PARAMETER_XML);
-        if (StringUtils.isNotBlank(name)) {
-            cmdLine.addArgument(name);
-        }
-
-        final OutputStream out = new ByteArrayOutputStream();
-        final OutputStream err = new ByteArrayOutputStream();
-
-        DefaultExecuteResultHandler resultHandler;
-        try {
-            resultHandler = execute(cmdLine, null, out, err);
-            resultHandler.waitFor(DEFAULT_TIMEOUT);
-        } catch (ExecuteException e) {
-            throw new PBSException("Failed to execute qnodes command: " + e.getMessage(), e);
-        } catch (IOException e) {
-            throw new PBSException("Failed to execute qnodes command: " + e.getMessage(), e);
-        } catch (InterruptedException e) {
-            throw new PBSException("Failed to execute qnodes command: " + e.getMessage(), e);
-        }
-
-        final int exitValue = resultHandler.getExitValue();
-        LOGGER.info("qnodes exit value: " + exitValue);
-
-        try {
-            nodes = NODE_XML_PARSER.parse(out.toString());
-        } catch (ParseException pe) {
-            throw new PBSException("Failed to parse node XML: " + pe.getMessage(), pe);
-        }
-
-        return nodes;
+        return query(getCommandPlan().nodes(name), false);
     }
 
     /**
@@ -135,39 +127,7 @@ public class PBS {
      * @return list of queues
      */
     public static List<Queue> qstatQueues(String name) {
-        final CommandLine cmdLine = new CommandLine(COMMAND_QSTAT);
-        cmdLine.addArgument(PARAMETER_FULL_STATUS);
-        cmdLine.addArgument(PARAMETER_QUEUE);
-        if (StringUtils.isNotBlank(name)) {
-            cmdLine.addArgument(name);
-        }
-
-        final OutputStream out = new ByteArrayOutputStream();
-        final OutputStream err = new ByteArrayOutputStream();
-
-        DefaultExecuteResultHandler resultHandler;
-        try {
-            resultHandler = execute(cmdLine, null, out, err);
-            resultHandler.waitFor(DEFAULT_TIMEOUT);
-        } catch (ExecuteException e) {
-            throw new PBSException("Failed to execute qstat command: " + e.getMessage(), e);
-        } catch (IOException e) {
-            throw new PBSException("Failed to execute qstat command: " + e.getMessage(), e);
-        } catch (InterruptedException e) {
-            throw new PBSException("Failed to execute qstat command: " + e.getMessage(), e);
-        }
-
-        final int exitValue = resultHandler.getExitValue();
-        LOGGER.info("qstat exit value: " + exitValue);
-
-        final List<Queue> queues;
-        try {
-            queues = QSTAT_QUEUES_PARSER.parse(out.toString());
-        } catch (ParseException pe) {
-            throw new PBSException("Failed to parse qstat queues output: " + pe.getMessage(), pe);
-        }
-
-        return (queues == null ? new ArrayList<Queue>(0) : queues);
+        return query(getCommandPlan().queues(name), false);
     }
 
     /**
@@ -214,82 +174,629 @@ public class PBS {
      * @return list of jobs
      */
     public static List<Job> qstat(String name) {
-        final CommandLine cmdLine = new CommandLine(COMMAND_QSTAT);
-        cmdLine.addArgument(PARAMETER_FULL_STATUS);
-        if (StringUtils.isNotBlank(name)) {
-            cmdLine.addArgument(name);
-        }
+        final List<String> names = StringUtils.isNotBlank(name) ? Collections.singletonList(name)
+                : Collections.<String> emptyList();
+        return query(getCommandPlan().jobs(names, xmlJobStatus), false);
+    }
 
-        final OutputStream out = new ByteArrayOutputStream();
-        final OutputStream err = new ByteArrayOutputStream();
+    /**
+     * PBS qstat command, parsing the jobs lazily, one at a time, as they are iterated.
+     * <p>
+     * Equivalent to qstat -f [param]. The command runs until the iterator has been read to the end or closed, and it
+     * is killed if the iterator is closed early, so the iterator must always be closed, e.g. in a finally block.
+     * Once the iterator is read to the end, the command exit value and error output are checked as for
+     * {@link #qstat(Collection)}: unknown or finished jobs are ignored, and other errors are thrown.
+     * There is no timeout, as the command waits for the caller to consume its output.
+     *
+     * @param name job id or name; all jobs if blank
+     * @return job iterator
+     * @since 0.11
+     */
+    public static JobIterator qstatIterator(String name) {
+        final CommandLine cmdLine = getCommandPlan().jobsText(name);
+        final ChunkedOutputStream err = new ChunkedOutputStream(BUFFER_POOL);
+        final PullStreamHandler streamHandler = new PullStreamHandler(err);
+        final ExecuteWatchdog watchdog = new ExecuteWatchdog(ExecuteWatchdog.INFINITE_TIMEOUT);
 
         DefaultExecuteResultHandler resultHandler;
         try {
-            resultHandler = execute(cmdLine, null, out, err);
-            resultHandler.waitFor(DEFAULT_TIMEOUT);
+            resultHandler = execute(cmdLine, null, streamHandler, watchdog);
+            return new JobIterator(streamHandler.getOutput(resultHandler), streamHandler, watchdog, resultHandler,
+                    err);
         } catch (ExecuteException e) {
+            err.close();
             throw new PBSException("Failed to execute qstat command: " + e.getMessage(), e);
         } catch (IOException e) {
+            err.close();
             throw new PBSException("Failed to execute qstat command: " + e.getMessage(), e);
-        } catch (InterruptedException e) {
-            throw new PBSException("Failed to execute qstat command: " + e.getMessage(), e);
+        } catch (RuntimeException e) {
+            err.close();
+            throw e;
         }
+    }
 
-        final int exitValue = resultHandler.getExitValue();
-        LOGGER.info("qstat exit value: " + exitValue);
+    /**
+     * PBS qstat command for all jobs, for polling. Equivalent to qstat -f.
+     * <p>
+     * The parser keeps the jobs of the previous call, and only the jobs whose qstat -f block changed since then are
+     * parsed again; the others are the same {@link Job} instances, which must not be modified. Use one parser per
+     * poller.
+     *
+     * @param parser incremental parser of the poller
+     * @return list of jobs
+     * @since 0.11
+     */
+    public static List<Job> qstatIncremental(QstatJobsIncrementalParser parser) {
+        return query(new CommandPlan.Query<List<Job>>(getCommandPlan().jobsText(null), parser), false);
+    }
 
-        final List<Job> jobs;
-        try {
-            jobs = QSTAT_JOBS_PARSER.parse(out.toString());
-        } catch (ParseException pe) {
-            throw new PBSException("Failed to parse qstat jobs output: " + pe.getMessage(), pe);
+    /**
+     * PBS qstat command, for the given attributes only.
+     * <p>
+     * When all the attributes are listed by plain qstat ({@link #SUMMARY_ATTRIBUTES}), the much smaller summary
+     * table is parsed instead of qstat -f (see {@link #qstatSummary(String)}), and the jobs returned have only those
+     * attributes and their id set. Note that in that case the owner is the user name, without the submit host. Job
+     * names are truncated by qstat, so they are not taken from the summary table. Job ids may be truncated too
+     * (see {@link JobSummary#isIdTruncated()}): if any is, qstat -f is run instead, so that the ids returned are
+     * always complete. Otherwise, or when no attribute is given, this is the same as {@link #qstat(String)}.
+     *
+     * @param name job name
+     * @param attributes qstat -f attribute names, e.g. <code>job_state</code>
+     * @return list of jobs
+     * @since 0.11
+     */
+    public static List<Job> qstat(String name, String... attributes) {
+        if (attributes == null || attributes.length == 0) {
+            return qstat(name);
+        }
+        for (final String attribute : attributes) {
+            if (!SUMMARY_ATTRIBUTES.contains(attribute.toLowerCase())) {
+                return qstat(name);
+            }
+        }
+        final List<JobSummary> summaries = qstatSummary(name);
+        final List<Job> jobs = new ArrayList<Job>(summaries.size());
+        for (final JobSummary summary : summaries) {
+            if (summary.isIdTruncated()) {
+                if (LOGGER.isLoggable(Level.FINE)) {
+                    LOGGER.fine("Truncated job id in qstat summary, running qstat -f instead: " + summary.getId());
+                }
+                return qstat(name);
+            }
+            jobs.add(summary.toJob());
         }
+        return jobs;
+    }
 
-        return (jobs == null ? new ArrayList<Job>(0) : jobs);
+    /**
+     * PBS qstat command, without full status.
+     * <p>
+     * Equivalent to qstat [param]
+     *
+     * @param name job name
+     * @return list of job summaries
+     * @since 0.11
+     */
+    public static List<JobSummary> qstatSummary(String name) {
+        return qstatSummary(name, false);
     }
 
     /**
-     * PBS qstat command for Array Jobs
+     * PBS qstat command, without full status.
      * <p>
-     * Equivalent to qstat -f -t [param]
+     * Equivalent to qstat [-a] [param]
      *
      * @param name job name
-     * @return list of jobs
+     * @param alternative whether to use the alternative display (qstat -a), which adds the session id, requested
+     *            resources and elapsed time but not the CPU time used
+     * @return list of job summaries
+     * @since 0.11
      */
-    public static List<Job> qstatArrayJob(String name) {
+    public static List<JobSummary> qstatSummary(String name, boolean alternative) {
         final CommandLine cmdLine = new CommandLine(COMMAND_QSTAT);
-        cmdLine.addArgument(PARAMETER_FULL_STATUS);
-        cmdLine.addArgument(PARAMETER_ARRAY_JOB_STATUS);
+        if (alternative) {
+            cmdLine.addArgument(PARAMETER_ALTERNATIVE_DISPLAY);
+        }
         if (StringUtils.isNotBlank(name)) {
             cmdLine.addArgument(name);
         }
 
-        final OutputStream out = new ByteArrayOutputStream();
-        final OutputStream err = new ByteArrayOutputStream();
+        final SpillingOutputStream out = new SpillingOutputStream(BUFFER_POOL, outputSpillThreshold);
+        final ChunkedOutputStream err = new ChunkedOutputStream(BUFFER_POOL);
+        try {
+            DefaultExecuteResultHandler resultHandler;
+            try {
+                resultHandler = execute(cmdLine, null, out, err);
+                resultHandler.waitFor(DEFAULT_TIMEOUT);
+            } catch (ExecuteException e) {
+                throw new PBSException("Failed to execute qstat command: " + e.getMessage(), e);
+            } catch (IOException e) {
+                throw new PBSException("Failed to execute qstat command: " + e.getMessage(), e);
+            } catch (InterruptedException e) {
+                throw new PBSException("Failed to execute qstat command: " + e.getMessage(), e);
+            }
+
+            final int exitValue = resultHandler.getExitValue();
+            LOGGER.info("qstat exit value: " + exitValue);
+
+            try {
+                return QSTAT_SUMMARY_PARSER.parse(new BufferedReader(new InputStreamReader(out.toInputStream())));
+            } catch (ParseException pe) {
+                throw new PBSException("Failed to parse qstat summary output: " + pe.getMessage(), pe);
+            } catch (IOException e) {
+                throw new PBSException("Failed to read qstat summary output: " + e.getMessage(), e);
+            }
+        } finally {
+            out.close();
+            err.close();
+        }
+    }
 
-        DefaultExecuteResultHandler resultHandler;
+    /**
+     * PBS qstat command for an explicit set of jobs.
+     * <p>
+     * Equivalent to qstat -f [job_id job_id ...], with the ids split into as few invocations as the argument length
+     * allows ({@link #MAX_JOB_ID_ARGUMENT_LENGTH}), run by at most {@link #MAX_PARALLEL_QSTAT} threads.
+     * <p>
+     * Jobs that the server does not know anymore (<code>Unknown Job Id</code>, usually because they finished) are
+     * mapped to <code>null</code> instead of failing the whole call. Ids may be given either in full
+     * (<code>123.server</code>) or without the server name (<code>123</code>).
+     *
+     * @param jobIds job ids
+     * @return jobs keyed by the requested job id, in the order given
+     * @since 0.11
+     */
+    public static Map<String, Job> qstat(Collection<String> jobIds) {
+        final Map<String, Job> result = new LinkedHashMap<String, Job>();
+        final List<List<String>> chunks = new ArrayList<List<String>>();
+        List<String> chunk = new ArrayList<String>();
+        int length = 0;
+        for (final String jobId : jobIds) {
+            if (StringUtils.isBlank(jobId) || result.containsKey(jobId)) {
+                continue;
+            }
+            result.put(jobId, null);
+            if (!chunk.isEmpty() && length + jobId.length() + 1 > MAX_JOB_ID_ARGUMENT_LENGTH) {
+                chunks.add(chunk);
+                chunk = new ArrayList<String>();
+                length = 0;
+            }
+            chunk.add(jobId);
+            length += jobId.length() + 1;
+        }
+        if (!chunk.isEmpty()) {
+            chunks.add(chunk);
+        }
+
+        final Map<String, Job> found = new HashMap<String, Job>();
+        for (final List<Job> jobs : qstatChunks(chunks)) {
+            for (final Job job : jobs) {
+                found.put(job.getId(), job);
+                found.put(shortJobId(job.getId()), job);
+            }
+        }
+        for (final Map.Entry<String, Job> entry : result.entrySet()) {
+            Job job = found.get(entry.getKey());
+            if (job == null) {
+                job = found.get(shortJobId(entry.getKey()));
+            }
+            entry.setValue(job);
+        }
+        return result;
+    }
+
+    /**
+     * Runs qstat for each chunk of job ids, in parallel when there is more than one chunk.
+     *
+     * @param chunks job ids per invocation
+     * @return jobs returned by each invocation
+     */
+    private static List<List<Job>> qstatChunks(List<List<String>> chunks) {
+        final List<List<Job>> results = new ArrayList<List<Job>>(chunks.size());
+        if (chunks.size() <= 1) {
+            for (final List<String> chunk : chunks) {
+                results.add(qstatJobIds(chunk));
+            }
+            return results;
+        }
+        final ExecutorService executorService = Executors.newFixedThreadPool(Math.min(chunks.size(),
+                MAX_PARALLEL_QSTAT));
         try {
-            resultHandler = execute(cmdLine, out, err);
-            resultHandler.waitFor(DEFAULT_TIMEOUT);
-        } catch (ExecuteException e) {
-            throw new PBSException("Failed to execute qstat command: " + e.getMessage(), e);
-        } catch (IOException e) {
-            throw new PBSException("Failed to execute qstat command: " + e.getMessage(), e);
+            final List<Future<List<Job>>> futures = new ArrayList<Future<List<Job>>>(chunks.size());
+            for (final List<String> chunk : chunks) {
+                futures.add(executorService.submit(new Callable<List<Job>>() {
+                    @Override
+                    public List<Job> call() {
+                        return qstatJobIds(chunk);
+                    }
+                }));
+            }
+            for (final Future<List<Job>> future : futures) {
+                results.add(future.get());
+            }
         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
             throw new PBSException("Failed to execute qstat command: " + e.getMessage(), e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof PBSException) {
+                throw (PBSException) e.getCause();
+            }
+            throw new PBSException("Failed to execute qstat command: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            executorService.shutdownNow();
+        }
+        return results;
+    }
+
+    /**
+     * PBS qstat command for a list of job ids, in a single invocation.
+     * <p>
+     * Equivalent to qstat -f [job_id job_id ...]
+     *
+     * @param jobIds job ids
+     * @return jobs known by the server
+     */
+    private static List<Job> qstatJobIds(List<String> jobIds) {
+        // qstat exits non-zero when any of the ids is unknown, but still reports the others
+        return query(getCommandPlan().jobs(jobIds, xmlJobStatus), true);
+    }
+
+    /**
+     * Run a query of the command plan, parsing the command output while it runs.
+     *
+     * @param query command line and parser
+     * @param unknownJobs whether some of the requested jobs may be unknown or finished, in which case the error
+     *            output is checked for other errors; otherwise the exit value is only logged
+     * @param <T> parse result type
+     * @return parse result
+     */
+    private static <T> T query(CommandPlan.Query<T> query, boolean unknownJobs) {
+        final String command = query.getCommandLine().getExecutable();
+        final ChunkedOutputStream err = new ChunkedOutputStream(BUFFER_POOL);
+        final ParsingStreamHandler<T> streamHandler = new ParsingStreamHandler<T>(query.getParser(), err);
+        try {
+            DefaultExecuteResultHandler resultHandler;
+            try {
+                resultHandler = execute(query.getCommandLine(), null, streamHandler);
+                resultHandler.waitFor(DEFAULT_TIMEOUT);
+            } catch (ExecuteException e) {
+                throw new PBSException("Failed to execute " + command + " command: " + e.getMessage(), e);
+            } catch (IOException e) {
+                throw new PBSException("Failed to execute " + command + " command: " + e.getMessage(), e);
+            } catch (InterruptedException e) {
+                throw new PBSException("Failed to execute " + command + " command: " + e.getMessage(), e);
+            }
+
+            if (!resultHandler.hasResult()) {
+                throw new PBSException("Timed out waiting for " + command + " command");
+            }
+            final int exitValue = resultHandler.getExitValue();
+            LOGGER.info(command + " exit value: " + exitValue);
+
+            final T result;
+            try {
+                result = streamHandler.getResult();
+            } catch (ParseException pe) {
+                throw new PBSException("Failed to parse " + command + " output: " + pe.getMessage(), pe);
+            }
+
+            if (unknownJobs) {
+                checkJobErrors(command, exitValue, result == null || ((Collection<?>) result).isEmpty(),
+                        err.toString());
+            }
+            return result;
+        } finally {
+            err.close();
+        }
+    }
+
+    /**
+     * Check the error output of a query for explicit job ids. Lines about jobs that are unknown or finished (see
+     * {@link #JOB_GONE_ERRORS}) are expected, as jobs leave the server between polls. Any other line fails the query
+     * when the command failed, and is logged otherwise.
+     *
+     * @param command command name
+     * @param exitValue command exit value
+     * @param empty whether no job was returned
+     * @param errorOutput command error output
+     */
+    static void checkJobErrors(String command, int exitValue, boolean empty, String errorOutput) {
+        final StringBuilder errors = new StringBuilder();
+        for (final String line : StringUtils.split(errorOutput, "\r\n")) {
+            if (StringUtils.isBlank(line)) {
+                continue;
+            }
+            boolean gone = false;
+            for (final String error : JOB_GONE_ERRORS) {
+                if (line.contains(error)) {
+                    gone = true;
+                    break;
+                }
+            }
+            if (gone) {
+                if (LOGGER.isLoggable(Level.FINE)) {
+                    LOGGER.fine(line);
+                }
+            } else {
+                errors.append(line).append('\n');
+            }
+        }
+        if (errors.length() > 0) {
+            if (exitValue != 0) {
+                throw new PBSException("Failed to execute " + command + " command. Error output: " + errors);
+            }
+            LOGGER.warning(command + " error output: " + errors);
+        } else if (exitValue != 0 && empty && StringUtils.isBlank(errorOutput)) {
+            throw new PBSException("Failed to execute " + command + " command. Exit value: " + exitValue);
         }
+    }
 
-        final int exitValue = resultHandler.getExitValue();
-        LOGGER.info("qstat exit value: " + exitValue);
+    /**
+     * Detect the dialect of the PBS server, with <code>qstat --version</code>.
+     *
+     * @return server dialect, or {@link ServerDialect#UNKNOWN} if the command fails
+     * @since 0.11
+     */
+    public static ServerDialect detectDialect() {
+        final CommandLine cmdLine = new CommandLine(COMMAND_QSTAT);
+        cmdLine.addArgument(PARAMETER_VERSION);
 
-        final List<Job> jobs;
+        final ChunkedOutputStream out = new ChunkedOutputStream(BUFFER_POOL);
+        final ChunkedOutputStream err = new ChunkedOutputStream(BUFFER_POOL);
         try {
-            jobs = QSTAT_JOBS_PARSER.parse(out.toString());
-        } catch (ParseException pe) {
-            throw new PBSException("Failed to parse qstat jobs output: " + pe.getMessage(), pe);
+            DefaultExecuteResultHandler resultHandler;
+            try {
+                resultHandler = execute(cmdLine, null, out, err);
+                resultHandler.waitFor(DEFAULT_TIMEOUT);
+            } catch (ExecuteException e) {
+                LOGGER.log(Level.WARNING, "Failed to detect the PBS server dialect: " + e.getMessage(), e);
+                return ServerDialect.UNKNOWN;
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Failed to detect the PBS server dialect: " + e.getMessage(), e);
+                return ServerDialect.UNKNOWN;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return ServerDialect.UNKNOWN;
+            }
+
+            if (!resultHandler.hasResult()) {
+                LOGGER.warning("Failed to detect the PBS server dialect: timed out waiting for qstat command");
+                return ServerDialect.UNKNOWN;
+            }
+
+            // some versions print the version to the error output
+            final ServerDialect dialect = ServerDialect.parse(out.toString() + "\n" + err.toString());
+            LOGGER.info("PBS server dialect: " + dialect);
+            return dialect;
+        } finally {
+            out.close();
+            err.close();
         }
+    }
 
-        return (jobs == null ? new ArrayList<Job>(0) : jobs);
+    /**
+     * Get the command plan used for job, queue and node queries. It is created on first use for the dialect
+     * detected with {@link #detectDialect()}, and kept for the lifetime of the class. When the detection fails, the
+     * plan for an unknown dialect (the Torque commands) is used, and the detection is tried again after
+     * {@link #DIALECT_DETECTION_RETRY_INTERVAL} milliseconds.
+     *
+     * @return command plan
+     * @since 0.11
+     */
+    public static CommandPlan getCommandPlan() {
+        CommandPlan plan = commandPlan;
+        if (plan == null || System.currentTimeMillis() >= dialectDetectionRetryTime) {
+            synchronized (PBS.class) {
+                plan = commandPlan;
+                if (plan == null || System.currentTimeMillis() >= dialectDetectionRetryTime) {
+                    final ServerDialect dialect = detectDialect();
+                    plan = new CommandPlan(dialect);
+                    dialectDetectionRetryTime = dialect.getFamily() == ServerDialect.Family.UNKNOWN
+                            ? System.currentTimeMillis() + DIALECT_DETECTION_RETRY_INTERVAL : Long.MAX_VALUE;
+                    commandPlan = plan;
+                }
+            }
+        }
+        return plan;
+    }
+
+    /**
+     * Set the command plan, e.g. <code>new CommandPlan(new ServerDialect(Family.TORQUE, null))</code> to skip the
+     * detection, or <code>null</code> to detect the dialect again on next use.
+     *
+     * @param commandPlan command plan
+     * @since 0.11
+     */
+    public static void setCommandPlan(CommandPlan commandPlan) {
+        synchronized (PBS.class) {
+            PBS.dialectDetectionRetryTime = commandPlan == null ? 0L : Long.MAX_VALUE;
+            PBS.commandPlan = commandPlan;
+        }
+    }
+
+    /**
+     * Whether job status is queried as XML (qstat -f -x) on Torque servers. The XML is parsed by
+     * {@link com.tupilabs.pbs.parser.QstatJobsXmlParser}, and also lists the completed jobs kept by the server, with
+     * their exit status. OpenPBS servers are always queried for JSON.
+     *
+     * @return whether job status is queried as XML
+     * @since 0.11
+     */
+    public static boolean isXmlJobStatus() {
+        return xmlJobStatus;
+    }
+
+    /**
+     * Select whether job status is queried as XML (qstat -f -x) or as text (qstat -f, the default) on Torque
+     * servers.
+     *
+     * @param xmlJobStatus whether job status is queried as XML
+     * @since 0.11
+     */
+    public static void setXmlJobStatus(boolean xmlJobStatus) {
+        PBS.xmlJobStatus = xmlJobStatus;
+    }
+
+    /**
+     * @return number of bytes of a buffered command output kept in memory before it is moved to a temporary file
+     * @since 0.11
+     */
+    public static long getOutputSpillThreshold() {
+        return outputSpillThreshold;
+    }
+
+    /**
+     * Set the number of bytes of a buffered command output kept in memory before it is moved to a temporary file,
+     * and read back through memory mapping.
+     *
+     * @param outputSpillThreshold threshold, in bytes
+     * @since 0.11
+     */
+    public static void setOutputSpillThreshold(long outputSpillThreshold) {
+        PBS.outputSpillThreshold = outputSpillThreshold;
+    }
+
+    /**
+     * @param jobId job id
+     * @return the job id without the server name, i.e. up to the first dot
+     */
+    private static String shortJobId(String jobId) {
+        final int dot = jobId == null ? -1 : jobId.indexOf('.');
+        return dot < 0 ? jobId : jobId.substring(0, dot);
+    }
+
+    /**
+     * PBS qstat command for the jobs matching a filter.
+     * <p>
+     * Runs qselect with the filter first, and then qstat -f only for the selected jobs (see
+     * {@link #qstat(Collection)}), so that scoped queries do not transfer and parse the status of the whole cluster.
+     *
+     * @param filter job filter
+     * @return matching jobs, in qselect order; jobs that finished between both commands are left out
+     * @since 0.11
+     */
+    public static List<Job> qstat(JobFilter filter) {
+        final List<String> jobIds = qselect(filter);
+        if (jobIds.isEmpty()) {
+            return new ArrayList<Job>(0);
+        }
+        final List<Job> jobs = new ArrayList<Job>(jobIds.size());
+        for (final Job job : qstat(jobIds).values()) {
+            if (job != null) {
+                jobs.add(job);
+            }
+        }
+        return jobs;
+    }
+
+    /**
+     * PBS qselect command.
+     * <p>
+     * Equivalent to qselect [-u owner] [-q queue] [-s states] [-N name]
+     *
+     * @param filter job filter
+     * @return ids of the matching jobs
+     * @since 0.11
+     */
+    public static List<String> qselect(JobFilter filter) {
+        final CommandLine cmdLine = new CommandLine(COMMAND_QSELECT);
+        if (StringUtils.isNotBlank(filter.getOwner())) {
+            cmdLine.addArgument(PARAMETER_OWNER);
+            cmdLine.addArgument(filter.getOwner());
+        }
+        if (StringUtils.isNotBlank(filter.getQueue())) {
+            cmdLine.addArgument(PARAMETER_DESTINATION);
+            cmdLine.addArgument(filter.getQueue());
+        }
+        if (StringUtils.isNotBlank(filter.getStates())) {
+            cmdLine.addArgument(PARAMETER_STATES);
+            cmdLine.addArgument(filter.getStates());
+        }
+        if (StringUtils.isNotBlank(filter.getName())) {
+            cmdLine.addArgument(PARAMETER_NAME);
+            cmdLine.addArgument(filter.getName());
+        }
+
+        final SpillingOutputStream out = new SpillingOutputStream(BUFFER_POOL, outputSpillThreshold);
+        final ChunkedOutputStream err = new ChunkedOutputStream(BUFFER_POOL);
+        try {
+            DefaultExecuteResultHandler resultHandler;
+            try {
+                resultHandler = execute(cmdLine, null, out, err);
+                resultHandler.waitFor(DEFAULT_TIMEOUT);
+            } catch (ExecuteException e) {
+                throw new PBSException("Failed to execute qselect command: " + e.getMessage(), e);
+            } catch (IOException e) {
+                throw new PBSException("Failed to execute qselect command: " + e.getMessage(), e);
+            } catch (InterruptedException e) {
+                throw new PBSException("Failed to execute qselect command: " + e.getMessage(), e);
+            }
+
+            final int exitValue = resultHandler.getExitValue();
+            LOGGER.info("qselect exit value: " + exitValue);
+
+            if (exitValue != 0)
+                throw new PBSException("Failed to select jobs. Error output: " + err.toString());
+
+            final List<String> jobIds = new ArrayList<String>();
+            try {
+                final BufferedReader reader = new BufferedReader(new InputStreamReader(out.toInputStream()));
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    final String jobId = line.trim();
+                    if (jobId.length() > 0) {
+                        jobIds.add(jobId);
+                    }
+                }
+            } catch (IOException e) {
+                throw new PBSException("Failed to read qselect output: " + e.getMessage(), e);
+            }
+            return jobIds;
+        } finally {
+            out.close();
+            err.close();
+        }
+    }
+
+    /**
+     * PBS qstat command, returning an indexed snapshot.
+     * <p>
+     * Equivalent to qstat -f [param]
+     *
+     * @param name job name
+     * @return jobs indexed by owner, queue, state and execution node
+     */
+    public static JobSnapshot qstatSnapshot(String name) {
+        return new JobSnapshot(qstat(name));
+    }
+
+    /**
+     * PBS qstat command for Array Jobs
+     * <p>
+     * Equivalent to qstat -f -t [param]
+     *
+     * @param name job name
+     * @return list of jobs
+     */
+    public static List<Job> qstatArrayJob(String name) {
+        return query(getCommandPlan().arrayJobs(name), false);
+    }
+
+    /**
+     * PBS qstat command for Array Jobs, returning a compact array job.
+     * <p>
+     * Equivalent to qstat -f -t [param]. The subjobs are added to the array job as they are parsed, without building
+     * the list of jobs returned by {@link #qstatArrayJob(String)}.
+     *
+     * @param name array job id, e.g. <code>123[]</code>
+     * @return array job, with the shared attributes stored once and per-index state and exec host
+     * @throws IllegalArgumentException if the array job id is blank
+     */
+    public static ArrayJob qstatArray(String name) {
+        if (StringUtils.isBlank(name)) {
+            throw new IllegalArgumentException("Missing array job id");
+        }
+        return query(getCommandPlan().arrayJob(name), false);
     }
 
     /**
@@ -303,26 +810,30 @@ public class PBS {
         final CommandLine cmdLine = new CommandLine(COMMAND_QDEL);
         cmdLine.addArgument(jobId);
 
-        final OutputStream out = new ByteArrayOutputStream();
-        final OutputStream err = new ByteArrayOutputStream();
-
-        DefaultExecuteResultHandler resultHandler;
+        final ChunkedOutputStream out = new ChunkedOutputStream(BUFFER_POOL);
+        final ChunkedOutputStream err = new ChunkedOutputStream(BUFFER_POOL);
         try {
-            resultHandler = execute(cmdLine, null, out, err);
-            resultHandler.waitFor(DEFAULT_TIMEOUT);
-        } catch (ExecuteException e) {
-            throw new PBSException("Failed to execute qdel command: " + e.getMessage(), e);
-        } catch (IOException e) {
-            throw new PBSException("Failed to execute qdel command: " + e.getMessage(), e);
-        } catch (InterruptedException e) {
-            throw new PBSException("Failed to execute qdel command: " + e.getMessage(), e);
+            DefaultExecuteResultHandler resultHandler;
+            try {
+                resultHandler = execute(cmdLine, null, out, err);
+                resultHandler.waitFor(DEFAULT_TIMEOUT);
+            } catch (ExecuteException e) {
+                throw new PBSException("Failed to execute qdel command: " + e.getMessage(), e);
+            } catch (IOException e) {
+                throw new PBSException("Failed to execute qdel command: " + e.getMessage(), e);
+            } catch (InterruptedException e) {
+                throw new PBSException("Failed to execute qdel command: " + e.getMessage(), e);
+            }
+
+            final int exitValue = resultHandler.getExitValue();
+            LOGGER.info("qdel exit value: " + exitValue);
+
+            if (exitValue != 0)
+                throw new PBSException("Failed to delete job " + jobId + ". Error output: " + err.toString());
+        } finally {
+            out.close();
+            err.close();
         }
-
-        final int exitValue = resultHandler.getExitValue();
-        LOGGER.info("qdel exit value: " + exitValue);
-
-        if (exitValue != 0)
-            throw new PBSException("Failed to delete job " + jobId + ". Error output: " + err.toString());
     }
 
     /**
@@ -337,30 +848,34 @@ public class PBS {
         final CommandLine cmdLine = new CommandLine(COMMAND_QSUB);
         cmdLine.addArgument(input);
 
-        final OutputStream out = new ByteArrayOutputStream();
-        final OutputStream err = new ByteArrayOutputStream();
-
-        DefaultExecuteResultHandler resultHandler;
+        final ChunkedOutputStream out = new ChunkedOutputStream(BUFFER_POOL);
+        final ChunkedOutputStream err = new ChunkedOutputStream(BUFFER_POOL);
         try {
-            resultHandler = execute(cmdLine, null, out, err);
-            resultHandler.waitFor(DEFAULT_TIMEOUT);
-        } catch (ExecuteException e) {
-            throw new PBSException("Failed to execute qsub command: " + e.getMessage(), e);
-        } catch (IOException e) {
-            throw new PBSException("Failed to execute qsub command: " + e.getMessage(), e);
-        } catch (InterruptedException e) {
-            throw new PBSException("Failed to execute qsub command: " + e.getMessage(), e);
+            DefaultExecuteResultHandler resultHandler;
+            try {
+                resultHandler = execute(cmdLine, null, out, err);
+                resultHandler.waitFor(DEFAULT_TIMEOUT);
+            } catch (ExecuteException e) {
+                throw new PBSException("Failed to execute qsub command: " + e.getMessage(), e);
+            } catch (IOException e) {
+                throw new PBSException("Failed to execute qsub command: " + e.getMessage(), e);
+            } catch (InterruptedException e) {
+                throw new PBSException("Failed to execute qsub command: " + e.getMessage(), e);
+            }
+
+            final int exitValue = resultHandler.getExitValue();
+            LOGGER.info("qsub exit value: " + exitValue);
+            LOGGER.fine("qsub output: " + out.toString());
+
+            if (exitValue != 0)
+                throw new PBSException("Failed to submit job script " + input + ". Error output: " + err.toString());
+
+            String jobId = out.toString();
+            return jobId.trim();
+        } finally {
+            out.close();
+            err.close();
         }
-
-        final int exitValue = resultHandler.getExitValue();
-        LOGGER.info("qsub exit value: " + exitValue);
-        LOGGER.fine("qsub output: " + out.toString());
-
-        if (exitValue != 0)
-            throw new PBSException("Failed to submit job script " + input + ". Error output: " + err.toString());
-
-        String jobId = out.toString();
-        return jobId.trim();
     }
 
     /**
@@ -383,72 +898,47 @@ public class PBS {
         cmdLine.addArgument(resourceOverrideArgument);
         cmdLine.addArgument(input);
 
-        final OutputStream out = new ByteArrayOutputStream();
-        final OutputStream err = new ByteArrayOutputStream();
-
-        DefaultExecuteResultHandler resultHandler;
+        final ChunkedOutputStream out = new ChunkedOutputStream(BUFFER_POOL);
+        final ChunkedOutputStream err = new ChunkedOutputStream(BUFFER_POOL);
         try {
-            resultHandler = execute(cmdLine, out, err);
-            resultHandler.waitFor(DEFAULT_TIMEOUT);
-        } catch (ExecuteException e) {
-            throw new PBSException("Failed to execute qsub command: " + e.getMessage(), e);
-        } catch (IOException e) {
-            throw new PBSException("Failed to execute qsub command: " + e.getMessage(), e);
-        } catch (InterruptedException e) {
-            throw new PBSException("Failed to execute qsub command: " + e.getMessage(), e);
+            DefaultExecuteResultHandler resultHandler;
+            try {
+                resultHandler = execute(cmdLine, out, err);
+                resultHandler.waitFor(DEFAULT_TIMEOUT);
+            } catch (ExecuteException e) {
+                throw new PBSException("Failed to execute qsub command: " + e.getMessage(), e);
+            } catch (IOException e) {
+                throw new PBSException("Failed to execute qsub command: " + e.getMessage(), e);
+            } catch (InterruptedException e) {
+                throw new PBSException("Failed to execute qsub command: " + e.getMessage(), e);
+            }
+
+            final int exitValue = resultHandler.getExitValue();
+            LOGGER.info("qsub exit value: " + exitValue);
+            LOGGER.fine("qsub output: " + out.toString());
+
+            if (exitValue != 0)
+                throw new PBSException("Failed to submit job script " + input + ". Error output: " + err.toString());
+
+            String jobId = out.toString();
+            return jobId.trim();
+        } finally {
+            out.close();
+            err.close();
         }
-
-        final int exitValue = resultHandler.getExitValue();
-        LOGGER.info("qsub exit value: " + exitValue);
-        LOGGER.fine("qsub output: " + out.toString());
-
-        if (exitValue != 0)
-            throw new PBSException("Failed to submit job script " + input + ". Error output: " + err.toString());
-
-        String jobId = out.toString();
-        return jobId.trim();
     }
 
     /**
      * PBS qsub command for an Array Job with Specific PBS_ARRAY_IDs to submit
      * <p>
-     * Equivalent to qsub -t 1,2,3 [param]
+     * Equivalent to qsub -t 1-3,7 [param], with the indices compacted into ranges
      *
      * @param input job input file
      * @param pbsArrayIDs list of specified PBS indices
      * @return job id of array job
      */
     public static String qsubArrayJob(String input, List<Integer> pbsArrayIDs) {
-        final CommandLine cmdLine = new CommandLine(COMMAND_QSUB);
-        cmdLine.addArgument(PARAMETER_ARRAY_JOB_STATUS);
-        String listArgument = StringUtils.join(pbsArrayIDs, ",");
-        cmdLine.addArgument(listArgument);
-        cmdLine.addArgument(input);
-
-        final OutputStream out = new ByteArrayOutputStream();
-        final OutputStream err = new ByteArrayOutputStream();
-
-        DefaultExecuteResultHandler resultHandler;
-        try {
-            resultHandler = execute(cmdLine, out, err);
-            resultHandler.waitFor(DEFAULT_TIMEOUT);
-        } catch (ExecuteException e) {
-            throw new PBSException("Failed to execute qsub command: " + e.getMessage(), e);
-        } catch (IOException e) {
-            throw new PBSException("Failed to execute qsub command: " + e.getMessage(), e);
-        } catch (InterruptedException e) {
-            throw new PBSException("Failed to execute qsub command: " + e.getMessage(), e);
-        }
-
-        final int exitValue = resultHandler.getExitValue();
-        LOGGER.info("qsub exit value: " + exitValue);
-        LOGGER.fine("qsub output: " + out.toString());
-
-        if (exitValue != 0)
-            throw new PBSException("Failed to submit job script " + input + ". Error output: " + err.toString());
-
-        String jobId = out.toString();
-        return jobId.trim();
+        return qsubArrayJob(input, Utils.compactRanges(pbsArrayIDs), new String[0]);
     }
 
     /**
@@ -466,38 +956,43 @@ public class PBS {
             cmdLine.addArgument(inputs[i]);
         }
 
-        final OutputStream out = new ByteArrayOutputStream();
-        final OutputStream err = new ByteArrayOutputStream();
-
-        DefaultExecuteResultHandler resultHandler;
+        final ChunkedOutputStream out = new ChunkedOutputStream(BUFFER_POOL);
+        final ChunkedOutputStream err = new ChunkedOutputStream(BUFFER_POOL);
         try {
-            resultHandler = execute(cmdLine, environment, out, err);
-            resultHandler.waitFor(DEFAULT_TIMEOUT);
-        } catch (ExecuteException e) {
-            throw new PBSException("Failed to execute qsub command: " + e.getMessage(), e);
-        } catch (IOException e) {
-            throw new PBSException("Failed to execute qsub command: " + e.getMessage(), e);
-        } catch (InterruptedException e) {
-            throw new PBSException("Failed to execute qsub command: " + e.getMessage(), e);
-        }
-
-        final int exitValue = resultHandler.getExitValue();
-        LOGGER.info("qsub exit value: " + exitValue);
-        LOGGER.fine("qsub output: " + out.toString());
-
-        if (exitValue != 0) {
-            throw new PBSException("Failed to submit job script with command line '" + cmdLine.toString()
-            + "'. Error output: " + err.toString());
+            DefaultExecuteResultHandler resultHandler;
+            try {
+                resultHandler = execute(cmdLine, environment, out, err);
+                resultHandler.waitFor(DEFAULT_TIMEOUT);
+            } catch (ExecuteException e) {
+                throw new PBSException("Failed to execute qsub command: " + e.getMessage(), e);
+            } catch (IOException e) {
+                throw new PBSException("Failed to execute qsub command: " + e.getMessage(), e);
+            } catch (InterruptedException e) {
+                throw new PBSException("Failed to execute qsub command: " + e.getMessage(), e);
+            }
+
+            final int exitValue = resultHandler.getExitValue();
+            LOGGER.info("qsub exit value: " + exitValue);
+            LOGGER.fine("qsub output: " + out.toString());
+
+            if (exitValue != 0) {
+                throw new PBSException("Failed to submit job script with command line '" + cmdLine.toString()
+                + "'. Error output: " + err.toString());
+            }
+
+            String jobId = out.toString();
+            return jobId.trim();
+        } finally {
+            out.close();
+            err.close();
         }
-
-        String jobId = out.toString();
-        return jobId.trim();
     }
 
     /**
      * PBS qsub command for an Array Job with Specific PBS_ARRAY_IDs to submit, and resource overrides
      * <p>
-     * Equivalent to qsub -t 1,2,3 -l [resource_name=value,resource_name=value] [param]
+     * Equivalent to qsub -t 1-3,7 -l [resource_name=value,resource_name=value] [param], with the indices compacted into
+     * ranges
      *
      * @param input job input file
      * @param pbsArrayIDs of specified PBS indices
@@ -505,39 +1000,95 @@ public class PBS {
      * @return job id of array job
      */
     public static String qsubArrayJob(String input, List<Integer> pbsArrayIDs, String... resourceOverrides) {
+        return qsubArrayJob(input, Utils.compactRanges(pbsArrayIDs), resourceOverrides);
+    }
+
+    /**
+     * PBS qsub command for an Array Job with many PBS_ARRAY_IDs to submit, such as the failed indices of a large
+     * array. The indices are compacted into ranges, and split into several submissions when the range expression
+     * would still be longer than {@link #MAX_ARRAY_ARGUMENT_LENGTH}.
+     * <p>
+     * Equivalent to qsub -t 1-500,502,510-9000 [-l resource_name=value,resource_name=value] [param], once per
+     * submission
+     * <p>
+     * The submissions are not atomic: if one fails after others succeeded, a {@link PartialSubmissionException}
+     * holding the ids of the array jobs already submitted is thrown.
+     *
+     * @param input job input file
+     * @param pbsArrayIDs specified PBS indices
+     * @param resourceOverrides list of resource overrides, may be empty
+     * @return job ids of the submitted array jobs, in ascending index order
+     * @throws IllegalArgumentException if no index is given
+     * @throws PartialSubmissionException if a submission fails after others succeeded
+     * @since 0.11
+     */
+    public static List<String> qsubArrayJobs(String input, Collection<Integer> pbsArrayIDs,
+            String... resourceOverrides) {
+        if (pbsArrayIDs == null || pbsArrayIDs.isEmpty()) {
+            throw new IllegalArgumentException("Missing PBS array ids");
+        }
+        final List<String> jobIds = new ArrayList<String>();
+        for (final String rangeArgument : Utils.splitRanges(pbsArrayIDs, MAX_ARRAY_ARGUMENT_LENGTH)) {
+            try {
+                jobIds.add(qsubArrayJob(input, rangeArgument, resourceOverrides));
+            } catch (PBSException e) {
+                if (jobIds.isEmpty()) {
+                    throw e;
+                }
+                throw new PartialSubmissionException("Failed to submit indices " + rangeArgument + " of job script "
+                        + input + " after submitting " + jobIds + ": " + e.getMessage(), jobIds, e);
+            }
+        }
+        return jobIds;
+    }
+
+    /**
+     * Submits an array job for an already compacted range expression.
+     *
+     * @param input job input file
+     * @param rangeArgument argument for <code>-t</code>
+     * @param resourceOverrides list of resource overrides, may be empty
+     * @return job id of array job
+     */
+    private static String qsubArrayJob(String input, String rangeArgument, String[] resourceOverrides) {
         final CommandLine cmdLine = new CommandLine(COMMAND_QSUB);
         cmdLine.addArgument(PARAMETER_ARRAY_JOB_STATUS);
-        String listArgument = StringUtils.join(pbsArrayIDs, ",");
-        cmdLine.addArgument(listArgument);
-        cmdLine.addArgument(PARAMETER_RESOURCE_OVERRIDE_STATUS);
-        String resourceOverrideArgument = StringUtils.join(resourceOverrides, ",");
-        cmdLine.addArgument(resourceOverrideArgument);
+        cmdLine.addArgument(rangeArgument);
+        if (resourceOverrides != null && resourceOverrides.length > 0) {
+            cmdLine.addArgument(PARAMETER_RESOURCE_OVERRIDE_STATUS);
+            String resourceOverrideArgument = StringUtils.join(resourceOverrides, ",");
+            cmdLine.addArgument(resourceOverrideArgument);
+        }
         cmdLine.addArgument(input);
 
-        final OutputStream out = new ByteArrayOutputStream();
-        final OutputStream err = new ByteArrayOutputStream();
-
-        DefaultExecuteResultHandler resultHandler;
+        final ChunkedOutputStream out = new ChunkedOutputStream(BUFFER_POOL);
+        final ChunkedOutputStream err = new ChunkedOutputStream(BUFFER_POOL);
         try {
-            resultHandler = execute(cmdLine, out, err);
-            resultHandler.waitFor(DEFAULT_TIMEOUT);
-        } catch (ExecuteException e) {
-            throw new PBSException("Failed to execute qsub command: " + e.getMessage(), e);
-        } catch (IOException e) {
-            throw new PBSException("Failed to execute qsub command: " + e.getMessage(), e);
-        } catch (InterruptedException e) {
-            throw new PBSException("Failed to execute qsub command: " + e.getMessage(), e);
+            DefaultExecuteResultHandler resultHandler;
+            try {
+                resultHandler = execute(cmdLine, out, err);
+                resultHandler.waitFor(DEFAULT_TIMEOUT);
+            } catch (ExecuteException e) {
+                throw new PBSException("Failed to execute qsub command: " + e.getMessage(), e);
+            } catch (IOException e) {
+                throw new PBSException("Failed to execute qsub command: " + e.getMessage(), e);
+            } catch (InterruptedException e) {
+                throw new PBSException("Failed to execute qsub command: " + e.getMessage(), e);
+            }
+
+            final int exitValue = resultHandler.getExitValue();
+            LOGGER.info("qsub exit value: " + exitValue);
+            LOGGER.fine("qsub output: " + out.toString());
+
+            if (exitValue != 0)
+                throw new PBSException("Failed to submit job script " + input + ". Error output: " + err.toString());
+
+            String jobId = out.toString();
+            return jobId.trim();
+        } finally {
+            out.close();
+            err.close();
         }
-
-        final int exitValue = resultHandler.getExitValue();
-        LOGGER.info("qsub exit value: " + exitValue);
-        LOGGER.fine("qsub output: " + out.toString());
-
-        if (exitValue != 0)
-            throw new PBSException("Failed to submit job script " + input + ". Error output: " + err.toString());
-
-        String jobId = out.toString();
-        return jobId.trim();
     }
 
     /**
@@ -557,30 +1108,34 @@ public class PBS {
         cmdLine.addArgument(rangeArgument);
         cmdLine.addArgument(input);
 
-        final OutputStream out = new ByteArrayOutputStream();
-        final OutputStream err = new ByteArrayOutputStream();
-
-        DefaultExecuteResultHandler resultHandler;
+        final ChunkedOutputStream out = new ChunkedOutputStream(BUFFER_POOL);
+        final ChunkedOutputStream err = new ChunkedOutputStream(BUFFER_POOL);
         try {
-            resultHandler = execute(cmdLine, out, err);
-            resultHandler.waitFor(DEFAULT_TIMEOUT);
-        } catch (ExecuteException e) {
-            throw new PBSException("Failed to execute qsub command: " + e.getMessage(), e);
-        } catch (IOException e) {
-            throw new PBSException("Failed to execute qsub command: " + e.getMessage(), e);
-        } catch (InterruptedException e) {
-            throw new PBSException("Failed to execute qsub command: " + e.getMessage(), e);
+            DefaultExecuteResultHandler resultHandler;
+            try {
+                resultHandler = execute(cmdLine, out, err);
+                resultHandler.waitFor(DEFAULT_TIMEOUT);
+            } catch (ExecuteException e) {
+                throw new PBSException("Failed to execute qsub command: " + e.getMessage(), e);
+            } catch (IOException e) {
+                throw new PBSException("Failed to execute qsub command: " + e.getMessage(), e);
+            } catch (InterruptedException e) {
+                throw new PBSException("Failed to execute qsub command: " + e.getMessage(), e);
+            }
+
+            final int exitValue = resultHandler.getExitValue();
+            LOGGER.info("qsub exit value: " + exitValue);
+            LOGGER.fine("qsub output: " + out.toString());
+
+            if (exitValue != 0)
+                throw new PBSException("Failed to submit job script " + input + ". Error output: " + err.toString());
+
+            String jobId = out.toString();
+            return jobId.trim();
+        } finally {
+            out.close();
+            err.close();
         }
-
-        final int exitValue = resultHandler.getExitValue();
-        LOGGER.info("qsub exit value: " + exitValue);
-        LOGGER.fine("qsub output: " + out.toString());
-
-        if (exitValue != 0)
-            throw new PBSException("Failed to submit job script " + input + ". Error output: " + err.toString());
-
-        String jobId = out.toString();
-        return jobId.trim();
     }
 
     /**
@@ -598,35 +1153,39 @@ public class PBS {
         final CommandLine cmdLine = new CommandLine(COMMAND_QSUB);
         cmdLine.addArgument(PARAMETER_ARRAY_JOB_STATUS);
         String rangeArgument = beginIndex + "-" + endIndex;
-        String listArgument = StringUtils.join(pbsArrayIDs, ",");
+        String listArgument = Utils.compactRanges(pbsArrayIDs);
         String combinedArgument = listArgument + "," + rangeArgument;
         cmdLine.addArgument(combinedArgument);
         cmdLine.addArgument(input);
 
-        final OutputStream out = new ByteArrayOutputStream();
-        final OutputStream err = new ByteArrayOutputStream();
-
-        DefaultExecuteResultHandler resultHandler;
+        final ChunkedOutputStream out = new ChunkedOutputStream(BUFFER_POOL);
+        final ChunkedOutputStream err = new ChunkedOutputStream(BUFFER_POOL);
         try {
-            resultHandler = execute(cmdLine, out, err);
-            resultHandler.waitFor(DEFAULT_TIMEOUT);
-        } catch (ExecuteException e) {
-            throw new PBSException("Failed to execute qsub command: " + e.getMessage(), e);
-        } catch (IOException e) {
-            throw new PBSException("Failed to execute qsub command: " + e.getMessage(), e);
-        } catch (InterruptedException e) {
-            throw new PBSException("Failed to execute qsub command: " + e.getMessage(), e);
+            DefaultExecuteResultHandler resultHandler;
+            try {
+                resultHandler = execute(cmdLine, out, err);
+                resultHandler.waitFor(DEFAULT_TIMEOUT);
+            } catch (ExecuteException e) {
+                throw new PBSException("Failed to execute qsub command: " + e.getMessage(), e);
+            } catch (IOException e) {
+                throw new PBSException("Failed to execute qsub command: " + e.getMessage(), e);
+            } catch (InterruptedException e) {
+                throw new PBSException("Failed to execute qsub command: " + e.getMessage(), e);
+            }
+
+            final int exitValue = resultHandler.getExitValue();
+            LOGGER.info("qsub exit value: " + exitValue);
+            LOGGER.fine("qsub output: " + out.toString());
+
+            if (exitValue != 0)
+                throw new PBSException("Failed to submit job script " + input + ". Error output: " + err.toString());
+
+            String jobId = out.toString();
+            return jobId.trim();
+        } finally {
+            out.close();
+            err.close();
         }
-
-        final int exitValue = resultHandler.getExitValue();
-        LOGGER.info("qsub exit value: " + exitValue);
-        LOGGER.fine("qsub output: " + out.toString());
-
-        if (exitValue != 0)
-            throw new PBSException("Failed to submit job script " + input + ". Error output: " + err.toString());
-
-        String jobId = out.toString();
-        return jobId.trim();
     }
 
     /**
@@ -664,26 +1223,30 @@ public class PBS {
         }
         cmdLine.addArgument(jobId);
 
-        final OutputStream out = new ByteArrayOutputStream();
-        final OutputStream err = new ByteArrayOutputStream();
-
-        DefaultExecuteResultHandler resultHandler;
+        final ChunkedOutputStream out = new ChunkedOutputStream(BUFFER_POOL);
+        final ChunkedOutputStream err = new ChunkedOutputStream(BUFFER_POOL);
         try {
-            resultHandler = execute(cmdLine, null, out, err);
-            resultHandler.waitFor(DEFAULT_TIMEOUT);
-        } catch (ExecuteException e) {
-            throw new PBSException("Failed to execute tracejob command: " + e.getMessage(), e);
-        } catch (IOException e) {
-            throw new PBSException("Failed to execute tracejob command: " + e.getMessage(), e);
-        } catch (InterruptedException e) {
-            throw new PBSException("Failed to execute tracejob command: " + e.getMessage(), e);
+            DefaultExecuteResultHandler resultHandler;
+            try {
+                resultHandler = execute(cmdLine, null, out, err);
+                resultHandler.waitFor(DEFAULT_TIMEOUT);
+            } catch (ExecuteException e) {
+                throw new PBSException("Failed to execute tracejob command: " + e.getMessage(), e);
+            } catch (IOException e) {
+                throw new PBSException("Failed to execute tracejob command: " + e.getMessage(), e);
+            } catch (InterruptedException e) {
+                throw new PBSException("Failed to execute tracejob command: " + e.getMessage(), e);
+            }
+
+            final int exitValue = resultHandler.getExitValue();
+            LOGGER.info("tracejob exit value: " + exitValue);
+            LOGGER.fine("tracejob output: " + out.toString());
+
+            return new CommandOutput(out.toString(), err.toString());
+        } finally {
+            out.close();
+            err.close();
         }
-
-        final int exitValue = resultHandler.getExitValue();
-        LOGGER.info("tracejob exit value: " + exitValue);
-        LOGGER.fine("tracejob output: " + out.toString());
-
-        return new CommandOutput(out.toString(), err.toString());
     }
 
     /*
@@ -717,11 +1280,44 @@ public class PBS {
      */
     static DefaultExecuteResultHandler execute(CommandLine cmdLine, Map<String, String> environment, OutputStream out,
             OutputStream err) throws ExecuteException, IOException {
+        return execute(cmdLine, environment, new PumpStreamHandler(out, err));
+    }
+
+    /**
+     * Executes a PBS command.
+     *
+     * @param cmdLine command
+     * @param environment env vars
+     * @param streamHandler handler for the process streams
+     * @return execute handler
+     * @throws ExecuteException if there is an error executing a command
+     * @throws IOException in case of an IO problem
+     */
+    static DefaultExecuteResultHandler execute(CommandLine cmdLine, Map<String, String> environment,
+            ExecuteStreamHandler streamHandler) throws ExecuteException, IOException {
+        return execute(cmdLine, environment, streamHandler, null);
+    }
+
+    /**
+     * Executes a PBS command.
+     *
+     * @param cmdLine command
+     * @param environment env vars
+     * @param streamHandler handler for the process streams
+     * @param watchdog watchdog to kill the process with, or <code>null</code>
+     * @return execute handler
+     * @throws ExecuteException if there is an error executing a command
+     * @throws IOException in case of an IO problem
+     */
+    static DefaultExecuteResultHandler execute(CommandLine cmdLine, Map<String, String> environment,
+            ExecuteStreamHandler streamHandler, ExecuteWatchdog watchdog) throws ExecuteException, IOException {
         DefaultExecuteResultHandler resultHandler = new DefaultExecuteResultHandler();
-        ExecuteStreamHandler streamHandler = new PumpStreamHandler(out, err);
         DefaultExecutor executor = new DefaultExecutor();
         executor.setExitValue(0);
         executor.setStreamHandler(streamHandler);
+        if (watchdog != null) {
+            executor.setWatchdog(watchdog);
+        }
         if (environment != null) {
             executor.execute(cmdLine, environment, resultHandler);
         } else {
@@ -732,28 +1328,93 @@ public class PBS {
 
     private static final Logger LOGGER = Logger.getLogger(PBS.class.getName());
 
-    private static final String COMMAND_QNODES = "qnodes";
     private static final String COMMAND_QSTAT = "qstat";
     private static final String COMMAND_QDEL = "qdel";
     private static final String COMMAND_QSUB = "qsub";
     private static final String COMMAND_TRACEJOB = "tracejob";
+    private static final String COMMAND_QSELECT = "qselect";
     // qstat
-    private static final String PARAMETER_XML = "-x";
-    private static final String PARAMETER_FULL_STATUS = "-f";
     private static final String PARAMETER_ARRAY_JOB_STATUS = "-t";
     private static final String PARAMETER_RESOURCE_OVERRIDE_STATUS = "-l";
-    private static final String PARAMETER_QUEUE = "-Q";
+    private static final String PARAMETER_OWNER = "-u";
+    private static final String PARAMETER_DESTINATION = "-q";
+    private static final String PARAMETER_STATES = "-s";
+    private static final String PARAMETER_NAME = "-N";
+    private static final String PARAMETER_ALTERNATIVE_DISPLAY = "-a";
+    private static final String PARAMETER_VERSION = "--version";
     // tracejob
     private static final String PARAMETER_NUMBER_OF_DAYS = "-n";
     private static final String PARAMETER_QUIET_MODE = "-q";
 
-    private static final NodeXmlParser NODE_XML_PARSER = new NodeXmlParser();
-    private static final QstatQueuesParser QSTAT_QUEUES_PARSER = new QstatQueuesParser();
-    private static final QstatJobsParser QSTAT_JOBS_PARSER = new QstatJobsParser();
+    private static final QstatSummaryParser QSTAT_SUMMARY_PARSER = new QstatSummaryParser();
+
+    /**
+     * Chunks used to buffer command output, reused across calls.
+     */
+    private static final BufferPool BUFFER_POOL = new BufferPool();
+
+    /**
+     * Default number of bytes of a buffered command output kept in memory.
+     */
+    public static final long DEFAULT_OUTPUT_SPILL_THRESHOLD = 64L * 1024 * 1024;
+
+    /**
+     * Number of bytes of a buffered command output kept in memory before spilling to a temporary file.
+     */
+    private static volatile long outputSpillThreshold = DEFAULT_OUTPUT_SPILL_THRESHOLD;
+
+    /**
+     * Whether job status is queried as XML.
+     */
+    private static volatile boolean xmlJobStatus = false;
+
+    /**
+     * Command plan for the server dialect, detected on first use.
+     */
+    private static volatile CommandPlan commandPlan;
+
+    /**
+     * Time after which the dialect is detected again, as the last detection failed; {@link Long#MAX_VALUE} once
+     * detected or set.
+     */
+    private static volatile long dialectDetectionRetryTime = 0L;
+
+    /**
+     * Interval between detections of the server dialect while they fail, in milliseconds.
+     */
+    public static final long DIALECT_DETECTION_RETRY_INTERVAL = 60000L;
+
+    /**
+     * Job attributes (as named by qstat -f, in lower case) available in the plain qstat listing. The job id and name
+     * columns are left out, as qstat truncates them to the column width.
+     */
+    public static final Set<String> SUMMARY_ATTRIBUTES = Collections.unmodifiableSet(new HashSet<String>(
+            Arrays.asList("job_owner", "job_state", "queue", "resources_used.cput")));
 
     /**
      * Default time-out for process execution.
      */
     private static final int DEFAULT_TIMEOUT = 60000;
 
+    /**
+     * Maximum length of a <code>-t</code> range expression in a single qsub, well below the usual ARG_MAX.
+     */
+    public static final int MAX_ARRAY_ARGUMENT_LENGTH = 16384;
+
+    /**
+     * Maximum total length of the job ids passed to a single qstat.
+     */
+    public static final int MAX_JOB_ID_ARGUMENT_LENGTH = 16384;
+
+    /**
+     * Maximum number of qstat processes run at the same time by {@link #qstat(Collection)}.
+     */
+    public static final int MAX_PARALLEL_QSTAT = 4;
+
+    /**
+     * Errors reported by qstat, per job id, for jobs no longer known by the server (Torque and OpenPBS), or finished
+     * and only kept in the OpenPBS history.
+     */
+    private static final String[] JOB_GONE_ERRORS = { "Unknown Job Id", "Job has finished" };
+
 }
@@ -0,0 +1,148 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2012-2015 Bruno P. Kinoshita, BioUno
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tupilabs.pbs;
+
+import java.io.Serializable;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The PBS implementation (dialect) of a server, and its version, as reported by <code>qstat --version</code>.
+ *
+ * @author Bruno P. Kinoshita
+ * @since 0.11
+ */
+public final class ServerDialect implements Serializable {
+
+    private static final long serialVersionUID = -2830815406574930322L;
+
+    /**
+     * PBS implementations.
+     */
+    public enum Family {
+        /**
+         * Torque (and PBS derived from OpenPBS 2.x).
+         */
+        TORQUE,
+        /**
+         * OpenPBS 19+ and PBS Professional.
+         */
+        OPENPBS,
+        /**
+         * Not detected. Handled as Torque, which the API historically supported.
+         */
+        UNKNOWN
+    }
+
+    /**
+     * Dialect used when detection fails.
+     */
+    public static final ServerDialect UNKNOWN = new ServerDialect(Family.UNKNOWN, null);
+
+    /*
+     * Regex. OpenPBS prints pbs_version = 23.06.06, and Torque Version: 6.1.3
+     */
+    private final static Pattern PATTERN_OPENPBS = Pattern.compile("(?i)pbs_version\\s*=\\s*(\\S+)");
+    private final static Pattern PATTERN_TORQUE = Pattern.compile("(?i)version:\\s*(\\S+)");
+
+    private final Family family;
+
+    private final String version;
+
+    /**
+     * @param family implementation
+     * @param version version, may be <code>null</code>
+     */
+    public ServerDialect(Family family, String version) {
+        super();
+        this.family = family;
+        this.version = version;
+    }
+
+    /**
+     * Parses the output of <code>qstat --version</code>.
+     *
+     * @param output command output
+     * @return dialect, or {@link #UNKNOWN} if not recognised
+     */
+    public static ServerDialect parse(String output) {
+        if (output == null) {
+            return UNKNOWN;
+        }
+        Matcher matcher = PATTERN_OPENPBS.matcher(output);
+        if (matcher.find()) {
+            return new ServerDialect(Family.OPENPBS, matcher.group(1));
+        }
+        matcher = PATTERN_TORQUE.matcher(output);
+        if (matcher.find()) {
+            return new ServerDialect(Family.TORQUE, matcher.group(1));
+        }
+        return UNKNOWN;
+    }
+
+    /**
+     * @return the implementation
+     */
+    public Family getFamily() {
+        return family;
+    }
+
+    /**
+     * @return the version, or <code>null</code> if unknown
+     */
+    public String getVersion() {
+        return version;
+    }
+
+    /**
+     * @return the major version, or -1 if unknown
+     */
+    public int getMajorVersion() {
+        if (version == null) {
+            return -1;
+        }
+        int end = 0;
+        while (end < version.length() && Character.isDigit(version.charAt(end))) {
+            end++;
+        }
+        return end == 0 ? -1 : Integer.parseInt(version.substring(0, end));
+    }
+
+    /**
+     * @return whether the server is OpenPBS or PBS Professional
+     */
+    public boolean isOpenPBS() {
+        return family == Family.OPENPBS;
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return version == null ? family.toString() : family + " " + version;
+    }
+
+}
@@ -0,0 +1,288 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2012-2015 Bruno P. Kinoshita, BioUno
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tupilabs.pbs.model;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A job array and its subjobs, as returned by qstat -f -t, in a compact form.
+ * <p>
+ * The attributes shared by the subjobs (owner, queue, resource and variable lists, paths, etc) are kept once, in the
+ * first subjob added. For each array index only the state and the exec host are stored, in primitive arrays; exec
+ * hosts are interned into a small dictionary. Per-state counters are maintained as subjobs are added, so aggregate
+ * queries do not need to look at every index.
+ *
+ * @author Bruno P. Kinoshita
+ * @since 0.11
+ */
+public class ArrayJob implements Serializable {
+
+    private static final long serialVersionUID = -3166466367286050751L;
+
+    private Job template;
+
+    private int size;
+
+    private int[] indices = new int[16];
+
+    private byte[] states = new byte[16];
+
+    private int[] execHostRefs = new int[16];
+
+    private final Map<String, Integer> execHostIds = new HashMap<String, Integer>();
+
+    private String[] execHosts = new String[4];
+
+    private final int[] stateCounts = new int[128];
+
+    /**
+     * Whether the indices were added in ascending order (as qstat lists them), allowing binary searches.
+     */
+    private boolean sorted = true;
+
+    /**
+     * Adds a subjob. Only its array index, state and exec host are kept, except for the first subjob, which holds
+     * the shared attributes.
+     *
+     * @param subjob subjob, as parsed from qstat -f -t
+     * @return <code>false</code> if the job is not a subjob (e.g. the array summary line), or is a subjob of another
+     *         array than the subjobs already added
+     */
+    public synchronized boolean add(Job subjob) {
+        final int index = arrayIndex(subjob);
+        if (index < 0) {
+            return false;
+        }
+        if (template == null) {
+            template = subjob;
+        } else if (!sameArray(template.getId(), subjob.getId())) {
+            return false;
+        }
+        if (size == indices.length) {
+            final int capacity = size * 2;
+            indices = Arrays.copyOf(indices, capacity);
+            states = Arrays.copyOf(states, capacity);
+            execHostRefs = Arrays.copyOf(execHostRefs, capacity);
+        }
+        final String state = subjob.getState();
+        final byte code = state != null && state.length() > 0 && state.charAt(0) < 128 ? (byte) state.charAt(0)
+                : (byte) '?';
+        if (size > 0 && indices[size - 1] >= index) {
+            sorted = false;
+        }
+        indices[size] = index;
+        states[size] = code;
+        execHostRefs[size] = intern(subjob.getExecHost());
+        stateCounts[code]++;
+        size++;
+        return true;
+    }
+
+    private int intern(String execHost) {
+        if (execHost == null) {
+            return -1;
+        }
+        final Integer id = execHostIds.get(execHost);
+        if (id != null) {
+            return id.intValue();
+        }
+        final int next = execHostIds.size();
+        if (next == execHosts.length) {
+            execHosts = Arrays.copyOf(execHosts, next * 2);
+        }
+        execHosts[next] = execHost;
+        execHostIds.put(execHost, next);
+        return next;
+    }
+
+    /**
+     * @return whether two subjob ids, e.g. <code>123[4].server</code> and <code>123[5].server</code>, only differ by
+     *         their array index
+     */
+    private static boolean sameArray(String id, String other) {
+        final int open = id.indexOf('[');
+        final int otherOpen = other.indexOf('[');
+        if (open != otherOpen || !id.regionMatches(0, other, 0, open)) {
+            return false;
+        }
+        final int close = id.indexOf(']', open + 1);
+        final int otherClose = other.indexOf(']', otherOpen + 1);
+        final int suffix = id.length() - close;
+        return suffix == other.length() - otherClose && id.regionMatches(close, other, otherClose, suffix);
+    }
+
+    /**
+     * Reads the array index of a subjob, from its job_array_id or from its id (e.g. <code>123[4].server</code>).
+     *
+     * @return the index, or -1 if the job is not a subjob
+     */
+    private static int arrayIndex(Job job) {
+        final String id = job.getId();
+        if (id == null) {
+            return -1;
+        }
+        final int open = id.indexOf('[');
+        final int close = id.indexOf(']', open + 1);
+        if (open < 0 || close < 0) {
+            return -1;
+        }
+        if (close == open + 1) {
+            // the array itself, e.g. 123[].server
+            return -1;
+        }
+        try {
+            return Integer.parseInt(id.substring(open + 1, close));
+        } catch (NumberFormatException nfe) {
+            return job.getJobArrayId() > 0 ? job.getJobArrayId() : -1;
+        }
+    }
+
+    /**
+     * @return the array id (e.g. <code>123[].server</code>), or <code>null</code> if no subjob was added
+     */
+    public synchronized String getId() {
+        if (template == null) {
+            return null;
+        }
+        final String id = template.getId();
+        return id.substring(0, id.indexOf('[') + 1) + id.substring(id.indexOf(']'));
+    }
+
+    /**
+     * @return the first subjob, holding the attributes shared by all subjobs
+     */
+    public synchronized Job getTemplate() {
+        return template;
+    }
+
+    /**
+     * @return number of subjobs
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * @param state job state, e.g. <code>Q</code>
+     * @return number of subjobs in the state
+     */
+    public synchronized int count(String state) {
+        if (state == null || state.length() == 0 || state.charAt(0) >= 128) {
+            return 0;
+        }
+        return stateCounts[state.charAt(0)];
+    }
+
+    /**
+     * @param state job state, e.g. <code>Q</code>
+     * @return array indices of the subjobs in the state, in qstat order
+     */
+    public synchronized int[] getIndices(String state) {
+        final int[] result = new int[count(state)];
+        if (result.length == 0) {
+            return result;
+        }
+        final byte code = (byte) state.charAt(0);
+        int next = 0;
+        for (int i = 0; i < size; i++) {
+            if (states[i] == code) {
+                result[next++] = indices[i];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return all the array indices, in qstat order
+     */
+    public synchronized int[] getIndices() {
+        return Arrays.copyOf(indices, size);
+    }
+
+    /**
+     * @param index array index
+     * @return state of the subjob, or <code>null</code> if the index is not part of the array
+     */
+    public synchronized String getState(int index) {
+        final int position = position(index);
+        return position < 0 ? null : String.valueOf((char) states[position]);
+    }
+
+    /**
+     * @param index array index
+     * @return exec host of the subjob, or <code>null</code> if not running or not part of the array
+     */
+    public synchronized String getExecHost(int index) {
+        final int position = position(index);
+        return position < 0 || execHostRefs[position] < 0 ? null : execHosts[execHostRefs[position]];
+    }
+
+    /**
+     * Materialises a subjob. The returned job has the id, name, owner, queue, server, state and exec host of the
+     * subjob, and shares the resource list and variable list maps of the template.
+     *
+     * @param index array index
+     * @return subjob, or <code>null</code> if the index is not part of the array
+     */
+    public synchronized Job getJob(int index) {
+        final int position = position(index);
+        if (position < 0) {
+            return null;
+        }
+        final String arrayId = getId();
+        final Job job = new Job();
+        job.setId(arrayId.substring(0, arrayId.indexOf('[') + 1) + index + arrayId.substring(arrayId.indexOf(']')));
+        // Torque names subjobs <name>-<index>
+        final String name = template.getName();
+        final String suffix = "-" + arrayIndex(template);
+        job.setName(name != null && name.endsWith(suffix)
+                ? name.substring(0, name.length() - suffix.length() + 1) + index : name);
+        job.setOwner(template.getOwner());
+        job.setQueue(template.getQueue());
+        job.setServer(template.getServer());
+        job.setState(getState(index));
+        job.setExecHost(getExecHost(index));
+        job.setJobArrayId(index);
+        job.setResourceList(template.getResourceList());
+        job.setVariableList(template.getVariableList());
+        return job;
+    }
+
+    private int position(int index) {
+        if (sorted) {
+            final int position = Arrays.binarySearch(indices, 0, size, index);
+            return position < 0 ? -1 : position;
+        }
+        for (int i = 0; i < size; i++) {
+            if (indices[i] == index) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+}
@@ -0,0 +1,232 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2012-2015 Bruno P. Kinoshita, BioUno
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tupilabs.pbs.model;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Cluster capacity totals, per node property and for the whole cluster: processors, busy cores, free cores and
+ * available memory.
+ * <p>
+ * Totals are kept up to date incrementally: {@link #update(Collection)} compares each node of a new qnodes snapshot
+ * with what it contributed last time, and only adjusts the totals of the nodes that changed. Queries are then a map
+ * lookup. Free cores are only counted on schedulable nodes (see {@link Node#isSchedulable()}).
+ *
+ * @author Bruno P. Kinoshita
+ * @since 0.11
+ */
+public class ClusterCapacity {
+
+    /**
+     * What a node contributed to the totals in the last snapshot.
+     */
+    private static final class Contribution {
+
+        private final String[] properties;
+
+        private final int processors;
+
+        private final int busyCores;
+
+        private final int freeCores;
+
+        private final long availableMemory;
+
+        private Contribution(Node node) {
+            final Set<String> distinct = new LinkedHashSet<String>(node.getProperties());
+            this.properties = distinct.toArray(new String[distinct.size()]);
+            this.processors = node.getNumberOfProcessors();
+            this.busyCores = node.getOccupancy().getBusyCoreCount();
+            this.freeCores = node.isSchedulable() ? Math.max(0, processors - busyCores) : 0;
+            this.availableMemory = Math.max(0L, node.getNodeStatus().getAvailableMemory());
+        }
+
+        private boolean sameAs(Contribution other) {
+            return processors == other.processors && busyCores == other.busyCores && freeCores == other.freeCores
+                    && availableMemory == other.availableMemory && Arrays.equals(properties, other.properties);
+        }
+
+    }
+
+    /**
+     * Totals of a property, or of the whole cluster.
+     */
+    private static final class Totals {
+
+        private int nodes;
+
+        private long processors;
+
+        private long busyCores;
+
+        private long freeCores;
+
+        private long availableMemory;
+
+        private void add(Contribution contribution, int sign) {
+            nodes += sign;
+            processors += sign * contribution.processors;
+            busyCores += sign * contribution.busyCores;
+            freeCores += sign * contribution.freeCores;
+            availableMemory += sign * contribution.availableMemory;
+        }
+
+    }
+
+    private static final Totals NONE = new Totals();
+
+    private final Map<String, Contribution> contributions = new HashMap<String, Contribution>();
+
+    private final Map<String, Totals> byProperty = new HashMap<String, Totals>();
+
+    private final Totals cluster = new Totals();
+
+    /**
+     * Creates an empty capacity view.
+     */
+    public ClusterCapacity() {
+        super();
+    }
+
+    /**
+     * Creates the capacity view of the given nodes.
+     *
+     * @param nodes nodes, as returned by qnodes
+     */
+    public ClusterCapacity(Collection<Node> nodes) {
+        this();
+        update(nodes);
+    }
+
+    /**
+     * Applies a new qnodes snapshot. Nodes missing from the snapshot are removed from the totals.
+     *
+     * @param nodes all the cluster nodes, as returned by qnodes
+     * @return number of nodes that were added, changed or removed
+     */
+    public synchronized int update(Collection<Node> nodes) {
+        int changed = 0;
+        final Set<String> seen = new HashSet<String>(nodes.size() * 2);
+        for (final Node node : nodes) {
+            seen.add(node.getName());
+            final Contribution current = new Contribution(node);
+            final Contribution previous = contributions.put(node.getName(), current);
+            if (previous != null && previous.sameAs(current)) {
+                continue;
+            }
+            if (previous != null) {
+                apply(previous, -1);
+            }
+            apply(current, 1);
+            changed++;
+        }
+        if (seen.size() < contributions.size()) {
+            for (final String name : contributions.keySet().toArray(new String[contributions.size()])) {
+                if (!seen.contains(name)) {
+                    apply(contributions.remove(name), -1);
+                    changed++;
+                }
+            }
+        }
+        return changed;
+    }
+
+    private void apply(Contribution contribution, int sign) {
+        cluster.add(contribution, sign);
+        for (final String property : contribution.properties) {
+            Totals totals = byProperty.get(property);
+            if (totals == null) {
+                totals = new Totals();
+                byProperty.put(property, totals);
+            }
+            totals.add(contribution, sign);
+            if (totals.nodes == 0) {
+                byProperty.remove(property);
+            }
+        }
+    }
+
+    private Totals totals(String property) {
+        if (property == null) {
+            return cluster;
+        }
+        final Totals totals = byProperty.get(property);
+        return totals == null ? NONE : totals;
+    }
+
+    /**
+     * @param property node property, or <code>null</code> for the whole cluster
+     * @return number of free cores on schedulable nodes with the property
+     */
+    public synchronized long getFreeCores(String property) {
+        return totals(property).freeCores;
+    }
+
+    /**
+     * @param property node property, or <code>null</code> for the whole cluster
+     * @return number of busy cores on nodes with the property
+     */
+    public synchronized long getBusyCores(String property) {
+        return totals(property).busyCores;
+    }
+
+    /**
+     * @param property node property, or <code>null</code> for the whole cluster
+     * @return number of processors (np) of the nodes with the property
+     */
+    public synchronized long getProcessors(String property) {
+        return totals(property).processors;
+    }
+
+    /**
+     * @param property node property, or <code>null</code> for the whole cluster
+     * @return available memory, in bytes, reported by the nodes with the property
+     */
+    public synchronized long getAvailableMemory(String property) {
+        return totals(property).availableMemory;
+    }
+
+    /**
+     * @param property node property, or <code>null</code> for the whole cluster
+     * @return number of nodes with the property
+     */
+    public synchronized int getNodeCount(String property) {
+        return totals(property).nodes;
+    }
+
+    /**
+     * @return the properties of the current nodes
+     */
+    public synchronized Set<String> getProperties() {
+        return Collections.unmodifiableSet(new HashSet<String>(byProperty.keySet()));
+    }
+
+}
@@ -0,0 +1,228 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2012-2015 Bruno P. Kinoshita, BioUno
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tupilabs.pbs.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Joined view of the cluster nodes (from qnodes) and the jobs (from qstat), linking each job to the nodes in its
+ * exec_host and each node to the jobs running on it.
+ * <p>
+ * The links are built once, in time linear in the number of jobs, nodes and exec_host slots, and stored in
+ * compressed adjacency arrays: the jobs of node <code>n</code> are
+ * <code>nodeJobs[nodeOffsets[n] .. nodeOffsets[n + 1])</code>, and likewise for the nodes of a job.
+ *
+ * @author Bruno P. Kinoshita
+ * @since 0.11
+ */
+public class ClusterView {
+
+    private final Node[] nodes;
+
+    private final Job[] jobs;
+
+    private final Map<Node, Integer> nodePositions;
+
+    private final Map<Job, Integer> jobPositions;
+
+    private final int[] jobOffsets;
+
+    private final int[] jobNodes;
+
+    private final int[] jobCores;
+
+    private final int[] nodeOffsets;
+
+    private final int[] nodeJobs;
+
+    private final int[] nodeCores;
+
+    /**
+     * Creates the joined view.
+     *
+     * @param nodes cluster nodes, as returned by qnodes
+     * @param jobs jobs, as returned by qstat
+     */
+    public ClusterView(List<Node> nodes, List<Job> jobs) {
+        super();
+        this.nodes = nodes.toArray(new Node[nodes.size()]);
+        this.jobs = jobs.toArray(new Job[jobs.size()]);
+        this.nodePositions = new IdentityHashMap<Node, Integer>(this.nodes.length);
+        this.jobPositions = new IdentityHashMap<Job, Integer>(this.jobs.length);
+
+        final Map<String, Integer> byName = new HashMap<String, Integer>(this.nodes.length * 2);
+        for (int n = 0; n < this.nodes.length; n++) {
+            nodePositions.put(this.nodes[n], n);
+            final String name = this.nodes[n].getName();
+            if (name != null) {
+                byName.put(name, n);
+                final int dot = name.indexOf('.');
+                if (dot > 0 && !byName.containsKey(name.substring(0, dot))) {
+                    byName.put(name.substring(0, dot), n);
+                }
+            }
+        }
+
+        // job -> nodes
+        this.jobOffsets = new int[this.jobs.length + 1];
+        int slots = 0;
+        for (int j = 0; j < this.jobs.length; j++) {
+            jobPositions.put(this.jobs[j], j);
+            slots += this.jobs[j].getParsedExecHost().getHostCount();
+        }
+        int[] jobNodes = new int[slots];
+        int[] jobCores = new int[slots];
+        final int[] nodeJobCounts = new int[this.nodes.length];
+        int next = 0;
+        for (int j = 0; j < this.jobs.length; j++) {
+            final ExecHost execHost = this.jobs[j].getParsedExecHost();
+            for (int h = 0; h < execHost.getHostCount(); h++) {
+                final Integer n = lookup(byName, execHost.getHost(h));
+                if (n != null) {
+                    jobNodes[next] = n;
+                    jobCores[next] = execHost.getCoreCount(h);
+                    nodeJobCounts[n]++;
+                    next++;
+                }
+            }
+            jobOffsets[j + 1] = next;
+        }
+        if (next < slots) {
+            final int[] trimmedNodes = new int[next];
+            final int[] trimmedCores = new int[next];
+            System.arraycopy(jobNodes, 0, trimmedNodes, 0, next);
+            System.arraycopy(jobCores, 0, trimmedCores, 0, next);
+            jobNodes = trimmedNodes;
+            jobCores = trimmedCores;
+        }
+        this.jobNodes = jobNodes;
+        this.jobCores = jobCores;
+
+        // node -> jobs, by transposing the job -> nodes arrays
+        this.nodeOffsets = new int[this.nodes.length + 1];
+        for (int n = 0; n < this.nodes.length; n++) {
+            nodeOffsets[n + 1] = nodeOffsets[n] + nodeJobCounts[n];
+        }
+        this.nodeJobs = new int[next];
+        this.nodeCores = new int[next];
+        final int[] fill = new int[this.nodes.length];
+        System.arraycopy(nodeOffsets, 0, fill, 0, this.nodes.length);
+        for (int j = 0; j < this.jobs.length; j++) {
+            for (int s = jobOffsets[j]; s < jobOffsets[j + 1]; s++) {
+                final int position = fill[jobNodes[s]]++;
+                nodeJobs[position] = j;
+                nodeCores[position] = jobCores[s];
+            }
+        }
+    }
+
+    private static Integer lookup(Map<String, Integer> byName, String host) {
+        Integer n = byName.get(host);
+        if (n == null) {
+            final int dot = host.indexOf('.');
+            if (dot > 0) {
+                n = byName.get(host.substring(0, dot));
+            }
+        }
+        return n;
+    }
+
+    /**
+     * @return the nodes of the view
+     */
+    public List<Node> getNodes() {
+        return Collections.unmodifiableList(Arrays.asList(nodes));
+    }
+
+    /**
+     * @return the jobs of the view
+     */
+    public List<Job> getJobs() {
+        return Collections.unmodifiableList(Arrays.asList(jobs));
+    }
+
+    /**
+     * @param job a job of this view
+     * @return the nodes the job is running on, empty if the job is not running or not part of the view
+     */
+    public List<Node> getNodes(Job job) {
+        final Integer j = jobPositions.get(job);
+        if (j == null) {
+            return Collections.emptyList();
+        }
+        final List<Node> result = new ArrayList<Node>(jobOffsets[j + 1] - jobOffsets[j]);
+        for (int s = jobOffsets[j]; s < jobOffsets[j + 1]; s++) {
+            result.add(nodes[jobNodes[s]]);
+        }
+        return result;
+    }
+
+    /**
+     * @param node a node of this view
+     * @return the jobs running on the node, empty if the node is idle or not part of the view
+     */
+    public List<Job> getJobs(Node node) {
+        final Integer n = nodePositions.get(node);
+        if (n == null) {
+            return Collections.emptyList();
+        }
+        final List<Job> result = new ArrayList<Job>(nodeOffsets[n + 1] - nodeOffsets[n]);
+        for (int s = nodeOffsets[n]; s < nodeOffsets[n + 1]; s++) {
+            result.add(jobs[nodeJobs[s]]);
+        }
+        return result;
+    }
+
+    /**
+     * @param node a node of this view
+     * @return number of cores allocated to jobs on the node, according to their exec_host
+     */
+    public int getUsedCores(Node node) {
+        final Integer n = nodePositions.get(node);
+        if (n == null) {
+            return 0;
+        }
+        int used = 0;
+        for (int s = nodeOffsets[n]; s < nodeOffsets[n + 1]; s++) {
+            used += nodeCores[s];
+        }
+        return used;
+    }
+
+    /**
+     * @param node a node of this view
+     * @return fraction of the node processors allocated to jobs, or 0 if the node reports no processors
+     */
+    public double getUtilization(Node node) {
+        final int np = node.getNumberOfProcessors();
+        return np > 0 ? (double) getUsedCores(node) / np : 0d;
+    }
+
+}
@@ -0,0 +1,251 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2012-2015 Bruno P. Kinoshita, BioUno
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tupilabs.pbs.model;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parsed form of a job <code>exec_host</code> attribute, such as <code>n001/0-3+n002/0-3</code>.
+ * <p>
+ * Hosts are kept in order of first appearance, and the cores of each host are stored as merged
+ * <code>[start, end]</code> ranges in flat int arrays. Host <code>h</code> owns the ranges
+ * <code>[rangeOffsets[h], rangeOffsets[h + 1])</code>. Slots such as <code>n001/0*4</code> (PBS Pro) are read as
+ * four cores starting at index 0.
+ *
+ * @author Bruno P. Kinoshita
+ * @since 0.11
+ */
+public final class ExecHost implements Serializable {
+
+    private static final long serialVersionUID = 4127013447389251904L;
+
+    private static final ExecHost EMPTY = new ExecHost(new String[0], new int[] { 0 }, new int[0], new int[0]);
+
+    private final String[] hosts;
+
+    private final int[] rangeOffsets;
+
+    private final int[] rangeStarts;
+
+    private final int[] rangeEnds;
+
+    private ExecHost(String[] hosts, int[] rangeOffsets, int[] rangeStarts, int[] rangeEnds) {
+        this.hosts = hosts;
+        this.rangeOffsets = rangeOffsets;
+        this.rangeStarts = rangeStarts;
+        this.rangeEnds = rangeEnds;
+    }
+
+    /**
+     * Parses an exec_host value.
+     *
+     * @param execHost exec_host value, may be <code>null</code>
+     * @return parsed exec host, empty when the value is blank
+     */
+    public static ExecHost parse(String execHost) {
+        if (execHost == null || execHost.trim().length() == 0) {
+            return EMPTY;
+        }
+        final Map<String, List<int[]>> slots = new LinkedHashMap<String, List<int[]>>();
+        int start = 0;
+        final int length = execHost.length();
+        while (start < length) {
+            int end = execHost.indexOf('+', start);
+            if (end < 0) {
+                end = length;
+            }
+            final String slot = execHost.substring(start, end).trim();
+            start = end + 1;
+            if (slot.length() == 0) {
+                continue;
+            }
+            final int slash = slot.indexOf('/');
+            final String host = slash >= 0 ? slot.substring(0, slash) : slot;
+            List<int[]> ranges = slots.get(host);
+            if (ranges == null) {
+                ranges = new ArrayList<int[]>(1);
+                slots.put(host, ranges);
+            }
+            if (slash >= 0) {
+                addRanges(slot.substring(slash + 1), ranges);
+            }
+        }
+
+        final String[] hosts = slots.keySet().toArray(new String[slots.size()]);
+        final int[] rangeOffsets = new int[hosts.length + 1];
+        final List<int[]> merged = new ArrayList<int[]>();
+        for (int h = 0; h < hosts.length; h++) {
+            merge(slots.get(hosts[h]), merged);
+            rangeOffsets[h + 1] = merged.size();
+        }
+        final int[] rangeStarts = new int[merged.size()];
+        final int[] rangeEnds = new int[merged.size()];
+        for (int i = 0; i < rangeStarts.length; i++) {
+            rangeStarts[i] = merged.get(i)[0];
+            rangeEnds[i] = merged.get(i)[1];
+        }
+        return new ExecHost(hosts, rangeOffsets, rangeStarts, rangeEnds);
+    }
+
+    /**
+     * Reads a core list like <code>0-3</code>, <code>0,2,4-5</code> or <code>0*4</code>.
+     */
+    private static void addRanges(String cores, List<int[]> ranges) {
+        for (final String part : cores.split(",")) {
+            final String range = part.trim();
+            if (range.length() == 0) {
+                continue;
+            }
+            try {
+                final int dash = range.indexOf('-');
+                final int star = range.indexOf('*');
+                if (dash > 0) {
+                    ranges.add(new int[] { Integer.parseInt(range.substring(0, dash).trim()),
+                            Integer.parseInt(range.substring(dash + 1).trim()) });
+                } else if (star > 0) {
+                    final int first = Integer.parseInt(range.substring(0, star).trim());
+                    final int count = Integer.parseInt(range.substring(star + 1).trim());
+                    ranges.add(new int[] { first, first + Math.max(count, 1) - 1 });
+                } else {
+                    final int core = Integer.parseInt(range);
+                    ranges.add(new int[] { core, core });
+                }
+            } catch (NumberFormatException nfe) {
+                // not a core list (e.g. a vnode expression), the host is still recorded
+            }
+        }
+    }
+
+    private static void merge(List<int[]> ranges, List<int[]> merged) {
+        if (ranges.isEmpty()) {
+            return;
+        }
+        final int[][] sorted = ranges.toArray(new int[ranges.size()][]);
+        Arrays.sort(sorted, new Comparator<int[]>() {
+            @Override
+            public int compare(int[] a, int[] b) {
+                return a[0] < b[0] ? -1 : (a[0] == b[0] ? 0 : 1);
+            }
+        });
+        int[] current = new int[] { sorted[0][0], sorted[0][1] };
+        for (int i = 1; i < sorted.length; i++) {
+            if (sorted[i][0] <= current[1] + 1) {
+                current[1] = Math.max(current[1], sorted[i][1]);
+            } else {
+                merged.add(current);
+                current = new int[] { sorted[i][0], sorted[i][1] };
+            }
+        }
+        merged.add(current);
+    }
+
+    /**
+     * @return number of distinct hosts
+     */
+    public int getHostCount() {
+        return hosts.length;
+    }
+
+    /**
+     * @param host host position, from 0 to {@link #getHostCount()} - 1
+     * @return host name
+     */
+    public String getHost(int host) {
+        return hosts[host];
+    }
+
+    /**
+     * @param host host position, from 0 to {@link #getHostCount()} - 1
+     * @return number of cores allocated on the host
+     */
+    public int getCoreCount(int host) {
+        int count = 0;
+        for (int r = rangeOffsets[host]; r < rangeOffsets[host + 1]; r++) {
+            count += rangeEnds[r] - rangeStarts[r] + 1;
+        }
+        return count;
+    }
+
+    /**
+     * @param host host position, from 0 to {@link #getHostCount()} - 1
+     * @return the core indexes allocated on the host, in ascending order
+     */
+    public int[] getCores(int host) {
+        final int[] cores = new int[getCoreCount(host)];
+        int i = 0;
+        for (int r = rangeOffsets[host]; r < rangeOffsets[host + 1]; r++) {
+            for (int core = rangeStarts[r]; core <= rangeEnds[r]; core++) {
+                cores[i++] = core;
+            }
+        }
+        return cores;
+    }
+
+    /**
+     * @return total number of cores allocated, over all hosts
+     */
+    public int getTotalCores() {
+        int count = 0;
+        for (int r = 0; r < rangeStarts.length; r++) {
+            count += rangeEnds[r] - rangeStarts[r] + 1;
+        }
+        return count;
+    }
+
+    /**
+     * @return <code>true</code> if no host is allocated
+     */
+    public boolean isEmpty() {
+        return hosts.length == 0;
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder();
+        for (int h = 0; h < hosts.length; h++) {
+            if (h > 0) {
+                sb.append('+');
+            }
+            sb.append(hosts[h]);
+            for (int r = rangeOffsets[h]; r < rangeOffsets[h + 1]; r++) {
+                sb.append(r == rangeOffsets[h] ? '/' : ',').append(rangeStarts[r]);
+                if (rangeEnds[r] != rangeStarts[r]) {
+                    sb.append('-').append(rangeEnds[r]);
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+}
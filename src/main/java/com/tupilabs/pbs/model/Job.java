@@ -90,6 +90,11 @@ public class Job implements Serializable {
 
     private String execHost;
 
+    /**
+     * Parsed exec_host, created on first use.
+     */
+    private transient ExecHost parsedExecHost;
+
     private String execPort;
 
     private String holdTypes;
@@ -369,6 +374,20 @@ public class Job implements Serializable {
      */
     public void setExecHost(String execHost) {
         this.execHost = execHost;
+        this.parsedExecHost = null;
+    }
+
+    /**
+     * @return the execHost parsed into hosts and core ranges
+     * @since 0.11
+     */
+    public ExecHost getParsedExecHost() {
+        ExecHost parsed = parsedExecHost;
+        if (parsed == null) {
+            parsed = ExecHost.parse(execHost);
+            parsedExecHost = parsed;
+        }
+        return parsed;
     }
 
     /**
@@ -0,0 +1,132 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2012-2015 Bruno P. Kinoshita, BioUno
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tupilabs.pbs.model;
+
+import java.io.Serializable;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.apache.commons.lang.builder.ToStringStyle;
+
+/**
+ * Filter for job queries, mapped onto the options of the PBS qselect command. Unset (<code>null</code>) criteria
+ * match every job.
+ *
+ * @author Bruno P. Kinoshita
+ * @since 0.11
+ */
+public class JobFilter implements Serializable {
+
+    private static final long serialVersionUID = 4286415320766105571L;
+
+    private String owner;
+
+    private String queue;
+
+    private String states;
+
+    private String name;
+
+    /**
+     * Default constructor.
+     */
+    public JobFilter() {
+        super();
+    }
+
+    /**
+     * Constructor with the owner, the most common filter.
+     *
+     * @param owner job owner (user name)
+     */
+    public JobFilter(String owner) {
+        super();
+        this.owner = owner;
+    }
+
+    /**
+     * @return the owner (user name), qselect -u
+     */
+    public String getOwner() {
+        return owner;
+    }
+
+    /**
+     * @param owner the owner (user name) to set, qselect -u
+     */
+    public void setOwner(String owner) {
+        this.owner = owner;
+    }
+
+    /**
+     * @return the queue (destination), qselect -q
+     */
+    public String getQueue() {
+        return queue;
+    }
+
+    /**
+     * @param queue the queue (destination) to set, qselect -q
+     */
+    public void setQueue(String queue) {
+        this.queue = queue;
+    }
+
+    /**
+     * @return the job states, e.g. <code>QR</code>, qselect -s
+     */
+    public String getStates() {
+        return states;
+    }
+
+    /**
+     * @param states the job states to set, e.g. <code>QR</code>, qselect -s
+     */
+    public void setStates(String states) {
+        this.states = states;
+    }
+
+    /**
+     * @return the job name, qselect -N
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @param name the job name to set, qselect -N
+     */
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return ToStringBuilder.reflectionToString(this, ToStringStyle.MULTI_LINE_STYLE);
+    }
+
+}
@@ -0,0 +1,226 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2012-2015 Bruno P. Kinoshita, BioUno
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tupilabs.pbs.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An immutable snapshot of the jobs returned by a qstat call, indexed by owner, queue, state and execution node.
+ * <p>
+ * Each index maps a value to a {@link BitSet} of job positions, so a query such as "running jobs of user X in
+ * queue Y" is answered by intersecting a few bitsets instead of scanning every job.
+ *
+ * @author Bruno P. Kinoshita
+ * @since 0.11
+ */
+public class JobSnapshot {
+
+    private final Job[] jobs;
+
+    private final Map<String, BitSet> byOwner;
+
+    private final Map<String, BitSet> byQueue;
+
+    private final Map<String, BitSet> byState;
+
+    private final Map<String, BitSet> byNode;
+
+    /**
+     * Creates a snapshot, building all the indexes in a single pass over the jobs.
+     *
+     * @param jobs jobs as returned by qstat
+     */
+    public JobSnapshot(Collection<Job> jobs) {
+        super();
+        this.jobs = jobs.toArray(new Job[jobs.size()]);
+        this.byOwner = new HashMap<String, BitSet>();
+        this.byQueue = new HashMap<String, BitSet>();
+        this.byState = new HashMap<String, BitSet>();
+        this.byNode = new HashMap<String, BitSet>();
+        for (int i = 0; i < this.jobs.length; i++) {
+            final Job job = this.jobs[i];
+            index(byOwner, ownerKey(job.getOwner()), i);
+            index(byQueue, job.getQueue(), i);
+            index(byState, job.getState(), i);
+            final ExecHost execHost = job.getParsedExecHost();
+            for (int h = 0; h < execHost.getHostCount(); h++) {
+                index(byNode, execHost.getHost(h), i);
+            }
+        }
+    }
+
+    /**
+     * @return number of jobs in the snapshot
+     */
+    public int size() {
+        return jobs.length;
+    }
+
+    /**
+     * @return all the jobs in the snapshot, in qstat order
+     */
+    public List<Job> getJobs() {
+        return Collections.unmodifiableList(Arrays.asList(jobs));
+    }
+
+    /**
+     * @return the distinct job owners (user names, without the submit host)
+     */
+    public Set<String> getOwners() {
+        return Collections.unmodifiableSet(byOwner.keySet());
+    }
+
+    /**
+     * @return the distinct queue names
+     */
+    public Set<String> getQueues() {
+        return Collections.unmodifiableSet(byQueue.keySet());
+    }
+
+    /**
+     * @return the distinct job states
+     */
+    public Set<String> getStates() {
+        return Collections.unmodifiableSet(byState.keySet());
+    }
+
+    /**
+     * @return the distinct execution node names
+     */
+    public Set<String> getNodes() {
+        return Collections.unmodifiableSet(byNode.keySet());
+    }
+
+    /**
+     * Selects the jobs matching all the given criteria. A <code>null</code> criterion matches any job.
+     *
+     * @param owner job owner, either <code>user</code> or <code>user@host</code> (the host is ignored)
+     * @param queue queue name
+     * @param state job state (e.g. R, Q, H)
+     * @param node execution node name
+     * @return matching jobs, in qstat order
+     */
+    public List<Job> select(String owner, String queue, String state, String node) {
+        final BitSet matches = match(owner, queue, state, node);
+        if (matches == null) {
+            return getJobs();
+        }
+        final List<Job> result = new ArrayList<Job>(matches.cardinality());
+        for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1)) {
+            result.add(jobs[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Counts the jobs matching all the given criteria. A <code>null</code> criterion matches any job.
+     *
+     * @param owner job owner, either <code>user</code> or <code>user@host</code> (the host is ignored)
+     * @param queue queue name
+     * @param state job state (e.g. R, Q, H)
+     * @param node execution node name
+     * @return number of matching jobs
+     */
+    public int count(String owner, String queue, String state, String node) {
+        final BitSet matches = match(owner, queue, state, node);
+        return matches == null ? jobs.length : matches.cardinality();
+    }
+
+    /**
+     * Intersects the indexes for the given criteria, starting from the most selective one.
+     *
+     * @return matching positions, or <code>null</code> when no criterion was given
+     */
+    private BitSet match(String owner, String queue, String state, String node) {
+        final List<BitSet> criteria = new ArrayList<BitSet>(4);
+        if (owner != null && !add(criteria, byOwner.get(ownerKey(owner)))) {
+            return new BitSet(0);
+        }
+        if (queue != null && !add(criteria, byQueue.get(queue))) {
+            return new BitSet(0);
+        }
+        if (state != null && !add(criteria, byState.get(state))) {
+            return new BitSet(0);
+        }
+        if (node != null && !add(criteria, byNode.get(node))) {
+            return new BitSet(0);
+        }
+        if (criteria.isEmpty()) {
+            return null;
+        }
+        BitSet smallest = criteria.get(0);
+        for (final BitSet candidate : criteria) {
+            if (candidate.cardinality() < smallest.cardinality()) {
+                smallest = candidate;
+            }
+        }
+        final BitSet result = (BitSet) smallest.clone();
+        for (final BitSet candidate : criteria) {
+            if (candidate != smallest) {
+                result.and(candidate);
+            }
+        }
+        return result;
+    }
+
+    private static boolean add(List<BitSet> criteria, BitSet bits) {
+        if (bits == null) {
+            return false;
+        }
+        criteria.add(bits);
+        return true;
+    }
+
+    private static void index(Map<String, BitSet> index, String key, int position) {
+        if (key == null || key.length() == 0) {
+            return;
+        }
+        BitSet bits = index.get(key);
+        if (bits == null) {
+            bits = new BitSet();
+            index.put(key, bits);
+        }
+        bits.set(position);
+    }
+
+    /**
+     * Job_Owner is reported as <code>user@submit_host</code>; the index is keyed by the user name only.
+     */
+    private static String ownerKey(String owner) {
+        if (owner == null) {
+            return null;
+        }
+        final int at = owner.indexOf('@');
+        return at >= 0 ? owner.substring(0, at) : owner;
+    }
+
+}
@@ -0,0 +1,291 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2012-2015 Bruno P. Kinoshita, BioUno
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tupilabs.pbs.model;
+
+import java.io.Serializable;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.apache.commons.lang.builder.ToStringStyle;
+
+/**
+ * A lightweight job status, as listed by qstat or qstat -a without -f. Columns missing from the listing are left
+ * <code>null</code>, or -1 for numbers.
+ * <p>
+ * Note that qstat truncates long values, such as job ids with long server names, to the column width, and that the
+ * user column holds the user name only, without the submit host of <code>Job_Owner</code>.
+ *
+ * @author Bruno P. Kinoshita
+ * @since 0.11
+ */
+public class JobSummary implements Serializable {
+
+    private static final long serialVersionUID = 2203584939562839163L;
+
+    private String id;
+
+    private boolean idTruncated;
+
+    private String name;
+
+    private String owner;
+
+    private String timeUse;
+
+    private String state;
+
+    private String queue;
+
+    private int sessionId = -1;
+
+    private int nodes = -1;
+
+    private int tasks = -1;
+
+    private String requestedMemory;
+
+    private String requestedTime;
+
+    private String elapsedTime;
+
+    /**
+     * Default constructor.
+     */
+    public JobSummary() {
+        super();
+    }
+
+    /**
+     * @return the id
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * @param id the id to set
+     */
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    /**
+     * @return whether the id may have been truncated by qstat, i.e. it fills its column or ends with
+     *         <code>*</code>
+     */
+    public boolean isIdTruncated() {
+        return idTruncated;
+    }
+
+    /**
+     * @param idTruncated whether the id may have been truncated by qstat
+     */
+    public void setIdTruncated(boolean idTruncated) {
+        this.idTruncated = idTruncated;
+    }
+
+    /**
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @param name the name to set
+     */
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    /**
+     * @return the owner (user name)
+     */
+    public String getOwner() {
+        return owner;
+    }
+
+    /**
+     * @param owner the owner (user name) to set
+     */
+    public void setOwner(String owner) {
+        this.owner = owner;
+    }
+
+    /**
+     * @return the CPU time used, listed by plain qstat only
+     */
+    public String getTimeUse() {
+        return timeUse;
+    }
+
+    /**
+     * @param timeUse the CPU time used to set
+     */
+    public void setTimeUse(String timeUse) {
+        this.timeUse = timeUse;
+    }
+
+    /**
+     * @return the state
+     */
+    public String getState() {
+        return state;
+    }
+
+    /**
+     * @param state the state to set
+     */
+    public void setState(String state) {
+        this.state = state;
+    }
+
+    /**
+     * @return the queue
+     */
+    public String getQueue() {
+        return queue;
+    }
+
+    /**
+     * @param queue the queue to set
+     */
+    public void setQueue(String queue) {
+        this.queue = queue;
+    }
+
+    /**
+     * @return the session id, listed by qstat -a only
+     */
+    public int getSessionId() {
+        return sessionId;
+    }
+
+    /**
+     * @param sessionId the session id to set
+     */
+    public void setSessionId(int sessionId) {
+        this.sessionId = sessionId;
+    }
+
+    /**
+     * @return the number of nodes requested, listed by qstat -a only
+     */
+    public int getNodes() {
+        return nodes;
+    }
+
+    /**
+     * @param nodes the number of nodes requested to set
+     */
+    public void setNodes(int nodes) {
+        this.nodes = nodes;
+    }
+
+    /**
+     * @return the number of tasks requested, listed by qstat -a only
+     */
+    public int getTasks() {
+        return tasks;
+    }
+
+    /**
+     * @param tasks the number of tasks requested to set
+     */
+    public void setTasks(int tasks) {
+        this.tasks = tasks;
+    }
+
+    /**
+     * @return the memory requested, listed by qstat -a only
+     */
+    public String getRequestedMemory() {
+        return requestedMemory;
+    }
+
+    /**
+     * @param requestedMemory the memory requested to set
+     */
+    public void setRequestedMemory(String requestedMemory) {
+        this.requestedMemory = requestedMemory;
+    }
+
+    /**
+     * @return the wall time requested, listed by qstat -a only
+     */
+    public String getRequestedTime() {
+        return requestedTime;
+    }
+
+    /**
+     * @param requestedTime the wall time requested to set
+     */
+    public void setRequestedTime(String requestedTime) {
+        this.requestedTime = requestedTime;
+    }
+
+    /**
+     * @return the elapsed wall time, listed by qstat -a only
+     */
+    public String getElapsedTime() {
+        return elapsedTime;
+    }
+
+    /**
+     * @param elapsedTime the elapsed wall time to set
+     */
+    public void setElapsedTime(String elapsedTime) {
+        this.elapsedTime = elapsedTime;
+    }
+
+    /**
+     * Create a job with the fields of this summary. Only the id, owner, state, queue and CPU time used
+     * (<code>resources_used.cput</code>) are set; the name is not, as qstat truncates it in the summary table.
+     *
+     * @return job
+     */
+    public Job toJob() {
+        final Job job = new Job();
+        job.setId(id);
+        job.setOwner(owner);
+        job.setState(state);
+        job.setQueue(queue);
+        if (timeUse != null && !"0".equals(timeUse)) {
+            job.getResourcesUsed().put("resources_used.cput", timeUse);
+        }
+        if (sessionId >= 0) {
+            job.setSessionId(sessionId);
+        }
+        return job;
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return ToStringBuilder.reflectionToString(this, ToStringStyle.MULTI_LINE_STYLE);
+    }
+
+}
@@ -25,10 +25,12 @@ package com.tupilabs.pbs.model;
 
 import java.io.Serializable;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.commons.lang.builder.ToStringBuilder;
 import org.apache.commons.lang.builder.ToStringStyle;
@@ -41,7 +43,17 @@ import org.apache.commons.lang.builder.ToStringStyle;
  */
 public class Node implements Serializable {
 
-    private static final long serialVersionUID = 2980172720826485748L;
+    private static final long serialVersionUID = -5129442396716316286L;
+
+    private static final int FREE_MASK = QueueState.FREE.mask();
+
+    private static final int DOWN_MASK = QueueState.DOWN.mask();
+
+    private static final int OFFLINE_MASK = QueueState.OFFLINE.mask();
+
+    private static final int UNSCHEDULABLE_MASK = QueueState.DOWN.mask() | QueueState.OFFLINE.mask()
+            | QueueState.RESERVE.mask() | QueueState.JOB_EXCLUSIVE.mask() | QueueState.BUSY.mask()
+            | QueueState.STATE_UNKNOWN.mask() | QueueState.UNKNOWN.mask();
 
     private final String name;
 
@@ -51,11 +63,31 @@ public class Node implements Serializable {
 
     private final QueueState state;
 
-    private final Map<String, String> status;
+    /**
+     * All the node states, as a {@link QueueState} bit mask.
+     */
+    private final int stateMask;
+
+    private final NodeStatus status;
+
+    /**
+     * Interned node properties, or <code>null</code> if the node was created with a plain property list.
+     */
+    private final PropertySet propertySet;
+
+    /**
+     * Property names, materialised from the property set on first use. Serialized once materialised, so that
+     * changes made through {@link #getProperties()} are kept.
+     */
+    private volatile List<String> properties;
 
-    private final List<String> properties;
+    private final NodeOccupancy occupancy;
 
-    private final List<Job> jobs;
+    /**
+     * Jobs materialised from the occupancy, on first use. Serialized once materialised, so that changes made through
+     * {@link #getJobs()} are kept.
+     */
+    private volatile List<Job> jobs;
 
     /**
      * @param name node name
@@ -69,9 +101,35 @@ public class Node implements Serializable {
         this.numberOfProcessors = numberOfProcessors;
         this.nodeType = nodeType;
         this.state = state;
-        this.status = new HashMap<String, String>();
+        this.stateMask = state == null ? 0 : state.mask();
+        this.status = new NodeStatus(null);
+        this.propertySet = null;
         this.properties = new ArrayList<String>();
-        this.jobs = new LinkedList<Job>();
+        this.occupancy = NodeOccupancy.EMPTY;
+        this.jobs = new ArrayList<Job>();
+    }
+
+    /**
+     * @param name node name
+     * @param numberOfProcessors number of processors available in this node
+     * @param nodeType node type
+     * @param states all the current states of the node, e.g. <code>job-exclusive,busy</code>
+     * @param status status reported by the node
+     * @param occupancy cores in use and their jobs
+     * @param properties node properties
+     * @since 0.11
+     */
+    public Node(String name, int numberOfProcessors, String nodeType, Set<QueueState> states, NodeStatus status,
+            NodeOccupancy occupancy, PropertySet properties) {
+        super();
+        this.name = name;
+        this.numberOfProcessors = numberOfProcessors;
+        this.nodeType = nodeType;
+        this.stateMask = QueueState.toMask(states);
+        this.state = states.isEmpty() ? QueueState.UNKNOWN : states.iterator().next();
+        this.status = status == null ? new NodeStatus(null) : status;
+        this.propertySet = properties == null ? new PropertySet(new PropertyDictionary(), new BitSet(0)) : properties;
+        this.occupancy = occupancy == null ? NodeOccupancy.EMPTY : occupancy;
     }
 
     /**
@@ -96,31 +154,158 @@ public class Node implements Serializable {
     }
 
     /**
-     * @return the state
+     * @return the state; when the node has several states, the first one in {@link QueueState} declaration order
      */
     public QueueState getState() {
         return state;
     }
 
     /**
-     * @return the status
+     * @return all the node states
+     * @since 0.11
+     */
+    public EnumSet<QueueState> getStates() {
+        return QueueState.fromMask(stateMask);
+    }
+
+    /**
+     * @return all the node states, as a {@link QueueState} bit mask
+     * @since 0.11
+     */
+    public int getStateMask() {
+        return stateMask;
+    }
+
+    /**
+     * @param state a state
+     * @return <code>true</code> if the node is in the given state, possibly among others
+     * @since 0.11
+     */
+    public boolean hasState(QueueState state) {
+        return (stateMask & state.mask()) != 0;
+    }
+
+    /**
+     * @return <code>true</code> if the node is free
+     * @since 0.11
+     */
+    public boolean isFree() {
+        return (stateMask & FREE_MASK) != 0;
+    }
+
+    /**
+     * @return <code>true</code> if the node is down
+     * @since 0.11
+     */
+    public boolean isDown() {
+        return (stateMask & DOWN_MASK) != 0;
+    }
+
+    /**
+     * @return <code>true</code> if the node is offline
+     * @since 0.11
+     */
+    public boolean isOffline() {
+        return (stateMask & OFFLINE_MASK) != 0;
+    }
+
+    /**
+     * A node is schedulable when it is not down, offline, reserved, busy, exclusively allocated or in an unknown
+     * state.
+     *
+     * @return <code>true</code> if new work can be placed on the node
+     * @since 0.11
+     */
+    public boolean isSchedulable() {
+        return stateMask != 0 && (stateMask & UNSCHEDULABLE_MASK) == 0;
+    }
+
+    /**
+     * Counts the nodes that are in the given state, possibly among others.
+     *
+     * @param nodes nodes
+     * @param state state
+     * @return number of nodes in the state
+     * @since 0.11
+     */
+    public static int count(Collection<Node> nodes, QueueState state) {
+        final int mask = state.mask();
+        int count = 0;
+        for (final Node node : nodes) {
+            if ((node.stateMask & mask) != 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return the status entries, decoded from the node status on first use
      */
     public Map<String, String> getStatus() {
+        return status.asMap();
+    }
+
+    /**
+     * @return the node status, with typed accessors for the common metrics
+     * @since 0.11
+     */
+    public NodeStatus getNodeStatus() {
         return status;
     }
 
     /**
-     * @return the properties
+     * @return the properties; for parsed nodes, materialised from the property set on first use, in the order listed
      */
     public List<String> getProperties() {
-        return properties;
+        List<String> list = properties;
+        if (list == null) {
+            synchronized (this) {
+                list = properties;
+                if (list == null) {
+                    list = propertySet == null ? new ArrayList<String>()
+                            : new ArrayList<String>(propertySet.toList());
+                    properties = list;
+                }
+            }
+        }
+        return list;
     }
 
     /**
-     * @return the jobs
+     * @return the properties as a bitset over the cluster property dictionary
+     * @since 0.11
+     */
+    public PropertySet getPropertySet() {
+        if (propertySet == null) {
+            return PropertySet.of(getProperties(), new PropertyDictionary());
+        }
+        return propertySet;
+    }
+
+    /**
+     * @return the jobs, one per busy core, materialised from the node occupancy on first use
      */
     public List<Job> getJobs() {
-        return jobs;
+        List<Job> list = jobs;
+        if (list == null) {
+            synchronized (this) {
+                list = jobs;
+                if (list == null) {
+                    list = occupancy.toJobs();
+                    jobs = list;
+                }
+            }
+        }
+        return list;
+    }
+
+    /**
+     * @return the cores in use and the ids of their jobs
+     * @since 0.11
+     */
+    public NodeOccupancy getOccupancy() {
+        return occupancy;
     }
 
     /*
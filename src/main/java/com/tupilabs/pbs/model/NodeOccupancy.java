@@ -0,0 +1,231 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2012-2015 Bruno P. Kinoshita, BioUno
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tupilabs.pbs.model;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Core occupancy of a node, parsed from the qnodes <code>jobs</code> element (e.g.
+ * <code>0/12.server,1/12.server,2-3/13.server</code>).
+ * <p>
+ * Busy cores are kept in a {@link BitSet}, and each busy core refers to its job with an int index into the distinct
+ * job ids of the node. Job ids are interned per qnodes call, so nodes running the same job share the same String.
+ * <p>
+ * A core may be listed with several jobs (e.g. <code>0/1.server,0/2.server</code>): every (core, job) entry is kept,
+ * in the listed order, so that {@link #toJobs()} returns one job per entry.
+ *
+ * @author Bruno P. Kinoshita
+ * @since 0.11
+ */
+public final class NodeOccupancy implements Serializable {
+
+    private static final long serialVersionUID = -1950733263837245197L;
+
+    /**
+     * Occupancy of an idle node.
+     */
+    public static final NodeOccupancy EMPTY = new NodeOccupancy(new BitSet(0), new int[0], new String[0], new int[0],
+            new int[0]);
+
+    private final BitSet busyCores;
+
+    /**
+     * Job of each core, the first one listed for the core; -1 for free cores.
+     */
+    private final int[] jobRefs;
+
+    private final String[] jobIds;
+
+    /**
+     * Core of each (core, job) entry, in the listed order.
+     */
+    private final int[] entryCores;
+
+    /**
+     * Job of each (core, job) entry, in the listed order.
+     */
+    private final int[] entryRefs;
+
+    private NodeOccupancy(BitSet busyCores, int[] jobRefs, String[] jobIds, int[] entryCores, int[] entryRefs) {
+        this.busyCores = busyCores;
+        this.jobRefs = jobRefs;
+        this.jobIds = jobIds;
+        this.entryCores = entryCores;
+        this.entryRefs = entryRefs;
+    }
+
+    /**
+     * Parses a qnodes <code>jobs</code> value.
+     *
+     * @param jobs comma separated <code>cores/job_id</code> entries, where cores is an index or a range; may be
+     *            <code>null</code>
+     * @param internedIds job ids already seen in the same qnodes output, updated with new ids; may be
+     *            <code>null</code>
+     * @return occupancy
+     */
+    public static NodeOccupancy parse(String jobs, Map<String, String> internedIds) {
+        if (jobs == null || jobs.trim().length() == 0) {
+            return EMPTY;
+        }
+        final BitSet busyCores = new BitSet();
+        int[] jobRefs = new int[16];
+        Arrays.fill(jobRefs, -1);
+        final List<String> jobIds = new ArrayList<String>(2);
+        int[] entryCores = new int[16];
+        int[] entryRefs = new int[16];
+        int entries = 0;
+        final BitSet pending = new BitSet();
+        for (final String entry : jobs.split(",")) {
+            final int slash = entry.indexOf('/');
+            if (!addCores(slash >= 0 ? entry.substring(0, slash) : entry, pending) || slash < 0) {
+                continue;
+            }
+            String jobId = entry.substring(slash + 1).trim();
+            if (internedIds != null) {
+                final String interned = internedIds.get(jobId);
+                if (interned == null) {
+                    internedIds.put(jobId, jobId);
+                } else {
+                    jobId = interned;
+                }
+            }
+            int ref = jobIds.indexOf(jobId);
+            if (ref < 0) {
+                ref = jobIds.size();
+                jobIds.add(jobId);
+            }
+            for (int core = pending.nextSetBit(0); core >= 0; core = pending.nextSetBit(core + 1)) {
+                if (core >= jobRefs.length) {
+                    final int previous = jobRefs.length;
+                    jobRefs = Arrays.copyOf(jobRefs, Math.max(previous * 2, core + 1));
+                    Arrays.fill(jobRefs, previous, jobRefs.length, -1);
+                }
+                if (jobRefs[core] < 0) {
+                    jobRefs[core] = ref;
+                }
+                busyCores.set(core);
+                if (entries == entryCores.length) {
+                    entryCores = Arrays.copyOf(entryCores, entries * 2);
+                    entryRefs = Arrays.copyOf(entryRefs, entries * 2);
+                }
+                entryCores[entries] = core;
+                entryRefs[entries] = ref;
+                entries++;
+            }
+            pending.clear();
+        }
+        if (jobIds.isEmpty()) {
+            return EMPTY;
+        }
+        return new NodeOccupancy(busyCores, Arrays.copyOf(jobRefs, busyCores.length()),
+                jobIds.toArray(new String[jobIds.size()]), Arrays.copyOf(entryCores, entries),
+                Arrays.copyOf(entryRefs, entries));
+    }
+
+    /**
+     * Reads <code>3</code> or <code>0-3</code> into the pending cores.
+     *
+     * @return <code>false</code> if the value is not a core index or range
+     */
+    private static boolean addCores(String cores, BitSet pending) {
+        final String trimmed = cores.trim();
+        try {
+            final int dash = trimmed.indexOf('-');
+            if (dash > 0) {
+                pending.set(Integer.parseInt(trimmed.substring(0, dash).trim()),
+                        Integer.parseInt(trimmed.substring(dash + 1).trim()) + 1);
+            } else {
+                pending.set(Integer.parseInt(trimmed));
+            }
+            return true;
+        } catch (NumberFormatException nfe) {
+            return false;
+        } catch (IndexOutOfBoundsException ioobe) {
+            return false;
+        }
+    }
+
+    /**
+     * @return number of busy cores
+     */
+    public int getBusyCoreCount() {
+        return busyCores.cardinality();
+    }
+
+    /**
+     * @param core core index
+     * @return <code>true</code> if a job is running on the core
+     */
+    public boolean isBusy(int core) {
+        return busyCores.get(core);
+    }
+
+    /**
+     * @return a copy of the busy cores
+     */
+    public BitSet getBusyCores() {
+        return (BitSet) busyCores.clone();
+    }
+
+    /**
+     * @param core core index
+     * @return id of the job running on the core (the first one listed, if several are), or <code>null</code> if the
+     *         core is free
+     */
+    public String getJobId(int core) {
+        return core >= 0 && core < jobRefs.length && jobRefs[core] >= 0 ? jobIds[jobRefs[core]] : null;
+    }
+
+    /**
+     * @return the distinct ids of the jobs running on the node
+     */
+    public List<String> getJobIds() {
+        return Collections.unmodifiableList(Arrays.asList(jobIds));
+    }
+
+    /**
+     * Materialises one {@link Job} per (core, job) entry, in the listed order, with the core as queue index and the
+     * job id as name, as {@link Node#getJobs()} has always returned.
+     *
+     * @return jobs, one per entry
+     */
+    public List<Job> toJobs() {
+        final List<Job> jobs = new LinkedList<Job>();
+        for (int i = 0; i < entryCores.length; i++) {
+            final Job job = new Job();
+            job.setQueueIndex(entryCores[i]);
+            job.setName(jobIds[entryRefs[i]]);
+            jobs.add(job);
+        }
+        return jobs;
+    }
+
+}
@@ -0,0 +1,223 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2012-2015 Bruno P. Kinoshita, BioUno
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tupilabs.pbs.model;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Selects nodes for a PBS node specification, such as <code>nodes=4:ppn=16:bigmem:ib</code>.
+ * <p>
+ * For each property of the cluster dictionary, the selector keeps a column bitmap with one bit per node, packed in
+ * <code>long</code> words. Matching a set of properties is then a word by word AND of a few columns, 64 nodes at a
+ * time, after which only the candidate nodes are checked for free cores.
+ *
+ * @author Bruno P. Kinoshita
+ * @since 0.11
+ */
+public class NodeSelector {
+
+    private final Node[] nodes;
+
+    private final PropertyDictionary dictionary;
+
+    private final long[][] columns;
+
+    private final long[] schedulable;
+
+    private final int[] freeCores;
+
+    private final int words;
+
+    /**
+     * Builds the property columns of the given nodes.
+     *
+     * @param nodes cluster nodes, as returned by qnodes
+     */
+    public NodeSelector(List<Node> nodes) {
+        super();
+        this.nodes = nodes.toArray(new Node[nodes.size()]);
+        this.words = (this.nodes.length + 63) >>> 6;
+        this.dictionary = this.nodes.length > 0 ? this.nodes[0].getPropertySet().getDictionary()
+                : new PropertyDictionary();
+        this.schedulable = new long[words];
+        this.freeCores = new int[this.nodes.length];
+
+        final List<long[]> columns = new ArrayList<long[]>();
+        for (int n = 0; n < this.nodes.length; n++) {
+            final Node node = this.nodes[n];
+            final PropertySet properties = node.getPropertySet();
+            final BitSet ids;
+            if (properties.getDictionary() == dictionary) {
+                ids = properties.getBits();
+            } else {
+                ids = PropertySet.of(properties.toList(), dictionary).getBits();
+            }
+            for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+                while (columns.size() <= id) {
+                    columns.add(new long[words]);
+                }
+                columns.get(id)[n >>> 6] |= 1L << n;
+            }
+            if (node.isSchedulable()) {
+                schedulable[n >>> 6] |= 1L << n;
+                freeCores[n] = Math.max(0, node.getNumberOfProcessors() - node.getOccupancy().getBusyCoreCount());
+            }
+        }
+        this.columns = columns.toArray(new long[columns.size()][]);
+    }
+
+    /**
+     * Counts the nodes having all the given properties, regardless of their state.
+     *
+     * @param properties property names
+     * @return number of nodes with all the properties
+     */
+    public int count(String... properties) {
+        final long[] matches = match(null, properties);
+        int count = 0;
+        for (final long word : matches) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Returns the schedulable nodes having all the given properties and at least the given number of free cores.
+     *
+     * @param ppn minimum number of free cores
+     * @param properties property names
+     * @return matching nodes, in qnodes order
+     */
+    public List<Node> match(int ppn, String... properties) {
+        final long[] matches = match(schedulable, properties);
+        final List<Node> result = new ArrayList<Node>();
+        for (int w = 0; w < words; w++) {
+            long word = matches[w];
+            while (word != 0) {
+                final int n = (w << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+                if (freeCores[n] >= ppn) {
+                    result.add(nodes[n]);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Selects nodes for a node specification such as <code>nodes=4:ppn=16:bigmem:ib+2:ppn=8</code>. Each part
+     * separated by <code>+</code> asks for a number of nodes (1 if omitted), with optional <code>ppn</code> and
+     * properties; a node is used by at most one part. Other <code>key=value</code> entries (e.g. <code>gpus=1</code>)
+     * are ignored.
+     *
+     * @param spec node specification
+     * @return selected nodes, or an empty list if the specification cannot be satisfied right now
+     */
+    public List<Node> select(String spec) {
+        String value = spec.trim();
+        if (value.startsWith("nodes=")) {
+            value = value.substring("nodes=".length());
+        }
+        final long[] used = new long[words];
+        final List<Node> selected = new ArrayList<Node>();
+        for (final String part : value.split("\\+")) {
+            int count = 1;
+            int ppn = 1;
+            final List<String> properties = new ArrayList<String>();
+            final String[] tokens = part.split(":");
+            for (int t = 0; t < tokens.length; t++) {
+                final String token = tokens[t].trim();
+                if (token.length() == 0) {
+                    continue;
+                } else if (t == 0 && isNumber(token)) {
+                    count = Integer.parseInt(token);
+                } else if (token.startsWith("ppn=")) {
+                    ppn = Integer.parseInt(token.substring("ppn=".length()).trim());
+                } else if (token.indexOf('=') < 0) {
+                    properties.add(token);
+                }
+            }
+            final long[] matches = match(schedulable, properties.toArray(new String[properties.size()]));
+            int found = 0;
+            for (int w = 0; w < words && found < count; w++) {
+                long word = matches[w] & ~used[w];
+                while (word != 0 && found < count) {
+                    final int bit = Long.numberOfTrailingZeros(word);
+                    word &= word - 1;
+                    final int n = (w << 6) + bit;
+                    if (freeCores[n] >= ppn) {
+                        used[w] |= 1L << bit;
+                        selected.add(nodes[n]);
+                        found++;
+                    }
+                }
+            }
+            if (found < count) {
+                return Collections.emptyList();
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * ANDs the columns of the given properties, starting from the given mask (or all nodes).
+     */
+    private long[] match(long[] mask, String... properties) {
+        final long[] result = new long[words];
+        if (mask != null) {
+            System.arraycopy(mask, 0, result, 0, words);
+        } else {
+            for (int w = 0; w < words; w++) {
+                result[w] = -1L;
+            }
+            if ((nodes.length & 63) != 0) {
+                result[words - 1] = (1L << nodes.length) - 1;
+            }
+        }
+        for (final String property : properties) {
+            final int id = dictionary.indexOf(property);
+            if (id < 0 || id >= columns.length) {
+                return new long[words];
+            }
+            final long[] column = columns[id];
+            for (int w = 0; w < words; w++) {
+                result[w] &= column[w];
+            }
+        }
+        return result;
+    }
+
+    private static boolean isNumber(String token) {
+        for (int i = 0; i < token.length(); i++) {
+            if (!Character.isDigit(token.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,248 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2012-2015 Bruno P. Kinoshita, BioUno
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tupilabs.pbs.model;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.tupilabs.pbs.util.Utils;
+
+/**
+ * The status reported by a node MOM (the qnodes <code>status</code> element), such as
+ * <code>rectime=1442740315,state=free,loadave=0.00,ncpus=4,physmem=8166332kb,availmem=7532340kb,idletime=1183</code>.
+ * <p>
+ * Only the raw value is kept when parsing. The common metrics are decoded into primitives the first time one of them
+ * is read, with memory in bytes and times in seconds; the full key/value map is only built when an arbitrary key is
+ * requested.
+ *
+ * @author Bruno P. Kinoshita
+ * @since 0.11
+ */
+public final class NodeStatus implements Serializable {
+
+    private static final long serialVersionUID = 6741905288217536031L;
+
+    private final String raw;
+
+    private transient volatile boolean decoded;
+
+    private transient double loadAverage;
+
+    private transient long availableMemory;
+
+    private transient long physicalMemory;
+
+    private transient long totalMemory;
+
+    private transient int cpus;
+
+    private transient long idleTime;
+
+    private transient String state;
+
+    /**
+     * Status entries, once built. Not transient, so that changes made to the map survive serialization.
+     */
+    private volatile Map<String, String> values;
+
+    /**
+     * @param raw the status value, may be <code>null</code>
+     */
+    public NodeStatus(String raw) {
+        super();
+        this.raw = raw == null ? "" : raw;
+    }
+
+    /**
+     * @return the raw status value
+     */
+    public String getRaw() {
+        return raw;
+    }
+
+    /**
+     * @return the load average (<code>loadave</code>), or -1 if not reported
+     */
+    public double getLoadAverage() {
+        decode();
+        return loadAverage;
+    }
+
+    /**
+     * @return the available memory (<code>availmem</code>) in bytes, or -1 if not reported
+     */
+    public long getAvailableMemory() {
+        decode();
+        return availableMemory;
+    }
+
+    /**
+     * @return the physical memory (<code>physmem</code>) in bytes, or -1 if not reported
+     */
+    public long getPhysicalMemory() {
+        decode();
+        return physicalMemory;
+    }
+
+    /**
+     * @return the total memory, including swap (<code>totmem</code>) in bytes, or -1 if not reported
+     */
+    public long getTotalMemory() {
+        decode();
+        return totalMemory;
+    }
+
+    /**
+     * @return the number of cpus (<code>ncpus</code>), or -1 if not reported
+     */
+    public int getCpus() {
+        decode();
+        return cpus;
+    }
+
+    /**
+     * @return the idle time (<code>idletime</code>) in seconds, or -1 if not reported
+     */
+    public long getIdleTime() {
+        decode();
+        return idleTime;
+    }
+
+    /**
+     * @return the state reported by the MOM (<code>state</code>), or <code>null</code> if not reported
+     */
+    public String getState() {
+        decode();
+        return state;
+    }
+
+    /**
+     * @param key status key
+     * @return the raw value for the key, or <code>null</code> if not reported
+     */
+    public String get(String key) {
+        return asMap().get(key);
+    }
+
+    /**
+     * Returns all the status entries. The map is built on the first call and then reused, so changes made to it are
+     * visible to later calls, and kept when the status is serialized.
+     *
+     * @return status entries
+     */
+    public Map<String, String> asMap() {
+        Map<String, String> map = values;
+        if (map == null) {
+            synchronized (this) {
+                map = values;
+                if (map == null) {
+                    map = new HashMap<String, String>();
+                    if (raw.length() > 0) {
+                        for (final String entry : raw.split(",")) {
+                            if (entry.indexOf('=') > 0) {
+                                final String[] temp = entry.split("=");
+                                if (temp.length == 2)
+                                    map.put(temp[0].trim(), temp[1].trim());
+                            }
+                        }
+                    }
+                    values = map;
+                }
+            }
+        }
+        return map;
+    }
+
+    /**
+     * Scans the raw value once, decoding only the common metrics.
+     */
+    private void decode() {
+        if (decoded) {
+            return;
+        }
+        synchronized (this) {
+            if (decoded) {
+                return;
+            }
+            loadAverage = -1d;
+            availableMemory = -1L;
+            physicalMemory = -1L;
+            totalMemory = -1L;
+            cpus = -1;
+            idleTime = -1L;
+            state = null;
+            int start = 0;
+            final int length = raw.length();
+            while (start < length) {
+                int end = raw.indexOf(',', start);
+                if (end < 0) {
+                    end = length;
+                }
+                final int equals = raw.indexOf('=', start);
+                if (equals > start && equals < end) {
+                    decode(raw.substring(start, equals).trim(), equals + 1, end);
+                }
+                start = end + 1;
+            }
+            decoded = true;
+        }
+    }
+
+    private void decode(String key, int valueStart, int valueEnd) {
+        if ("loadave".equals(key)) {
+            try {
+                loadAverage = Double.parseDouble(raw.substring(valueStart, valueEnd).trim());
+            } catch (NumberFormatException nfe) {
+                loadAverage = -1d;
+            }
+        } else if ("availmem".equals(key)) {
+            availableMemory = Utils.parseSize(raw.substring(valueStart, valueEnd));
+        } else if ("physmem".equals(key)) {
+            physicalMemory = Utils.parseSize(raw.substring(valueStart, valueEnd));
+        } else if ("totmem".equals(key)) {
+            totalMemory = Utils.parseSize(raw.substring(valueStart, valueEnd));
+        } else if ("ncpus".equals(key)) {
+            try {
+                cpus = Integer.parseInt(raw.substring(valueStart, valueEnd).trim());
+            } catch (NumberFormatException nfe) {
+                cpus = -1;
+            }
+        } else if ("idletime".equals(key)) {
+            idleTime = Utils.parseDuration(raw.substring(valueStart, valueEnd));
+        } else if ("state".equals(key)) {
+            state = raw.substring(valueStart, valueEnd).trim();
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return raw;
+    }
+
+}
@@ -0,0 +1,85 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2012-2015 Bruno P. Kinoshita, BioUno
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tupilabs.pbs.model;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dictionary of node property names for a cluster, assigning each distinct property a small int id. Node properties
+ * are then stored as bitsets of ids (see {@link PropertySet}).
+ *
+ * @author Bruno P. Kinoshita
+ * @since 0.11
+ */
+public final class PropertyDictionary implements Serializable {
+
+    private static final long serialVersionUID = -1553393120367218187L;
+
+    private final Map<String, Integer> ids = new HashMap<String, Integer>();
+
+    private final List<String> names = new ArrayList<String>();
+
+    /**
+     * @param property property name
+     * @return id of the property, assigning a new one if the property was not seen before
+     */
+    public synchronized int intern(String property) {
+        final Integer id = ids.get(property);
+        if (id != null) {
+            return id.intValue();
+        }
+        ids.put(property, names.size());
+        names.add(property);
+        return names.size() - 1;
+    }
+
+    /**
+     * @param property property name
+     * @return id of the property, or -1 if unknown
+     */
+    public synchronized int indexOf(String property) {
+        final Integer id = ids.get(property);
+        return id == null ? -1 : id.intValue();
+    }
+
+    /**
+     * @param id property id
+     * @return property name
+     */
+    public synchronized String get(int id) {
+        return names.get(id);
+    }
+
+    /**
+     * @return number of distinct properties
+     */
+    public synchronized int size() {
+        return names.size();
+    }
+
+}
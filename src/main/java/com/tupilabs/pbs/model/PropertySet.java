@@ -0,0 +1,157 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2012-2015 Bruno P. Kinoshita, BioUno
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tupilabs.pbs.model;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The properties of a node, as a bitset of ids from a {@link PropertyDictionary} shared by the cluster nodes.
+ *
+ * @author Bruno P. Kinoshita
+ * @since 0.11
+ */
+public final class PropertySet implements Serializable {
+
+    private static final long serialVersionUID = 3017395563520546183L;
+
+    private final PropertyDictionary dictionary;
+
+    private final BitSet bits;
+
+    /**
+     * Property ids in the order they were listed, or <code>null</code> for id order.
+     */
+    private final int[] order;
+
+    /**
+     * @param dictionary dictionary the ids refer to
+     * @param bits property ids
+     */
+    public PropertySet(PropertyDictionary dictionary, BitSet bits) {
+        this(dictionary, bits, null);
+    }
+
+    private PropertySet(PropertyDictionary dictionary, BitSet bits, int[] order) {
+        super();
+        this.dictionary = dictionary;
+        this.bits = bits;
+        this.order = order;
+    }
+
+    /**
+     * Creates a property set from a comma separated value, such as the qnodes <code>properties</code> element.
+     *
+     * @param properties comma separated properties, may be <code>null</code>
+     * @param dictionary dictionary used to intern the properties
+     * @return property set
+     */
+    public static PropertySet parse(String properties, PropertyDictionary dictionary) {
+        if (properties == null || properties.trim().length() == 0) {
+            return new PropertySet(dictionary, new BitSet());
+        }
+        return of(Arrays.asList(properties.split(",")), dictionary);
+    }
+
+    /**
+     * @param properties property names
+     * @param dictionary dictionary used to intern the properties
+     * @return property set
+     */
+    public static PropertySet of(Collection<String> properties, PropertyDictionary dictionary) {
+        final BitSet bits = new BitSet();
+        final int[] order = new int[properties.size()];
+        int count = 0;
+        for (final String property : properties) {
+            final int id = dictionary.intern(property);
+            if (!bits.get(id)) {
+                bits.set(id);
+                order[count++] = id;
+            }
+        }
+        final int[] trimmed = new int[count];
+        System.arraycopy(order, 0, trimmed, 0, count);
+        return new PropertySet(dictionary, bits, trimmed);
+    }
+
+    /**
+     * @return the dictionary the ids refer to
+     */
+    public PropertyDictionary getDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * @return a copy of the property ids
+     */
+    public BitSet getBits() {
+        return (BitSet) bits.clone();
+    }
+
+    /**
+     * @param property property name
+     * @return <code>true</code> if the node has the property
+     */
+    public boolean contains(String property) {
+        final int id = dictionary.indexOf(property);
+        return id >= 0 && bits.get(id);
+    }
+
+    /**
+     * @param id property id
+     * @return <code>true</code> if the node has the property
+     */
+    public boolean contains(int id) {
+        return bits.get(id);
+    }
+
+    /**
+     * @return number of properties
+     */
+    public int size() {
+        return bits.cardinality();
+    }
+
+    /**
+     * @return property names, in the order they were listed when parsed, otherwise in id order
+     */
+    public List<String> toList() {
+        final List<String> list = new ArrayList<String>(bits.cardinality());
+        if (order != null) {
+            for (final int id : order) {
+                list.add(dictionary.get(id));
+            }
+            return list;
+        }
+        for (int id = bits.nextSetBit(0); id >= 0; id = bits.nextSetBit(id + 1)) {
+            list.add(dictionary.get(id));
+        }
+        return list;
+    }
+
+}
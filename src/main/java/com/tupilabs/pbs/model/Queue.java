@@ -50,6 +50,11 @@ public class Queue implements Serializable {
 
     private String stateCount;
 
+    /**
+     * The state count, parsed once when set.
+     */
+    private StateCount stateCounts = StateCount.EMPTY;
+
     private String mtime;
 
     private final Map<String, String> resourcesMax;
@@ -60,6 +65,14 @@ public class Queue implements Serializable {
 
     private final Map<String, String> resourcesDefault;
 
+    private final Map<String, ResourceValue> resourcesMaxValues;
+
+    private final Map<String, ResourceValue> resourcesMinValues;
+
+    private final Map<String, ResourceValue> resourcesAssignedValues;
+
+    private final Map<String, ResourceValue> resourcesDefaultValues;
+
     private int maxUserRun = -1;
 
     private boolean enabled;
@@ -76,6 +89,10 @@ public class Queue implements Serializable {
         this.resourcesMin = new HashMap<String, String>();
         this.resourcesAssigned = new HashMap<String, String>();
         this.resourcesDefault = new HashMap<String, String>();
+        this.resourcesMaxValues = new HashMap<String, ResourceValue>();
+        this.resourcesMinValues = new HashMap<String, ResourceValue>();
+        this.resourcesAssignedValues = new HashMap<String, ResourceValue>();
+        this.resourcesDefaultValues = new HashMap<String, ResourceValue>();
     }
 
     /**
@@ -100,6 +117,7 @@ public class Queue implements Serializable {
         this.totalJobs = totalJobs;
         this.mtime = mtime;
         this.stateCount = stateCount;
+        this.stateCounts = StateCount.parse(stateCount);
         this.maxUserRun = maxUserRun;
         this.enabled = enabled;
         this.started = started;
@@ -107,6 +125,10 @@ public class Queue implements Serializable {
         this.resourcesMin = new HashMap<String, String>();
         this.resourcesAssigned = new HashMap<String, String>();
         this.resourcesDefault = new HashMap<String, String>();
+        this.resourcesMaxValues = new HashMap<String, ResourceValue>();
+        this.resourcesMinValues = new HashMap<String, ResourceValue>();
+        this.resourcesAssignedValues = new HashMap<String, ResourceValue>();
+        this.resourcesDefaultValues = new HashMap<String, ResourceValue>();
     }
 
     /**
@@ -191,6 +213,15 @@ public class Queue implements Serializable {
      */
     public void setStateCount(String stateCount) {
         this.stateCount = stateCount;
+        this.stateCounts = StateCount.parse(stateCount);
+    }
+
+    /**
+     * @return the stateCount, parsed into per-state counters
+     * @since 0.11
+     */
+    public StateCount getStateCounts() {
+        return stateCounts;
     }
 
     /**
@@ -263,6 +294,38 @@ public class Queue implements Serializable {
         return resourcesDefault;
     }
 
+    /**
+     * @return the resourcesMax, as typed values
+     * @since 0.11
+     */
+    public Map<String, ResourceValue> getResourcesMaxValues() {
+        return resourcesMaxValues;
+    }
+
+    /**
+     * @return the resourcesMin, as typed values
+     * @since 0.11
+     */
+    public Map<String, ResourceValue> getResourcesMinValues() {
+        return resourcesMinValues;
+    }
+
+    /**
+     * @return the resourcesAssigned, as typed values
+     * @since 0.11
+     */
+    public Map<String, ResourceValue> getResourcesAssignedValues() {
+        return resourcesAssignedValues;
+    }
+
+    /**
+     * @return the resourcesDefault, as typed values
+     * @since 0.11
+     */
+    public Map<String, ResourceValue> getResourcesDefaultValues() {
+        return resourcesDefaultValues;
+    }
+
     /*
      * (non-Javadoc)
      * @see java.lang.Object#toString()
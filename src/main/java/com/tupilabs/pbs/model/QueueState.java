@@ -23,6 +23,9 @@
  */
 package com.tupilabs.pbs.model;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 /**
  * Queue state. Valid values are:
  * <ul>
@@ -58,14 +61,93 @@ public enum QueueState {
         return this.state;
     }
 
+    /**
+     * Returns the bit of this state in a state mask.
+     *
+     * @return <code>1 &lt;&lt; ordinal()</code>
+     * @since 0.11
+     */
+    public int mask() {
+        return 1 << ordinal();
+    }
+
+    /**
+     * Parses a single state. For a compound value such as <code>job-exclusive,busy</code>, the first state is
+     * returned.
+     *
+     * @param state state name
+     * @return state, or {@link #UNKNOWN} if not recognised
+     */
     public static QueueState fromString(String state) {
-        if ("free".equals(state))
-            return FREE;
-        if ("down".equals(state))
-            return DOWN;
+        if (state == null)
+            return UNKNOWN;
+        final int comma = state.indexOf(',');
+        return lookup(comma >= 0 ? state.substring(0, comma) : state);
+    }
+
+    /**
+     * Parses a state value reported by qnodes, which may hold several comma separated states (e.g.
+     * <code>down,offline</code>).
+     *
+     * @param states state value
+     * @return mask with the bits of all states found; {@link #UNKNOWN} for blank or unrecognised entries
+     * @since 0.11
+     */
+    public static int parseMask(String states) {
+        if (states == null)
+            return UNKNOWN.mask();
+        int mask = 0;
+        int start = 0;
+        final int length = states.length();
+        while (start <= length) {
+            int end = states.indexOf(',', start);
+            if (end < 0)
+                end = length;
+            if (end > start)
+                mask |= lookup(states.substring(start, end)).mask();
+            start = end + 1;
+        }
+        return mask == 0 ? UNKNOWN.mask() : mask;
+    }
+
+    /**
+     * @param mask state mask
+     * @return the states whose bits are set in the mask
+     * @since 0.11
+     */
+    public static EnumSet<QueueState> fromMask(int mask) {
+        final EnumSet<QueueState> states = EnumSet.noneOf(QueueState.class);
+        for (final QueueState state : VALUES) {
+            if ((mask & state.mask()) != 0)
+                states.add(state);
+        }
+        return states;
+    }
+
+    /**
+     * @param states states
+     * @return mask with the bits of the given states
+     * @since 0.11
+     */
+    public static int toMask(Set<QueueState> states) {
+        int mask = 0;
+        for (final QueueState state : states) {
+            mask |= state.mask();
+        }
+        return mask;
+    }
+
+    private static QueueState lookup(String state) {
+        final String trimmed = state.trim();
+        for (final QueueState value : VALUES) {
+            if (value.state.equalsIgnoreCase(trimmed))
+                return value;
+        }
         return UNKNOWN;
     }
 
+    private static final QueueState[] VALUES = values();
+
     /*
      * (non-Javadoc)
      * @see java.lang.Enum#toString()
@@ -0,0 +1,136 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2012-2015 Bruno P. Kinoshita, BioUno
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tupilabs.pbs.model;
+
+import java.io.Serializable;
+
+import com.tupilabs.pbs.util.Utils;
+
+/**
+ * A typed PBS resource value, such as <code>walltime=01:00:00</code>, <code>mem=16gb</code> or <code>nodes=4</code>.
+ * Sizes are normalised to bytes and durations to seconds.
+ *
+ * @author Bruno P. Kinoshita
+ * @since 0.11
+ */
+public final class ResourceValue implements Serializable {
+
+    private static final long serialVersionUID = -6624624133413781569L;
+
+    /**
+     * Kind of resource value.
+     */
+    public enum Kind {
+        /**
+         * Plain number, such as a count of nodes or cpus.
+         */
+        NUMBER,
+        /**
+         * Size, in bytes.
+         */
+        SIZE,
+        /**
+         * Duration, in seconds.
+         */
+        DURATION,
+        /**
+         * Anything else, e.g. <code>nodes=2:ppn=4</code>; only the raw value is available.
+         */
+        TEXT
+    }
+
+    private final String raw;
+
+    private final Kind kind;
+
+    private final long value;
+
+    private ResourceValue(String raw, Kind kind, long value) {
+        this.raw = raw;
+        this.kind = kind;
+        this.value = value;
+    }
+
+    /**
+     * @param raw resource value as reported by qstat
+     * @return typed resource value
+     */
+    public static ResourceValue parse(String raw) {
+        final String trimmed = raw == null ? "" : raw.trim();
+        if (trimmed.length() == 0) {
+            return new ResourceValue(trimmed, Kind.TEXT, -1L);
+        }
+        if (trimmed.indexOf(':') > 0) {
+            final long seconds = Utils.parseDuration(trimmed);
+            if (seconds >= 0) {
+                return new ResourceValue(trimmed, Kind.DURATION, seconds);
+            }
+        } else if (Character.isDigit(trimmed.charAt(0))) {
+            if (Character.isDigit(trimmed.charAt(trimmed.length() - 1))) {
+                try {
+                    return new ResourceValue(trimmed, Kind.NUMBER, Long.parseLong(trimmed));
+                } catch (NumberFormatException nfe) {
+                    // fall through to text
+                }
+            } else {
+                final long bytes = Utils.parseSize(trimmed);
+                if (bytes >= 0) {
+                    return new ResourceValue(trimmed, Kind.SIZE, bytes);
+                }
+            }
+        }
+        return new ResourceValue(trimmed, Kind.TEXT, -1L);
+    }
+
+    /**
+     * @return the raw value
+     */
+    public String getRaw() {
+        return raw;
+    }
+
+    /**
+     * @return the kind of value
+     */
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * @return the value, in bytes for sizes and seconds for durations; -1 for text values
+     */
+    public long getValue() {
+        return value;
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return raw;
+    }
+
+}
@@ -0,0 +1,183 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2012-2015 Bruno P. Kinoshita, BioUno
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tupilabs.pbs.model;
+
+import java.io.Serializable;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.apache.commons.lang.builder.ToStringStyle;
+
+/**
+ * Number of jobs per state in a queue, parsed from the qstat <code>state_count</code> attribute (e.g.
+ * <code>Transit:0 Queued:12 Held:0 Waiting:0 Running:40 Exiting:0</code>).
+ *
+ * @author Bruno P. Kinoshita
+ * @since 0.11
+ */
+public final class StateCount implements Serializable {
+
+    private static final long serialVersionUID = 2431586290413386420L;
+
+    /**
+     * State count with every counter at zero.
+     */
+    public static final StateCount EMPTY = new StateCount();
+
+    private int transit;
+
+    private int queued;
+
+    private int held;
+
+    private int waiting;
+
+    private int running;
+
+    private int exiting;
+
+    private int complete;
+
+    private int begun;
+
+    private StateCount() {
+        super();
+    }
+
+    /**
+     * Parses a state_count value. Unknown states and malformed entries are ignored.
+     *
+     * @param stateCount state_count value, may be <code>null</code>
+     * @return state count
+     */
+    public static StateCount parse(String stateCount) {
+        if (stateCount == null || stateCount.trim().length() == 0) {
+            return EMPTY;
+        }
+        final StateCount counts = new StateCount();
+        for (final String entry : stateCount.trim().split("\\s+")) {
+            final int colon = entry.indexOf(':');
+            if (colon <= 0) {
+                continue;
+            }
+            final int count;
+            try {
+                count = Integer.parseInt(entry.substring(colon + 1));
+            } catch (NumberFormatException nfe) {
+                continue;
+            }
+            final String state = entry.substring(0, colon);
+            if ("Transit".equalsIgnoreCase(state)) {
+                counts.transit = count;
+            } else if ("Queued".equalsIgnoreCase(state)) {
+                counts.queued = count;
+            } else if ("Held".equalsIgnoreCase(state)) {
+                counts.held = count;
+            } else if ("Waiting".equalsIgnoreCase(state)) {
+                counts.waiting = count;
+            } else if ("Running".equalsIgnoreCase(state)) {
+                counts.running = count;
+            } else if ("Exiting".equalsIgnoreCase(state)) {
+                counts.exiting = count;
+            } else if ("Complete".equalsIgnoreCase(state)) {
+                counts.complete = count;
+            } else if ("Begun".equalsIgnoreCase(state)) {
+                counts.begun = count;
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * @return jobs in transit
+     */
+    public int getTransit() {
+        return transit;
+    }
+
+    /**
+     * @return queued jobs
+     */
+    public int getQueued() {
+        return queued;
+    }
+
+    /**
+     * @return held jobs
+     */
+    public int getHeld() {
+        return held;
+    }
+
+    /**
+     * @return waiting jobs
+     */
+    public int getWaiting() {
+        return waiting;
+    }
+
+    /**
+     * @return running jobs
+     */
+    public int getRunning() {
+        return running;
+    }
+
+    /**
+     * @return exiting jobs
+     */
+    public int getExiting() {
+        return exiting;
+    }
+
+    /**
+     * @return completed jobs (Torque keep_completed)
+     */
+    public int getComplete() {
+        return complete;
+    }
+
+    /**
+     * @return array jobs with running subjobs (PBS Pro)
+     */
+    public int getBegun() {
+        return begun;
+    }
+
+    /**
+     * @return sum of all the counters
+     */
+    public int getTotal() {
+        return transit + queued + held + waiting + running + exiting + complete + begun;
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return ToStringBuilder.reflectionToString(this, ToStringStyle.SHORT_PREFIX_STYLE);
+    }
+
+}
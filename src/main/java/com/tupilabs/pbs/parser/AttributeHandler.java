@@ -0,0 +1,68 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2012-2015 Bruno P. Kinoshita, BioUno
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tupilabs.pbs.parser;
+
+/**
+ * Receives the records and attributes of the qstat -f and qstat -Q -f text output, as read by an
+ * {@link AttributeTokenizer}, without building any {@link com.tupilabs.pbs.model.Job} or
+ * {@link com.tupilabs.pbs.model.Queue}.
+ * <p>
+ * Handlers can aggregate the output of a large cluster in constant memory, e.g. summing
+ * <code>resources_used.walltime</code> per <code>job_owner</code>. Attribute values are passed as bytes, which are
+ * only valid during the call; {@link AttributeTokenizer#decodeValue(byte[], int, int)} turns them into Strings when
+ * needed.
+ *
+ * @author Bruno P. Kinoshita
+ * @since 0.11
+ */
+public interface AttributeHandler {
+
+    /**
+     * Start of a record, e.g. <code>Job Id: 123.server</code> or <code>Queue: batch</code>.
+     *
+     * @param id job id or queue name
+     * @throws ParseException to stop the parsing
+     */
+    void startRecord(String id) throws ParseException;
+
+    /**
+     * A <code>name = value</code> attribute of the current record. Values wrapped by qstat over several lines are
+     * joined.
+     *
+     * @param name attribute name, in lower case. The same String instance is passed for repeated names
+     * @param value buffer holding the value, only valid during the call
+     * @param offset start of the value, trimmed
+     * @param length length of the value
+     * @throws ParseException to stop the parsing
+     */
+    void attribute(String name, byte[] value, int offset, int length) throws ParseException;
+
+    /**
+     * End of the current record.
+     *
+     * @throws ParseException to stop the parsing
+     */
+    void endRecord() throws ParseException;
+
+}
@@ -0,0 +1,380 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2012-2015 Bruno P. Kinoshita, BioUno
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tupilabs.pbs.parser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+
+/**
+ * Push tokenizer for the qstat -f and qstat -Q -f text output, working on the raw bytes of the command output.
+ * <p>
+ * Bytes are fed as they are read with {@link #feed(byte[], int, int)}, in chunks of any size, and {@link #finish()}
+ * is called at the end of the output. Lines continued with a newline and a tab are joined, as qstat wraps long
+ * values. Records, started by headers such as <code>Job Id: 123.server</code> or <code>Queue: batch</code> (matched
+ * ignoring case and the amount of whitespace), and their <code>name = value</code> attributes are passed to the
+ * {@link AttributeHandler}. Other lines with an equals sign are attributes, indented or not, and the rest is ignored.
+ * <p>
+ * Values are passed as bytes. Attribute names are decoded once and cached, so tokenizing allocates nothing per
+ * attribute once the names of the output have been seen. As the output is almost always ASCII, Strings are copied
+ * byte to char directly, and only decoded with the platform charset (the one the commands print with) when they hold
+ * non-ASCII bytes.
+ *
+ * @author Bruno P. Kinoshita
+ * @since 0.11
+ */
+public final class AttributeTokenizer {
+
+    /**
+     * Header of the job records of qstat -f, in lower case.
+     */
+    public static final String JOB_HEADER = "job id";
+
+    /**
+     * Header of the queue records of qstat -Q -f, in lower case.
+     */
+    public static final String QUEUE_HEADER = "queue";
+
+    private static final Charset CHARSET = Charset.defaultCharset();
+
+    /**
+     * Size of the attribute name cache, a power of two.
+     */
+    private static final int NAME_CACHE_SIZE = 256;
+
+    private final AttributeHandler handler;
+
+    private final String recordHeader;
+
+    /**
+     * Direct-mapped cache of the attribute names, by the hash of their lower case bytes.
+     */
+    private final byte[][] nameBytes = new byte[NAME_CACHE_SIZE][];
+    private final String[] names = new String[NAME_CACHE_SIZE];
+
+    /**
+     * Whether a record has been started and not ended.
+     */
+    private boolean inRecord = false;
+
+    /**
+     * The logical line being read, with continuations joined.
+     */
+    private byte[] line = new byte[256];
+    private int length = 0;
+
+    /**
+     * Whether a line has been read and not handled yet, waiting to see if the next one continues it.
+     */
+    private boolean pending = false;
+
+    /**
+     * Whether the next byte starts a physical line.
+     */
+    private boolean lineStart = true;
+
+    /**
+     * @param handler attribute handler
+     * @param recordHeader header starting each record, in lower case, e.g. {@link #JOB_HEADER}. Other headers are
+     *            ignored
+     */
+    public AttributeTokenizer(AttributeHandler handler, String recordHeader) {
+        this.handler = handler;
+        this.recordHeader = recordHeader;
+    }
+
+    /**
+     * @param handler attribute handler
+     * @return a tokenizer for the qstat -f output
+     */
+    public static AttributeTokenizer forJobs(AttributeHandler handler) {
+        return new AttributeTokenizer(handler, JOB_HEADER);
+    }
+
+    /**
+     * @param handler attribute handler
+     * @return a tokenizer for the qstat -Q -f output
+     */
+    public static AttributeTokenizer forQueues(AttributeHandler handler) {
+        return new AttributeTokenizer(handler, QUEUE_HEADER);
+    }
+
+    /**
+     * Tokenizes a whole output, and calls {@link #finish()}.
+     *
+     * @param in command output
+     * @throws ParseException if the output cannot be read, or the handler fails
+     */
+    public void parse(InputStream in) throws ParseException {
+        final byte[] buffer = new byte[8192];
+        try {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                feed(buffer, 0, read);
+            }
+        } catch (IOException e) {
+            throw new ParseException(e);
+        }
+        finish();
+    }
+
+    /**
+     * Tokenizes the next chunk of output.
+     *
+     * @param bytes buffer
+     * @param offset start of the chunk
+     * @param count chunk length
+     * @throws ParseException if the handler fails
+     */
+    public void feed(byte[] bytes, int offset, int count) throws ParseException {
+        final int end = offset + count;
+        int position = offset;
+        while (position < end) {
+            if (lineStart) {
+                lineStart = false;
+                if (bytes[position] == '\t' && pending) {
+                    // continuation of the previous line, joined without the newline and tab
+                    if (length > 0 && line[length - 1] == '\r') {
+                        length--;
+                    }
+                    position++;
+                    continue;
+                }
+                if (pending) {
+                    handleLine();
+                }
+                length = 0;
+                pending = true;
+            }
+            int newline = ByteScanner.indexOf(bytes, position, end, (byte) '\n');
+            if (newline < 0) {
+                newline = end;
+            }
+            append(bytes, position, newline - position);
+            if (newline < end) {
+                lineStart = true;
+                newline++;
+            }
+            position = newline;
+        }
+    }
+
+    /**
+     * Handles the last line and ends the last record, at the end of the output.
+     *
+     * @throws ParseException if the handler fails
+     */
+    public void finish() throws ParseException {
+        if (pending) {
+            handleLine();
+            pending = false;
+        }
+        length = 0;
+        lineStart = true;
+        if (inRecord) {
+            inRecord = false;
+            handler.endRecord();
+        }
+    }
+
+    private void append(byte[] bytes, int offset, int count) {
+        if (length + count > line.length) {
+            final byte[] grown = new byte[Math.max(line.length * 2, length + count)];
+            System.arraycopy(line, 0, grown, 0, length);
+            line = grown;
+        }
+        System.arraycopy(bytes, offset, line, length, count);
+        length += count;
+    }
+
+    private void handleLine() throws ParseException {
+        int end = length;
+        if (end > 0 && line[end - 1] == '\r') {
+            end--;
+        }
+        if (end == 0) {
+            return;
+        }
+        final boolean indented = line[0] == ' ' || line[0] == '\t';
+        if (!indented) {
+            final int colon = ByteScanner.indexOf(line, 0, end, (byte) ':');
+            if (colon > 0 && ByteScanner.indexOf(line, 0, colon, (byte) '=') < 0 && isRecordHeader(line, 0, colon)) {
+                if (inRecord) {
+                    handler.endRecord();
+                }
+                inRecord = true;
+                handler.startRecord(decode(line, colon + 1, end, false));
+                return;
+            }
+        }
+        final int equals = ByteScanner.indexOf(line, 0, end, (byte) '=');
+        if (equals >= 0) {
+            final String name = name(line, 0, equals);
+            if (!inRecord) {
+                throw new ParseException("Attribute found before the first " + recordHeader + ": " + name);
+            }
+            int start = equals + 1;
+            while (start < end && isSpace(line[start])) {
+                start++;
+            }
+            int valueEnd = end;
+            while (valueEnd > start && isSpace(line[valueEnd - 1])) {
+                valueEnd--;
+            }
+            handler.attribute(name, line, start, valueEnd - start);
+        }
+    }
+
+    /**
+     * Compares a header name with the record header, ignoring case, and with any run of spaces or tabs matching a
+     * single space, e.g. <code>Job&nbsp;&nbsp;Id</code> for <code>job id</code>.
+     *
+     * @param bytes bytes
+     * @param start start of the header name
+     * @param end end of the header name, exclusive
+     * @return whether the header starts a record
+     */
+    private boolean isRecordHeader(byte[] bytes, int start, int end) {
+        while (start < end && isSpace(bytes[start])) {
+            start++;
+        }
+        while (end > start && isSpace(bytes[end - 1])) {
+            end--;
+        }
+        final int length = recordHeader.length();
+        int matched = 0;
+        int position = start;
+        while (position < end) {
+            if (matched == length) {
+                return false;
+            }
+            final byte b = bytes[position];
+            if (b == ' ' || b == '\t') {
+                if (recordHeader.charAt(matched) != ' ') {
+                    return false;
+                }
+                while (position < end && (bytes[position] == ' ' || bytes[position] == '\t')) {
+                    position++;
+                }
+            } else {
+                if (lowerCase(b) != recordHeader.charAt(matched)) {
+                    return false;
+                }
+                position++;
+            }
+            matched++;
+        }
+        return matched == length;
+    }
+
+    private static boolean isSpace(byte b) {
+        return b <= ' ' && b >= 0;
+    }
+
+    private static byte lowerCase(byte b) {
+        return b >= 'A' && b <= 'Z' ? (byte) (b + ('a' - 'A')) : b;
+    }
+
+    /**
+     * Decodes an attribute name, or takes it from the cache.
+     *
+     * @param bytes bytes
+     * @param start start of the name
+     * @param end end of the name, exclusive
+     * @return the name, trimmed and in lower case
+     */
+    private String name(byte[] bytes, int start, int end) {
+        while (start < end && isSpace(bytes[start])) {
+            start++;
+        }
+        while (end > start && isSpace(bytes[end - 1])) {
+            end--;
+        }
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + lowerCase(bytes[i]);
+        }
+        final int slot = (hash ^ (hash >>> 16)) & (NAME_CACHE_SIZE - 1);
+        final byte[] cached = nameBytes[slot];
+        if (cached != null && cached.length == end - start) {
+            int i = 0;
+            while (i < cached.length && cached[i] == lowerCase(bytes[start + i])) {
+                i++;
+            }
+            if (i == cached.length) {
+                return names[slot];
+            }
+        }
+        final String name = decode(bytes, start, end, true);
+        final byte[] key = new byte[end - start];
+        for (int i = 0; i < key.length; i++) {
+            key[i] = lowerCase(bytes[start + i]);
+        }
+        nameBytes[slot] = key;
+        names[slot] = name;
+        return name;
+    }
+
+    /**
+     * Decodes an attribute value passed to an {@link AttributeHandler}.
+     *
+     * @param value buffer holding the value
+     * @param offset start of the value
+     * @param length length of the value
+     * @return the value as a String
+     */
+    public static String decodeValue(byte[] value, int offset, int length) {
+        return decode(value, offset, offset + length, false);
+    }
+
+    /**
+     * Decodes a trimmed range of bytes.
+     *
+     * @param bytes bytes
+     * @param start start of the range
+     * @param end end of the range, exclusive
+     * @param lowerCase whether to convert ASCII letters to lower case
+     * @return the decoded string
+     */
+    static String decode(byte[] bytes, int start, int end, boolean lowerCase) {
+        while (start < end && isSpace(bytes[start])) {
+            start++;
+        }
+        while (end > start && isSpace(bytes[end - 1])) {
+            end--;
+        }
+        final char[] chars = new char[end - start];
+        for (int i = start; i < end; i++) {
+            final byte b = bytes[i];
+            if (b < 0) {
+                // not ASCII
+                final String decoded = new String(bytes, start, end - start, CHARSET);
+                return lowerCase ? decoded.toLowerCase() : decoded;
+            }
+            chars[i - start] = (char) (lowerCase ? lowerCase(b) : b);
+        }
+        return new String(chars);
+    }
+
+}
@@ -0,0 +1,85 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2012-2015 Bruno P. Kinoshita, BioUno
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tupilabs.pbs.parser;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Finds delimiters in byte buffers eight bytes at a time (SWAR, SIMD within a register).
+ * <p>
+ * Each word is read with {@link ByteBuffer#getLong(int)}, which the JIT compiles to a single load, XORed with the
+ * delimiter repeated in every byte, and tested for a zero byte with an exact (borrow free) bit trick, so the first
+ * match is found without testing the bytes one by one. Ranges shorter than two words are scanned byte by byte.
+ *
+ * @author Bruno P. Kinoshita
+ * @since 0.11
+ */
+final class ByteScanner {
+
+    private static final long ONES = 0x0101010101010101L;
+    private static final long LOW_BITS = 0x7F7F7F7F7F7F7F7FL;
+
+    /**
+     * Ranges shorter than this are scanned byte by byte.
+     */
+    private static final int MIN_WORD_SCAN = 16;
+
+    /**
+     * Hidden constructor of the utility class.
+     */
+    private ByteScanner() {
+    }
+
+    /**
+     * @param bytes buffer
+     * @param from start of the range
+     * @param to end of the range, exclusive
+     * @param b byte to find
+     * @return index of the first occurrence of the byte in the range, or -1
+     */
+    static int indexOf(byte[] bytes, int from, int to, byte b) {
+        int i = from;
+        if (to - from >= MIN_WORD_SCAN) {
+            // little endian (native on x86 and ARM), so the first byte in memory is the least significant one
+            final ByteBuffer words = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+            final long pattern = ONES * (b & 0xFF);
+            for (; i + 8 <= to; i += 8) {
+                final long word = words.getLong(i) ^ pattern;
+                // high bit set exactly in the bytes that are zero, i.e. equal to b
+                final long found = ~(((word & LOW_BITS) + LOW_BITS) | word | LOW_BITS);
+                if (found != 0) {
+                    return i + (Long.numberOfTrailingZeros(found) >>> 3);
+                }
+            }
+        }
+        for (; i < to; i++) {
+            if (bytes[i] == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+}
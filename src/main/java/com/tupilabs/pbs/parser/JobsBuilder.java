@@ -0,0 +1,67 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2012-2015 Bruno P. Kinoshita, BioUno
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tupilabs.pbs.parser;
+
+import java.util.LinkedList;
+import java.util.List;
+
+import com.tupilabs.pbs.model.Job;
+
+/**
+ * {@link AttributeHandler} building the jobs of the qstat output, with {@link JobFieldMapper}.
+ *
+ * @author Bruno P. Kinoshita
+ * @since 0.11
+ */
+final class JobsBuilder implements AttributeHandler {
+
+    private final List<Job> jobs = new LinkedList<Job>();
+
+    private Job job;
+
+    @Override
+    public void startRecord(String id) {
+        job = new Job();
+        job.setId(id);
+    }
+
+    @Override
+    public void attribute(String name, byte[] value, int offset, int length) {
+        JobFieldMapper.map(job, name, AttributeTokenizer.decodeValue(value, offset, length));
+    }
+
+    @Override
+    public void endRecord() {
+        jobs.add(job);
+        job = null;
+    }
+
+    /**
+     * @return the jobs built
+     */
+    List<Job> getJobs() {
+        return jobs;
+    }
+
+}
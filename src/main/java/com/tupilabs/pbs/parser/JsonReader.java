@@ -0,0 +1,397 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2012-2015 Bruno P. Kinoshita, BioUno
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tupilabs.pbs.parser;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A small pull tokenizer for the JSON printed by OpenPBS and PBS Professional commands with <code>-F json</code>.
+ * <p>
+ * It reads from a {@link Reader} with its own buffer, keeps only the current token, and tracks whether a string is
+ * an object member name or a value. Commas and colons are treated as separators, and not validated. Numbers and
+ * booleans are returned as their literal text.
+ *
+ * @author Bruno P. Kinoshita
+ * @since 0.11
+ */
+final class JsonReader {
+
+    /**
+     * JSON tokens.
+     */
+    enum Token {
+        BEGIN_OBJECT, END_OBJECT, BEGIN_ARRAY, END_ARRAY, NAME, STRING, NUMBER, BOOLEAN, NULL, END_DOCUMENT
+    }
+
+    private final Reader in;
+    private final char[] buffer = new char[8192];
+    private int position = 0;
+    private int limit = 0;
+
+    /**
+     * Open containers, <code>true</code> for objects.
+     */
+    private boolean[] stack = new boolean[32];
+    private int depth = 0;
+    private boolean expectName = false;
+
+    private Token peeked;
+    private String value;
+    private final StringBuilder text = new StringBuilder();
+
+    /**
+     * @param in JSON input, closed by the caller
+     */
+    JsonReader(Reader in) {
+        this.in = in;
+    }
+
+    /**
+     * @return the next token, without consuming it
+     * @throws ParseException if the input cannot be read or is not JSON
+     */
+    Token peek() throws ParseException {
+        if (peeked == null) {
+            peeked = read();
+        }
+        return peeked;
+    }
+
+    /**
+     * Consumes the next token. For names and scalar values, the text is available from {@link #getValue()}.
+     *
+     * @return the next token
+     * @throws ParseException if the input cannot be read or is not JSON
+     */
+    Token next() throws ParseException {
+        final Token token = peek();
+        peeked = null;
+        switch (token) {
+        case BEGIN_OBJECT:
+            push(true);
+            expectName = true;
+            break;
+        case BEGIN_ARRAY:
+            push(false);
+            expectName = false;
+            break;
+        case END_OBJECT:
+        case END_ARRAY:
+            if (depth == 0) {
+                throw new ParseException("Unbalanced JSON " + token);
+            }
+            depth--;
+            expectName = depth > 0 && stack[depth - 1];
+            break;
+        case NAME:
+            expectName = false;
+            break;
+        case END_DOCUMENT:
+            break;
+        default:
+            expectName = depth > 0 && stack[depth - 1];
+            break;
+        }
+        return token;
+    }
+
+    /**
+     * @return the text of the last name or scalar value consumed; <code>null</code> for a JSON null
+     */
+    String getValue() {
+        return value;
+    }
+
+    /**
+     * Consumes the next token, which must be a name.
+     *
+     * @return the name
+     * @throws ParseException if the next token is not a name
+     */
+    String nextName() throws ParseException {
+        expect(Token.NAME);
+        return value;
+    }
+
+    /**
+     * Consumes the next token, which must be the given one.
+     *
+     * @param expected expected token
+     * @throws ParseException if the next token is a different one
+     */
+    void expect(Token expected) throws ParseException {
+        final Token token = next();
+        if (token != expected) {
+            throw new ParseException("Expected JSON " + expected + " but found " + token);
+        }
+    }
+
+    /**
+     * Skips the next value, including any nested object or array.
+     *
+     * @throws ParseException if the input cannot be read or is not JSON
+     */
+    void skipValue() throws ParseException {
+        int level = 0;
+        do {
+            final Token token = next();
+            if (token == Token.BEGIN_OBJECT || token == Token.BEGIN_ARRAY) {
+                level++;
+            } else if (token == Token.END_OBJECT || token == Token.END_ARRAY) {
+                level--;
+            } else if (token == Token.END_DOCUMENT) {
+                throw new ParseException("Unexpected end of JSON document");
+            }
+        } while (level > 0);
+    }
+
+    /**
+     * Reads the top level object of a PBS JSON document up to the given member, which must be an object, and enters
+     * it. Its entries can then be read with {@link #nextName()} and {@link #nextAttributes()} while
+     * {@link #peek()} returns {@link Token#NAME}.
+     *
+     * @param member member name, e.g. <code>Jobs</code>
+     * @return <code>false</code> if the document is empty or has no such member
+     * @throws ParseException if the input cannot be read or is not JSON
+     */
+    boolean beginEntries(String member) throws ParseException {
+        if (peek() == Token.END_DOCUMENT) {
+            return false;
+        }
+        expect(Token.BEGIN_OBJECT);
+        while (peek() == Token.NAME) {
+            if (member.equals(nextName())) {
+                expect(Token.BEGIN_OBJECT);
+                return true;
+            }
+            skipValue();
+        }
+        return false;
+    }
+
+    /**
+     * Reads an object of attributes. Nested objects are flattened to <code>parent.child</code> names, as qstat -f
+     * prints them, and arrays are joined with commas. Names keep their case.
+     *
+     * @return attribute values by name, in document order
+     * @throws ParseException if the next value is not an object
+     */
+    Map<String, String> nextAttributes() throws ParseException {
+        final Map<String, String> attributes = new LinkedHashMap<String, String>();
+        expect(Token.BEGIN_OBJECT);
+        readAttributes("", attributes);
+        return attributes;
+    }
+
+    private void readAttributes(String prefix, Map<String, String> attributes) throws ParseException {
+        while (peek() == Token.NAME) {
+            final String name = prefix + nextName();
+            final Token token = next();
+            if (token == Token.BEGIN_OBJECT) {
+                readAttributes(name + ".", attributes);
+            } else if (token == Token.BEGIN_ARRAY) {
+                final StringBuilder joined = new StringBuilder();
+                while (peek() != Token.END_ARRAY) {
+                    if (peek() == Token.BEGIN_OBJECT || peek() == Token.BEGIN_ARRAY) {
+                        skipValue();
+                        continue;
+                    }
+                    next();
+                    if (joined.length() > 0) {
+                        joined.append(',');
+                    }
+                    joined.append(value);
+                }
+                next();
+                attributes.put(name, joined.toString());
+            } else if (token == Token.END_DOCUMENT) {
+                throw new ParseException("Unexpected end of JSON document");
+            } else {
+                attributes.put(name, value);
+            }
+        }
+        expect(Token.END_OBJECT);
+    }
+
+    private void push(boolean object) {
+        if (depth == stack.length) {
+            final boolean[] grown = new boolean[depth * 2];
+            System.arraycopy(stack, 0, grown, 0, depth);
+            stack = grown;
+        }
+        stack[depth++] = object;
+    }
+
+    private Token read() throws ParseException {
+        int c = nextSignificant();
+        switch (c) {
+        case -1:
+            return Token.END_DOCUMENT;
+        case '{':
+            return Token.BEGIN_OBJECT;
+        case '}':
+            return Token.END_OBJECT;
+        case '[':
+            return Token.BEGIN_ARRAY;
+        case ']':
+            return Token.END_ARRAY;
+        case '"':
+            value = readString();
+            return expectName ? Token.NAME : Token.STRING;
+        default:
+            break;
+        }
+        text.setLength(0);
+        while (c != -1 && !isDelimiter(c)) {
+            text.append((char) c);
+            position++;
+            c = peekChar();
+        }
+        value = text.toString();
+        if ("true".equals(value) || "false".equals(value)) {
+            return Token.BOOLEAN;
+        }
+        if ("null".equals(value)) {
+            value = null;
+            return Token.NULL;
+        }
+        final char first = value.charAt(0);
+        if (first == '-' || (first >= '0' && first <= '9')) {
+            return Token.NUMBER;
+        }
+        throw new ParseException("Unexpected JSON literal: " + value);
+    }
+
+    /**
+     * Skips white space and separators, and consumes the first character of the next token, unless it starts a
+     * literal.
+     */
+    private int nextSignificant() throws ParseException {
+        while (true) {
+            final int c = peekChar();
+            if (c == -1) {
+                return -1;
+            }
+            if (c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == ',' || c == ':') {
+                position++;
+                continue;
+            }
+            if (c == '{' || c == '}' || c == '[' || c == ']' || c == '"') {
+                position++;
+            }
+            return c;
+        }
+    }
+
+    private static boolean isDelimiter(int c) {
+        return c == ',' || c == ':' || c == '}' || c == ']' || c == ' ' || c == '\t' || c == '\n' || c == '\r';
+    }
+
+    private String readString() throws ParseException {
+        text.setLength(0);
+        while (true) {
+            // copy runs without escapes in bulk
+            int start = position;
+            while (position < limit) {
+                final char c = buffer[position];
+                if (c == '"' || c == '\\') {
+                    break;
+                }
+                position++;
+            }
+            text.append(buffer, start, position - start);
+            final int c = peekChar();
+            if (c == -1) {
+                throw new ParseException("Unterminated JSON string");
+            }
+            if (c == '"' && position < limit) {
+                position++;
+                return text.toString();
+            }
+            if (c == '\\') {
+                position++;
+                text.append(readEscape());
+            }
+        }
+    }
+
+    private char readEscape() throws ParseException {
+        final int c = readChar();
+        switch (c) {
+        case 'n':
+            return '\n';
+        case 't':
+            return '\t';
+        case 'r':
+            return '\r';
+        case 'b':
+            return '\b';
+        case 'f':
+            return '\f';
+        case 'u':
+            int code = 0;
+            for (int i = 0; i < 4; i++) {
+                final int digit = Character.digit(readChar(), 16);
+                if (digit < 0) {
+                    throw new ParseException("Invalid JSON unicode escape");
+                }
+                code = code * 16 + digit;
+            }
+            return (char) code;
+        case -1:
+            throw new ParseException("Unterminated JSON string");
+        default:
+            // \" \\ \/
+            return (char) c;
+        }
+    }
+
+    private int readChar() throws ParseException {
+        final int c = peekChar();
+        if (c != -1) {
+            position++;
+        }
+        return c;
+    }
+
+    private int peekChar() throws ParseException {
+        if (position == limit) {
+            try {
+                limit = in.read(buffer, 0, buffer.length);
+            } catch (IOException e) {
+                throw new ParseException(e);
+            }
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position];
+    }
+
+}
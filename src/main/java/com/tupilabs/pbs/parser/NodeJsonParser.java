@@ -0,0 +1,152 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2012-2015 Bruno P. Kinoshita, BioUno
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tupilabs.pbs.parser;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UnsupportedEncodingException;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang.StringUtils;
+
+import com.tupilabs.pbs.model.Node;
+import com.tupilabs.pbs.model.PropertyDictionary;
+import com.tupilabs.pbs.util.Utils;
+
+/**
+ * Streaming parser for the OpenPBS and PBS Professional pbsnodes -av -F json output.
+ * <p>
+ * The node attributes are translated to the Torque equivalents used by {@link Node}: <code>np</code> is
+ * <code>resources_available.ncpus</code>, the <code>jobs</code> entries (<code>job_id/core</code>) are turned into
+ * <code>core/job_id</code>, and the status holds <code>ncpus</code>, <code>physmem</code> and <code>availmem</code>
+ * (available minus assigned memory). The <code>job-busy</code> and <code>resv-exclusive</code> states map to
+ * <code>job-exclusive</code> and <code>reserve</code>.
+ *
+ * @author Bruno P. Kinoshita
+ * @since 0.11
+ */
+public class NodeJsonParser implements Parser<InputStream, List<Node>> {
+
+    /*
+     * (non-Javadoc)
+     * @see com.tupilabs.pbs.parser.Parser#parse(java.lang.Object)
+     */
+    @Override
+    public List<Node> parse(InputStream json) throws ParseException {
+        try {
+            return parse(new InputStreamReader(json, "UTF-8"));
+        } catch (UnsupportedEncodingException e) {
+            throw new ParseException(e);
+        }
+    }
+
+    /**
+     * Parses the pbsnodes JSON from a reader.
+     *
+     * @param json pbsnodes -av -F json output
+     * @return list of nodes
+     * @throws ParseException if the JSON cannot be parsed
+     */
+    public List<Node> parse(Reader json) throws ParseException {
+        final List<Node> nodes = new LinkedList<Node>();
+        final Map<String, String> internedJobIds = new HashMap<String, String>();
+        final PropertyDictionary dictionary = new PropertyDictionary();
+        final JsonReader reader = new JsonReader(json);
+        if (!reader.beginEntries("nodes")) {
+            return nodes;
+        }
+        while (reader.peek() == JsonReader.Token.NAME) {
+            final String name = reader.nextName();
+            final Map<String, String> attributes = reader.nextAttributes();
+            String ncpus = attributes.get("resources_available.ncpus");
+            if (ncpus == null) {
+                ncpus = attributes.get("pcpus");
+            }
+            final int np;
+            try {
+                np = ncpus == null ? 0 : Integer.parseInt(ncpus);
+            } catch (NumberFormatException nfe) {
+                throw new ParseException("Invalid ncpus value for node " + name + ": " + ncpus);
+            }
+            final String state = translateState(attributes.get("state"));
+            nodes.add(NodeXmlHandler.createNode(name, np, attributes.get("ntype"), state, null,
+                    status(np, state, attributes), jobs(attributes.get("jobs")), internedJobIds, dictionary));
+        }
+        return nodes;
+    }
+
+    private static String translateState(String state) {
+        if (state == null) {
+            return null;
+        }
+        return StringUtils.replace(StringUtils.replace(state, "job-busy", "job-exclusive"), "resv-exclusive",
+                "reserve");
+    }
+
+    private static String status(int np, String state, Map<String, String> attributes) {
+        final StringBuilder status = new StringBuilder();
+        status.append("ncpus=").append(np);
+        final String memory = attributes.get("resources_available.mem");
+        if (memory != null) {
+            status.append(",physmem=").append(memory);
+            final long available = Utils.parseSize(memory);
+            final long assigned = Utils.parseSize(attributes.get("resources_assigned.mem"));
+            if (available >= 0) {
+                status.append(",availmem=").append((available - Math.max(0L, assigned)) / 1024L).append("kb");
+            }
+        }
+        if (state != null) {
+            status.append(",state=").append(StringUtils.replace(state, ",", " "));
+        }
+        return status.toString();
+    }
+
+    /**
+     * @param jobs comma separated <code>job_id/core</code> entries
+     * @return comma separated <code>core/job_id</code> entries, or <code>null</code>
+     */
+    private static String jobs(String jobs) {
+        if (StringUtils.isBlank(jobs)) {
+            return null;
+        }
+        final StringBuilder converted = new StringBuilder(jobs.length());
+        for (final String entry : StringUtils.split(jobs, ',')) {
+            final String trimmed = entry.trim();
+            final int slash = trimmed.lastIndexOf('/');
+            if (slash < 0) {
+                continue;
+            }
+            if (converted.length() > 0) {
+                converted.append(',');
+            }
+            converted.append(trimmed, slash + 1, trimmed.length()).append('/').append(trimmed, 0, slash);
+        }
+        return converted.length() == 0 ? null : converted.toString();
+    }
+
+}
@@ -23,16 +23,20 @@
  */
 package com.tupilabs.pbs.parser;
 
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
-import org.apache.commons.lang.StringUtils;
 import org.xml.sax.Attributes;
 import org.xml.sax.SAXException;
 import org.xml.sax.helpers.DefaultHandler;
 
-import com.tupilabs.pbs.model.Job;
 import com.tupilabs.pbs.model.Node;
+import com.tupilabs.pbs.model.NodeOccupancy;
+import com.tupilabs.pbs.model.NodeStatus;
+import com.tupilabs.pbs.model.PropertyDictionary;
+import com.tupilabs.pbs.model.PropertySet;
 import com.tupilabs.pbs.model.QueueState;
 
 /**
@@ -64,19 +68,25 @@ public class NodeXmlHandler extends DefaultHandler {
 
     private String jobs;
 
-    private boolean isName = false;
-
-    private boolean isState = false;
-
-    private boolean isNp = false;
-
-    private boolean isProperties = false;
+    /**
+     * Job ids seen in the document, so that nodes running the same job share one String.
+     */
+    private Map<String, String> internedJobIds;
 
-    private boolean isNtype = false;
+    /**
+     * Properties seen in the document.
+     */
+    private PropertyDictionary dictionary;
 
-    private boolean isStatus = false;
+    /**
+     * Name of the node element whose text is being collected, or <code>null</code>.
+     */
+    private String element;
 
-    private boolean isJobs = false;
+    /**
+     * Text of the current element. SAX may deliver it in several {@link #characters(char[], int, int)} calls.
+     */
+    private final StringBuilder text = new StringBuilder();
 
     /*
      * (non-Javadoc)
@@ -85,6 +95,8 @@ public class NodeXmlHandler extends DefaultHandler {
     @Override
     public void startDocument() throws SAXException {
         nodes = new LinkedList<Node>();
+        internedJobIds = new HashMap<String, String>();
+        dictionary = new PropertyDictionary();
     }
 
     /*
@@ -94,20 +106,20 @@ public class NodeXmlHandler extends DefaultHandler {
      */
     @Override
     public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
-        if ("name".equals(qName)) {
-            isName = true;
-        } else if ("state".equals(qName)) {
-            isState = true;
-        } else if ("np".equals(qName)) {
-            isNp = true;
-        } else if ("properties".equals(qName)) {
-            isProperties = true;
-        } else if ("ntype".equals(qName)) {
-            isNtype = true;
-        } else if ("status".equals(qName)) {
-            isStatus = true;
-        } else if ("jobs".equals(qName)) {
-            isJobs = true;
+        if ("Node".equals(qName)) {
+            this.name = null;
+            this.state = null;
+            this.np = 0;
+            this.properties = null;
+            this.ntype = null;
+            this.status = null;
+            this.jobs = null;
+            this.element = null;
+        } else if ("name".equals(qName) || "state".equals(qName) || "np".equals(qName)
+                || "properties".equals(qName) || "ntype".equals(qName) || "status".equals(qName)
+                || "jobs".equals(qName)) {
+            this.element = qName;
+            this.text.setLength(0);
         }
     }
 
@@ -117,28 +129,8 @@ public class NodeXmlHandler extends DefaultHandler {
      */
     @Override
     public void characters(char[] ch, int start, int length) throws SAXException {
-        String text = new String(ch, start, length);
-        if (this.isName) {
-            this.name = text;
-            this.isName = false;
-        } else if (this.isState) {
-            this.state = text;
-            this.isState = false;
-        } else if (this.isNp) {
-            this.np = Integer.parseInt(text);
-            this.isNp = false;
-        } else if (this.isProperties) {
-            this.properties = text;
-            this.isProperties = false;
-        } else if (this.isNtype) {
-            this.ntype = text;
-            this.isNtype = false;
-        } else if (this.isStatus) {
-            this.status = text;
-            this.isStatus = false;
-        } else if (this.isJobs) {
-            jobs = text;
-            this.isJobs = false;
+        if (this.element != null) {
+            this.text.append(ch, start, length);
         }
     }
 
@@ -149,43 +141,54 @@ public class NodeXmlHandler extends DefaultHandler {
     @Override
     public void endElement(String uri, String localName, String qName) throws SAXException {
         if ("Node".equals(qName)) {
-            node = new Node(this.name, this.np, this.ntype, QueueState.fromString(this.state));
-            if (StringUtils.isNotBlank(properties)) {
-                final String[] props = properties.split(",");
-                for (final String prop : props) {
-                    node.getProperties().add(prop);
-                }
-            }
-            if (StringUtils.isNotBlank(status)) {
-                final String[] statuses = status.split(",");
-                for (final String statuss : statuses) {
-                    if (statuss.indexOf('=') > 0) {
-                        String[] temp = statuss.split("=");
-                        if (temp.length == 2)
-                            node.getStatus().put(temp[0].trim(), temp[1].trim());
-                    }
-                }
-            }
-            if (StringUtils.isNotBlank(jobs)) {
-                final String[] jobses = jobs.split(",");
-                for (String jobss : jobses) {
-                    if (jobss.indexOf('/') > 0) {
-                        String[] temp = jobss.split("/");
-                        if (temp.length == 2) {
-                            int index = Integer.parseInt(temp[0].trim());
-                            String name = temp[1];
-                            Job job = new Job();
-                            job.setQueueIndex(index);
-                            job.setName(name);
-                            node.getJobs().add(job);
-                        }
-                    }
+            node = createNode(this.name, this.np, this.ntype, this.state, this.properties, this.status, this.jobs,
+                    this.internedJobIds, this.dictionary);
+            this.nodes.add(node);
+        } else if (qName.equals(this.element)) {
+            final String value = this.text.toString();
+            if ("name".equals(qName)) {
+                this.name = value;
+            } else if ("state".equals(qName)) {
+                this.state = value;
+            } else if ("np".equals(qName)) {
+                try {
+                    this.np = Integer.parseInt(value.trim());
+                } catch (NumberFormatException nfe) {
+                    throw new SAXException("Invalid np value for node " + this.name + ": " + value, nfe);
                 }
+            } else if ("properties".equals(qName)) {
+                this.properties = value;
+            } else if ("ntype".equals(qName)) {
+                this.ntype = value;
+            } else if ("status".equals(qName)) {
+                this.status = value;
+            } else if ("jobs".equals(qName)) {
+                this.jobs = value;
             }
-            this.nodes.add(node);
+            this.element = null;
         }
     }
 
+    /**
+     * Creates a node from the text of its qnodes XML elements. Shared by the SAX and StAX node parsers.
+     *
+     * @param name node name
+     * @param np number of processors
+     * @param ntype node type
+     * @param state node state, possibly compound
+     * @param properties comma separated properties
+     * @param status comma separated status entries
+     * @param jobs comma separated <code>index/job_id</code> entries
+     * @param internedJobIds job ids seen so far in the same document
+     * @param dictionary property dictionary of the document
+     * @return node
+     */
+    static Node createNode(String name, int np, String ntype, String state, String properties, String status,
+            String jobs, Map<String, String> internedJobIds, PropertyDictionary dictionary) {
+        return new Node(name, np, ntype, QueueState.fromMask(QueueState.parseMask(state)), new NodeStatus(status),
+                NodeOccupancy.parse(jobs, internedJobIds), PropertySet.parse(properties, dictionary));
+    }
+
     /**
      * @return the nodes
      */
@@ -24,38 +24,63 @@
 package com.tupilabs.pbs.parser;
 
 import java.io.IOException;
-import java.nio.charset.Charset;
+import java.io.InputStream;
+import java.io.StringReader;
 import java.util.List;
 
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.parsers.SAXParser;
 import javax.xml.parsers.SAXParserFactory;
 
-import org.apache.commons.io.input.CharSequenceInputStream;
+import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 
 import com.tupilabs.pbs.model.Node;
 
 /**
  * XML SAX parser for nodes.
+ * <p>
+ * The parser factory is looked up once, and each thread reuses its own {@link SAXParser}.
  *
  * @author Bruno P. Kinoshita
  * @since 0.1
  */
 public class NodeXmlParser implements Parser<String, List<Node>> {
 
+    private static final SAXParserFactory FACTORY = SAXParserFactory.newInstance();
+
+    private static final ThreadLocal<SAXParser> PARSERS = new ThreadLocal<SAXParser>();
+
     /*
      * (non-Javadoc)
      * @see com.tupilabs.pbs.parser.Parser#parse(java.lang.Object)
      */
     @Override
     public List<Node> parse(String xml) throws ParseException {
+        return parse(new InputSource(new StringReader(xml)));
+    }
+
+    /**
+     * Parses the qnodes XML from a stream.
+     *
+     * @param xml qnodes -x output
+     * @return list of nodes
+     * @throws ParseException if the XML cannot be parsed
+     * @since 0.11
+     */
+    public List<Node> parse(InputStream xml) throws ParseException {
+        return parse(new InputSource(xml));
+    }
+
+    private List<Node> parse(InputSource source) throws ParseException {
         try {
-            final SAXParserFactory factory = SAXParserFactory.newInstance();
-            final SAXParser saxParser = factory.newSAXParser();
+            final SAXParser saxParser = getParser();
             final NodeXmlHandler handler = new NodeXmlHandler();
-
-            saxParser.parse(new CharSequenceInputStream(xml, Charset.defaultCharset()), handler);
+            try {
+                saxParser.parse(source, handler);
+            } finally {
+                saxParser.reset();
+            }
 
             return handler.getNodes();
         } catch (IOException ioe) {
@@ -67,4 +92,15 @@ public class NodeXmlParser implements Parser<String, List<Node>> {
         }
     }
 
+    private static SAXParser getParser() throws ParserConfigurationException, SAXException {
+        SAXParser parser = PARSERS.get();
+        if (parser == null) {
+            synchronized (FACTORY) {
+                parser = FACTORY.newSAXParser();
+            }
+            PARSERS.set(parser);
+        }
+        return parser;
+    }
+
 }
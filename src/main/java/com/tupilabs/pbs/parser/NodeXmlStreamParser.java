@@ -0,0 +1,173 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2012-2015 Bruno P. Kinoshita, BioUno
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tupilabs.pbs.parser;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import com.tupilabs.pbs.model.Node;
+import com.tupilabs.pbs.model.PropertyDictionary;
+
+/**
+ * Streaming (StAX) parser for the qnodes -x XML output.
+ * <p>
+ * Unlike {@link NodeXmlParser}, it reads the XML directly from a stream, such as the output of the qnodes process,
+ * without buffering the whole document in a String first. The {@link XMLInputFactory} is created once and shared, as
+ * it is thread-safe once configured.
+ *
+ * @author Bruno P. Kinoshita
+ * @since 0.11
+ */
+public class NodeXmlStreamParser implements Parser<InputStream, List<Node>> {
+
+    private static final XMLInputFactory FACTORY;
+
+    static {
+        FACTORY = XMLInputFactory.newInstance();
+        FACTORY.setProperty(XMLInputFactory.IS_COALESCING, Boolean.TRUE);
+        FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+        FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see com.tupilabs.pbs.parser.Parser#parse(java.lang.Object)
+     */
+    @Override
+    public List<Node> parse(InputStream xml) throws ParseException {
+        try {
+            return parse(FACTORY.createXMLStreamReader(xml));
+        } catch (XMLStreamException e) {
+            throw new ParseException(e);
+        }
+    }
+
+    /**
+     * Parses the qnodes XML from a reader.
+     *
+     * @param xml qnodes -x output
+     * @return list of nodes
+     * @throws ParseException if the XML cannot be parsed
+     */
+    public List<Node> parse(Reader xml) throws ParseException {
+        try {
+            return parse(FACTORY.createXMLStreamReader(xml));
+        } catch (XMLStreamException e) {
+            throw new ParseException(e);
+        }
+    }
+
+    private List<Node> parse(XMLStreamReader reader) throws ParseException {
+        final List<Node> nodes = new LinkedList<Node>();
+        final Map<String, String> internedJobIds = new HashMap<String, String>();
+        final PropertyDictionary dictionary = new PropertyDictionary();
+        String name = null;
+        String state = null;
+        int np = 0;
+        String properties = null;
+        String ntype = null;
+        String status = null;
+        String jobs = null;
+        boolean inNode = false;
+        try {
+            while (reader.hasNext()) {
+                final int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    final String element = reader.getLocalName();
+                    if ("Node".equals(element)) {
+                        inNode = true;
+                        name = null;
+                        state = null;
+                        np = 0;
+                        properties = null;
+                        ntype = null;
+                        status = null;
+                        jobs = null;
+                    } else if (!inNode) {
+                        continue;
+                    } else if ("name".equals(element)) {
+                        name = reader.getElementText();
+                    } else if ("state".equals(element)) {
+                        state = reader.getElementText();
+                    } else if ("np".equals(element)) {
+                        final String value = reader.getElementText();
+                        try {
+                            np = Integer.parseInt(value.trim());
+                        } catch (NumberFormatException nfe) {
+                            throw new ParseException("Invalid np value for node " + name + ": " + value);
+                        }
+                    } else if ("properties".equals(element)) {
+                        properties = reader.getElementText();
+                    } else if ("ntype".equals(element)) {
+                        ntype = reader.getElementText();
+                    } else if ("status".equals(element)) {
+                        status = reader.getElementText();
+                    } else if ("jobs".equals(element)) {
+                        jobs = reader.getElementText();
+                    } else {
+                        skipElement(reader);
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT && "Node".equals(reader.getLocalName())) {
+                    nodes.add(NodeXmlHandler.createNode(name, np, ntype, state, properties, status, jobs,
+                            internedJobIds, dictionary));
+                    inNode = false;
+                }
+            }
+            return nodes;
+        } catch (XMLStreamException e) {
+            throw new ParseException(e);
+        } finally {
+            try {
+                reader.close();
+            } catch (XMLStreamException e) {
+                // the underlying stream is owned by the caller
+            }
+        }
+    }
+
+    /**
+     * Skips the current element, including any nested element, leaving the reader at its end tag.
+     */
+    private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0 && reader.hasNext()) {
+            final int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+}
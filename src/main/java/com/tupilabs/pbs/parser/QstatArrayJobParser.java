@@ -0,0 +1,98 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2012-2015 Bruno P. Kinoshita, BioUno
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tupilabs.pbs.parser;
+
+import java.io.InputStream;
+
+import com.tupilabs.pbs.model.ArrayJob;
+import com.tupilabs.pbs.model.Job;
+
+/**
+ * Parser for the qstat -f -t [array_id] text output, folding each subjob into an {@link ArrayJob} as soon as its
+ * record is parsed.
+ * <p>
+ * Unlike {@link QstatJobsByteParser}, no list of jobs is built: only the subjob being parsed is held, and it is
+ * dropped once added to the array job (which keeps the first subjob, and the state and exec host of the others).
+ *
+ * @author Bruno P. Kinoshita
+ * @since 0.11
+ */
+public class QstatArrayJobParser implements Parser<InputStream, ArrayJob> {
+
+    /*
+     * (non-Javadoc)
+     * @see com.tupilabs.pbs.parser.Parser#parse(java.lang.Object)
+     */
+    @Override
+    public ArrayJob parse(InputStream in) throws ParseException {
+        return parse(in, new ArrayJob());
+    }
+
+    /**
+     * Parses the qstat -f -t output into an existing array job.
+     *
+     * @param in qstat -f -t output
+     * @param arrayJob array job the subjobs are added to
+     * @return the array job
+     * @throws ParseException if the output cannot be parsed
+     */
+    public ArrayJob parse(InputStream in, ArrayJob arrayJob) throws ParseException {
+        AttributeTokenizer.forJobs(new ArrayJobBuilder(arrayJob)).parse(in);
+        return arrayJob;
+    }
+
+    /**
+     * {@link AttributeHandler} building one subjob at a time, and adding it to the array job at the end of its
+     * record.
+     */
+    private static final class ArrayJobBuilder implements AttributeHandler {
+
+        private final ArrayJob arrayJob;
+
+        private Job job;
+
+        ArrayJobBuilder(ArrayJob arrayJob) {
+            this.arrayJob = arrayJob;
+        }
+
+        @Override
+        public void startRecord(String id) {
+            job = new Job();
+            job.setId(id);
+        }
+
+        @Override
+        public void attribute(String name, byte[] value, int offset, int length) {
+            JobFieldMapper.map(job, name, AttributeTokenizer.decodeValue(value, offset, length));
+        }
+
+        @Override
+        public void endRecord() {
+            arrayJob.add(job);
+            job = null;
+        }
+
+    }
+
+}
@@ -0,0 +1,71 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2012-2015 Bruno P. Kinoshita, BioUno
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tupilabs.pbs.parser;
+
+import java.io.InputStream;
+import java.util.List;
+
+import com.tupilabs.pbs.model.Job;
+
+/**
+ * Parser for the qstat -f [job_id] text output, reading the raw bytes of the command output.
+ * <p>
+ * It produces the same jobs as {@link QstatJobsParser}, but without decoding the whole output into a String first:
+ * only the attribute names and values are decoded (see {@link AttributeTokenizer}), and the output is read as the
+ * command prints it.
+ *
+ * @author Bruno P. Kinoshita
+ * @since 0.11
+ */
+public class QstatJobsByteParser implements Parser<InputStream, List<Job>> {
+
+    /*
+     * (non-Javadoc)
+     * @see com.tupilabs.pbs.parser.Parser#parse(java.lang.Object)
+     */
+    @Override
+    public List<Job> parse(InputStream in) throws ParseException {
+        final JobsBuilder builder = new JobsBuilder();
+        AttributeTokenizer.forJobs(builder).parse(in);
+        return builder.getJobs();
+    }
+
+    /**
+     * Parses a buffered qstat -f output.
+     *
+     * @param bytes qstat -f output
+     * @param offset start of the output
+     * @param length length of the output
+     * @return list of jobs
+     * @throws ParseException if the output cannot be parsed
+     */
+    public List<Job> parse(byte[] bytes, int offset, int length) throws ParseException {
+        final JobsBuilder builder = new JobsBuilder();
+        final AttributeTokenizer tokenizer = AttributeTokenizer.forJobs(builder);
+        tokenizer.feed(bytes, offset, length);
+        tokenizer.finish();
+        return builder.getJobs();
+    }
+
+}
@@ -0,0 +1,203 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2012-2015 Bruno P. Kinoshita, BioUno
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tupilabs.pbs.parser;
+
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import com.tupilabs.pbs.model.Job;
+import com.tupilabs.pbs.util.XXHash64;
+
+/**
+ * Parser for the qstat -f [job_id] text output, for repeated polling of the same jobs.
+ * <p>
+ * Each job block is fingerprinted with {@link XXHash64} over its attribute names and raw value bytes. When a job has
+ * the same id and fingerprint as in the previous parse, the {@link Job} of the previous parse is returned again,
+ * without decoding its values or mapping its fields. Only new and changed jobs are parsed. Jobs that are no longer
+ * listed are dropped from the cache at each parse.
+ * <p>
+ * As the jobs are shared between parses, callers must not modify them. An instance keeps the jobs of one poller,
+ * and parses are serialized.
+ *
+ * @author Bruno P. Kinoshita
+ * @since 0.11
+ */
+public class QstatJobsIncrementalParser implements Parser<InputStream, List<Job>> {
+
+    private Map<String, Entry> cache = new HashMap<String, Entry>();
+
+    private int reused = 0;
+
+    /*
+     * (non-Javadoc)
+     * @see com.tupilabs.pbs.parser.Parser#parse(java.lang.Object)
+     */
+    @Override
+    public synchronized List<Job> parse(InputStream in) throws ParseException {
+        final FingerprintHandler handler = new FingerprintHandler();
+        AttributeTokenizer.forJobs(handler).parse(in);
+        return handler.finish();
+    }
+
+    /**
+     * Parses a buffered qstat -f output.
+     *
+     * @param bytes qstat -f output
+     * @param offset start of the output
+     * @param length length of the output
+     * @return list of jobs
+     * @throws ParseException if the output cannot be parsed
+     */
+    public synchronized List<Job> parse(byte[] bytes, int offset, int length) throws ParseException {
+        final FingerprintHandler handler = new FingerprintHandler();
+        final AttributeTokenizer tokenizer = AttributeTokenizer.forJobs(handler);
+        tokenizer.feed(bytes, offset, length);
+        tokenizer.finish();
+        return handler.finish();
+    }
+
+    /**
+     * @return the number of jobs reused from the previous parse by the last parse
+     */
+    public synchronized int getReused() {
+        return reused;
+    }
+
+    /**
+     * Drop the cached jobs.
+     */
+    public synchronized void clear() {
+        cache = new HashMap<String, Entry>();
+        reused = 0;
+    }
+
+    /**
+     * A job and the fingerprint of its block.
+     */
+    private static final class Entry {
+
+        private final long fingerprint;
+
+        private final Job job;
+
+        Entry(long fingerprint, Job job) {
+            this.fingerprint = fingerprint;
+            this.job = job;
+        }
+
+    }
+
+    /**
+     * Buffers the attributes of each job block, and only maps them to a new job when its fingerprint changed.
+     */
+    private final class FingerprintHandler implements AttributeHandler {
+
+        private final List<Job> jobs = new LinkedList<Job>();
+
+        private final Map<String, Entry> current = new HashMap<String, Entry>(Math.max(16, cache.size() * 4 / 3));
+
+        private int reusedJobs = 0;
+
+        private String id;
+
+        /**
+         * Values of the current block, one after the other.
+         */
+        private byte[] values = new byte[4096];
+        private int length = 0;
+
+        /**
+         * Names of the current block, and the end of their values.
+         */
+        private String[] names = new String[64];
+        private int[] ends = new int[64];
+        private int count = 0;
+
+        @Override
+        public void startRecord(String id) {
+            this.id = id;
+            length = 0;
+            count = 0;
+        }
+
+        @Override
+        public void attribute(String name, byte[] value, int offset, int length) {
+            if (this.length + length > values.length) {
+                final byte[] grown = new byte[Math.max(values.length * 2, this.length + length)];
+                System.arraycopy(values, 0, grown, 0, this.length);
+                values = grown;
+            }
+            System.arraycopy(value, offset, values, this.length, length);
+            this.length += length;
+            if (count == names.length) {
+                final String[] grownNames = new String[count * 2];
+                System.arraycopy(names, 0, grownNames, 0, count);
+                names = grownNames;
+                final int[] grownEnds = new int[count * 2];
+                System.arraycopy(ends, 0, grownEnds, 0, count);
+                ends = grownEnds;
+            }
+            names[count] = name;
+            ends[count] = this.length;
+            count++;
+        }
+
+        @Override
+        public void endRecord() {
+            // names and value boundaries go into the seed, the value bytes into the hash
+            long seed = count;
+            for (int i = 0; i < count; i++) {
+                seed = 31L * seed + names[i].hashCode();
+                seed = 31L * seed + ends[i];
+            }
+            final long fingerprint = XXHash64.hash(values, 0, length, seed);
+            Entry entry = cache.get(id);
+            if (entry != null && entry.fingerprint == fingerprint) {
+                reusedJobs++;
+            } else {
+                final Job job = new Job();
+                job.setId(id);
+                int start = 0;
+                for (int i = 0; i < count; i++) {
+                    JobFieldMapper.map(job, names[i], AttributeTokenizer.decodeValue(values, start, ends[i] - start));
+                    start = ends[i];
+                }
+                entry = new Entry(fingerprint, job);
+            }
+            current.put(id, entry);
+            jobs.add(entry.job);
+        }
+
+        List<Job> finish() {
+            cache = current;
+            reused = reusedJobs;
+            return jobs;
+        }
+
+    }
+
+}
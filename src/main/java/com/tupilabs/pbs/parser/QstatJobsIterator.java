@@ -0,0 +1,114 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2012-2015 Bruno P. Kinoshita, BioUno
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tupilabs.pbs.parser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import com.tupilabs.pbs.model.Job;
+import com.tupilabs.pbs.util.PBSException;
+
+/**
+ * Iterator parsing the qstat -f [job_id] text output lazily, reading only as much of the output as needed for the
+ * next job.
+ * <p>
+ * A job is complete when the header of the next one, or the end of the output, is read. Read and parse errors are
+ * thrown as {@link PBSException}.
+ *
+ * @author Bruno P. Kinoshita
+ * @since 0.11
+ */
+public class QstatJobsIterator implements Iterator<Job> {
+
+    private final InputStream in;
+
+    private final JobsBuilder builder = new JobsBuilder();
+
+    private final AttributeTokenizer tokenizer = AttributeTokenizer.forJobs(builder);
+
+    private final byte[] buffer = new byte[8192];
+
+    private boolean finished = false;
+
+    /**
+     * @param in qstat -f output
+     */
+    public QstatJobsIterator(InputStream in) {
+        super();
+        this.in = in;
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see java.util.Iterator#hasNext()
+     */
+    @Override
+    public boolean hasNext() {
+        final List<Job> jobs = builder.getJobs();
+        while (jobs.isEmpty() && !finished) {
+            final int read;
+            try {
+                read = in.read(buffer);
+            } catch (IOException e) {
+                throw new PBSException("Failed to read qstat output: " + e.getMessage(), e);
+            }
+            try {
+                if (read < 0) {
+                    finished = true;
+                    tokenizer.finish();
+                } else {
+                    tokenizer.feed(buffer, 0, read);
+                }
+            } catch (ParseException pe) {
+                throw new PBSException("Failed to parse qstat output: " + pe.getMessage(), pe);
+            }
+        }
+        return !jobs.isEmpty();
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see java.util.Iterator#next()
+     */
+    @Override
+    public Job next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return builder.getJobs().remove(0);
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see java.util.Iterator#remove()
+     */
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+}
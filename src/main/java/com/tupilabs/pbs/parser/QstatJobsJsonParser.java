@@ -0,0 +1,102 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2012-2015 Bruno P. Kinoshita, BioUno
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tupilabs.pbs.parser;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UnsupportedEncodingException;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import com.tupilabs.pbs.model.Job;
+
+/**
+ * Streaming parser for the OpenPBS and PBS Professional qstat -f -F json [job_id] output.
+ * <p>
+ * Attributes are mapped onto the jobs the same way as the Torque text output. Nested resources are flattened to the
+ * qstat -f names (<code>resources_used.cput</code>), and the <code>Variable_List</code> object is joined back into
+ * the <code>NAME=value,...</code> form.
+ *
+ * @author Bruno P. Kinoshita
+ * @since 0.11
+ */
+public class QstatJobsJsonParser implements Parser<InputStream, List<Job>> {
+
+    private static final String VARIABLE_LIST = "Variable_List.";
+
+    /*
+     * (non-Javadoc)
+     * @see com.tupilabs.pbs.parser.Parser#parse(java.lang.Object)
+     */
+    @Override
+    public List<Job> parse(InputStream json) throws ParseException {
+        try {
+            return parse(new InputStreamReader(json, "UTF-8"));
+        } catch (UnsupportedEncodingException e) {
+            throw new ParseException(e);
+        }
+    }
+
+    /**
+     * Parses the qstat JSON from a reader.
+     *
+     * @param json qstat -f -F json output
+     * @return list of jobs
+     * @throws ParseException if the JSON cannot be parsed
+     */
+    public List<Job> parse(Reader json) throws ParseException {
+        final List<Job> jobs = new LinkedList<Job>();
+        final JsonReader reader = new JsonReader(json);
+        if (!reader.beginEntries("Jobs")) {
+            return jobs;
+        }
+        while (reader.peek() == JsonReader.Token.NAME) {
+            final Job job = new Job();
+            job.setId(reader.nextName());
+            StringBuilder variables = null;
+            for (final Map.Entry<String, String> attribute : reader.nextAttributes().entrySet()) {
+                final String key = attribute.getKey();
+                if (key.startsWith(VARIABLE_LIST)) {
+                    if (variables == null) {
+                        variables = new StringBuilder();
+                    } else {
+                        variables.append(',');
+                    }
+                    variables.append(key, VARIABLE_LIST.length(), key.length()).append('=')
+                            .append(attribute.getValue());
+                } else {
+                    JobFieldMapper.map(job, key.toLowerCase(), attribute.getValue());
+                }
+            }
+            if (variables != null) {
+                JobFieldMapper.map(job, "variable_list", variables.toString());
+            }
+            jobs.add(job);
+        }
+        return jobs;
+    }
+
+}
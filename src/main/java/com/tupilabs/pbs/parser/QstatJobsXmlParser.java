@@ -0,0 +1,169 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2012-2015 Bruno P. Kinoshita, BioUno
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tupilabs.pbs.parser;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import com.tupilabs.pbs.model.Job;
+
+/**
+ * Streaming (StAX) parser for the qstat -f -x [job_id] XML output.
+ * <p>
+ * The XML has explicit element boundaries, so unlike {@link QstatJobsParser} it needs no repair of tab continued
+ * lines nor line splitting. Nested attributes, such as <code>&lt;resources_used&gt;&lt;cput&gt;</code>, are flattened
+ * to the names used by qstat -f (<code>resources_used.cput</code>), and mapped onto the jobs the same way as the text
+ * output. It also includes completed jobs kept by the server, with their <code>exit_status</code>.
+ *
+ * @author Bruno P. Kinoshita
+ * @since 0.11
+ */
+public class QstatJobsXmlParser implements Parser<InputStream, List<Job>> {
+
+    private static final XMLInputFactory FACTORY;
+
+    static {
+        FACTORY = XMLInputFactory.newInstance();
+        FACTORY.setProperty(XMLInputFactory.IS_COALESCING, Boolean.TRUE);
+        FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+        FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see com.tupilabs.pbs.parser.Parser#parse(java.lang.Object)
+     */
+    @Override
+    public List<Job> parse(InputStream xml) throws ParseException {
+        try {
+            // qstat prints nothing at all when there are no jobs
+            final InputStream in = new BufferedInputStream(xml);
+            in.mark(1);
+            if (in.read() < 0) {
+                return Collections.emptyList();
+            }
+            in.reset();
+            return parse(FACTORY.createXMLStreamReader(in));
+        } catch (IOException e) {
+            throw new ParseException(e);
+        } catch (XMLStreamException e) {
+            throw new ParseException(e);
+        }
+    }
+
+    /**
+     * Parses the qstat XML from a reader.
+     *
+     * @param xml qstat -f -x output
+     * @return list of jobs
+     * @throws ParseException if the XML cannot be parsed
+     */
+    public List<Job> parse(Reader xml) throws ParseException {
+        try {
+            final Reader in = new BufferedReader(xml);
+            in.mark(1);
+            if (in.read() < 0) {
+                return Collections.emptyList();
+            }
+            in.reset();
+            return parse(FACTORY.createXMLStreamReader(in));
+        } catch (IOException e) {
+            throw new ParseException(e);
+        } catch (XMLStreamException e) {
+            throw new ParseException(e);
+        }
+    }
+
+    private List<Job> parse(XMLStreamReader reader) throws ParseException {
+        final List<Job> jobs = new LinkedList<Job>();
+        Job job = null;
+        try {
+            while (reader.hasNext()) {
+                final int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    final String element = reader.getLocalName();
+                    if ("Job".equals(element)) {
+                        job = new Job();
+                    } else if (job == null) {
+                        continue;
+                    } else if ("Job_Id".equals(element)) {
+                        job.setId(reader.getElementText().trim());
+                    } else {
+                        readAttribute(reader, job, element.toLowerCase());
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT && "Job".equals(reader.getLocalName())) {
+                    jobs.add(job);
+                    job = null;
+                }
+            }
+            return jobs;
+        } catch (XMLStreamException e) {
+            throw new ParseException(e);
+        } finally {
+            try {
+                reader.close();
+            } catch (XMLStreamException e) {
+                // the underlying stream is owned by the caller
+            }
+        }
+    }
+
+    /**
+     * Reads a job attribute, leaving the reader at its end tag. Attributes with nested elements are read as one
+     * attribute per nested element, named <code>key.element</code>.
+     */
+    private static void readAttribute(XMLStreamReader reader, Job job, String key) throws XMLStreamException {
+        StringBuilder text = null;
+        boolean nested = false;
+        while (reader.hasNext()) {
+            final int event = reader.next();
+            if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA) {
+                if (text == null) {
+                    text = new StringBuilder();
+                }
+                text.append(reader.getText());
+            } else if (event == XMLStreamConstants.START_ELEMENT) {
+                nested = true;
+                readAttribute(reader, job, key + "." + reader.getLocalName().toLowerCase());
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                break;
+            }
+        }
+        if (!nested) {
+            JobFieldMapper.map(job, key, text == null ? "" : text.toString().trim());
+        }
+    }
+
+}
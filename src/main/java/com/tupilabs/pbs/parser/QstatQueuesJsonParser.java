@@ -0,0 +1,82 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2012-2015 Bruno P. Kinoshita, BioUno
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tupilabs.pbs.parser;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UnsupportedEncodingException;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import com.tupilabs.pbs.model.Queue;
+
+/**
+ * Streaming parser for the OpenPBS and PBS Professional qstat -Q -f -F json [queue_name] output. Attributes are
+ * mapped onto the queues the same way as the Torque text output.
+ *
+ * @author Bruno P. Kinoshita
+ * @since 0.11
+ */
+public class QstatQueuesJsonParser implements Parser<InputStream, List<Queue>> {
+
+    /*
+     * (non-Javadoc)
+     * @see com.tupilabs.pbs.parser.Parser#parse(java.lang.Object)
+     */
+    @Override
+    public List<Queue> parse(InputStream json) throws ParseException {
+        try {
+            return parse(new InputStreamReader(json, "UTF-8"));
+        } catch (UnsupportedEncodingException e) {
+            throw new ParseException(e);
+        }
+    }
+
+    /**
+     * Parses the qstat JSON from a reader.
+     *
+     * @param json qstat -Q -f -F json output
+     * @return list of queues
+     * @throws ParseException if the JSON cannot be parsed
+     */
+    public List<Queue> parse(Reader json) throws ParseException {
+        final List<Queue> queues = new LinkedList<Queue>();
+        final JsonReader reader = new JsonReader(json);
+        if (!reader.beginEntries("Queue")) {
+            return queues;
+        }
+        while (reader.peek() == JsonReader.Token.NAME) {
+            final Queue queue = new Queue();
+            queue.setName(reader.nextName());
+            for (final Map.Entry<String, String> attribute : reader.nextAttributes().entrySet()) {
+                QueueFieldMapper.map(queue, attribute.getKey().toLowerCase(), attribute.getValue());
+            }
+            queues.add(queue);
+        }
+        return queues;
+    }
+
+}
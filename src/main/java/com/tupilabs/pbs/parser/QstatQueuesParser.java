@@ -23,39 +23,25 @@
  */
 package com.tupilabs.pbs.parser;
 
+import java.nio.charset.Charset;
 import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.logging.Level;
-import java.util.logging.Logger;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import org.apache.commons.lang.StringUtils;
 
 import com.tupilabs.pbs.model.Queue;
-import com.tupilabs.pbs.util.Utils;
 
 /**
  * Parser for qstat -Q -f [queue_name] command.
+ * <p>
+ * The output is tokenized by {@link AttributeTokenizer}, as in {@link QstatQueuesByteParser}.
  *
  * @author Bruno P. Kinoshita
  * @since 0.1
  */
 public class QstatQueuesParser implements Parser<String, List<Queue>> {
 
-    private final static Logger LOGGER = Logger.getLogger(QstatQueuesParser.class.getName());
-
-    /*
-     * Regex.
-     */
-    private final static String REGEX_QUEUE = "(?i)queue:(.*)";
-    private final static Pattern PATTERN_QUEUE = Pattern.compile(REGEX_QUEUE);
-
-    /*
-     * Constants.
-     */
-    private final static String CHAR_EQUALS = "=";
+    private static final Charset CHARSET = Charset.defaultCharset();
 
     /*
      * (non-Javadoc)
@@ -63,82 +49,16 @@ public class QstatQueuesParser implements Parser<String, List<Queue>> {
      */
     @Override
     public List<Queue> parse(String text) throws ParseException {
-        final List<Queue> queues;
-        if (StringUtils.isNotBlank(text)) {
-            queues = new LinkedList<Queue>();
-            String separator = "\n";
-            if (text.indexOf("\r\n") > 0) {
-                separator = "\r\n";
-            }
-            final String[] lines = text.split(separator);
-            Queue queue = null;
-            for (final String line : lines) {
-                Matcher matcher = PATTERN_QUEUE.matcher(line);
-                if (matcher.matches()) {
-                    if (queue != null) {
-                        queues.add(queue);
-                    }
-                    queue = new Queue();
-                    final String name = matcher.group(1);
-                    queue.setName(name);
-                } else if (StringUtils.isNotBlank(line)) {
-                    String[] temp = Utils.splitFirst(line, CHAR_EQUALS);
-                    if (temp.length == 2) {
-                        final String key = temp[0].trim().toLowerCase();
-                        final String value = temp[1].trim();
-                        if ("queue_type".equals(key)) {
-                            queue.setQueueType(value);
-                        } else if ("priority".equals(key)) {
-                            try {
-                                queue.setPriority(Integer.parseInt(value));
-                            } catch (NumberFormatException nfe) {
-                                LOGGER.log(Level.WARNING, "Failed parsing queue priority: " + nfe.getMessage(), nfe);
-                                queue.setPriority(-1);
-                            }
-                        } else if ("total_jobs".equals(key)) {
-                            try {
-                                queue.setTotalJobs(Integer.parseInt(value));
-                            } catch (NumberFormatException nfe) {
-                                LOGGER.log(Level.WARNING, "Failed parsing queue total jobs: " + nfe.getMessage(), nfe);
-                                queue.setPriority(-1);
-                            }
-                        } else if ("state_count".equals(key)) {
-                            queue.setStateCount(value);
-                        } else if ("mtime".equals(key)) {
-                            queue.setMtime(value);
-                        } else if ("max_user_run".equals(key)) {
-                            try {
-                                queue.setMaxUserRun(Integer.parseInt(value));
-                            } catch (NumberFormatException nfe) {
-                                LOGGER.log(Level.WARNING, "Failed parsing queue max user run: " + nfe.getMessage(),
-                                        nfe);
-                                queue.setPriority(-1);
-                            }
-                        } else if ("enabled".equals(key)) {
-                            queue.setEnabled(Boolean.parseBoolean(value));
-                        } else if ("started".equals(key)) {
-                            queue.setStarted(Boolean.parseBoolean(value));
-                        } else if (key.startsWith("resources_max.")) {
-                            queue.getResourcesMax().put(key, value);
-                        } else if (key.startsWith("resources_min.")) {
-                            queue.getResourcesMin().put(key, value);
-                        } else if (key.startsWith("resources_assigned.")) {
-                            queue.getResourcesAssigned().put(key, value);
-                        } else if (key.startsWith("resources_default.")) {
-                            queue.getResourcesDefault().put(key, value);
-                        } else {
-                            LOGGER.info("Unmmaped key, value: " + key + ", " + value);
-                        }
-                    }
-                }
-            }
-            if (queue != null) {
-                queues.add(queue);
-            }
-            return queues;
-        } else {
+        if (StringUtils.isBlank(text)) {
             return Collections.emptyList();
         }
+        // the text is encoded back in the charset the tokenizer decodes with
+        final byte[] bytes = text.getBytes(CHARSET);
+        final QueuesBuilder builder = new QueuesBuilder();
+        final AttributeTokenizer tokenizer = AttributeTokenizer.forQueues(builder);
+        tokenizer.feed(bytes, 0, bytes.length);
+        tokenizer.finish();
+        return builder.getQueues();
     }
 
 }
@@ -0,0 +1,297 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2012-2015 Bruno P. Kinoshita, BioUno
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tupilabs.pbs.parser;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.commons.lang.StringUtils;
+
+import com.tupilabs.pbs.model.JobSummary;
+
+/**
+ * Parser for the fixed-width tables of qstat and qstat -a [job_id] commands.
+ * <p>
+ * Column boundaries are taken from the dashes line under the header, and columns are identified by their header, so
+ * both layouts (and their variations across PBS implementations) are supported. Unknown columns are ignored.
+ *
+ * @author Bruno P. Kinoshita
+ * @since 0.11
+ */
+public class QstatSummaryParser implements Parser<String, List<JobSummary>> {
+
+    private final static Logger LOGGER = Logger.getLogger(QstatSummaryParser.class.getName());
+
+    /*
+     * Columns.
+     */
+    private final static int COLUMN_UNKNOWN = -1;
+    private final static int COLUMN_ID = 0;
+    private final static int COLUMN_NAME = 1;
+    private final static int COLUMN_OWNER = 2;
+    private final static int COLUMN_TIME_USE = 3;
+    private final static int COLUMN_STATE = 4;
+    private final static int COLUMN_QUEUE = 5;
+    private final static int COLUMN_SESSION_ID = 6;
+    private final static int COLUMN_NODES = 7;
+    private final static int COLUMN_TASKS = 8;
+    private final static int COLUMN_MEMORY = 9;
+    private final static int COLUMN_REQUESTED_TIME = 10;
+    private final static int COLUMN_ELAPSED_TIME = 11;
+
+    /*
+     * (non-Javadoc)
+     * @see com.tupilabs.pbs.parser.Parser#parse(java.lang.Object)
+     */
+    @Override
+    public List<JobSummary> parse(String text) throws ParseException {
+        if (StringUtils.isBlank(text)) {
+            return Collections.emptyList();
+        }
+        try {
+            return parse(new BufferedReader(new StringReader(text)));
+        } catch (IOException e) {
+            throw new ParseException(e);
+        }
+    }
+
+    /**
+     * Parse the output line by line, so that the whole output is never held in memory.
+     *
+     * @param reader qstat output
+     * @return jobs
+     * @throws ParseException if the output is not a qstat table
+     * @throws IOException if the output can not be read
+     */
+    public List<JobSummary> parse(BufferedReader reader) throws ParseException, IOException {
+        final List<JobSummary> jobs = new ArrayList<JobSummary>();
+        int[] starts = null;
+        int[] widths = null;
+        int[] columns = null;
+        String previous = null;
+        String line = nextLine(reader);
+        while (line != null) {
+            final String next = nextLine(reader);
+            if (isDashes(line)) {
+                if (previous == null) {
+                    throw new ParseException("Missing qstat header before line: " + line);
+                }
+                starts = columnStarts(line);
+                widths = columnWidths(line, starts);
+                columns = columnTypes(previous, starts);
+            } else if (starts != null && (next != null && isDashes(next) || isServer(line))) {
+                // server name or header of the next table
+                starts = null;
+            } else if (starts != null && StringUtils.isNotBlank(line)) {
+                jobs.add(parseRow(line, starts, widths, columns));
+            }
+            previous = line;
+            line = next;
+        }
+        return jobs;
+    }
+
+    /**
+     * @param reader reader
+     * @return the next non empty line, or <code>null</code>
+     * @throws IOException if the output can not be read
+     */
+    private static String nextLine(BufferedReader reader) throws IOException {
+        String line = reader.readLine();
+        while (line != null && line.length() == 0) {
+            line = reader.readLine();
+        }
+        return line;
+    }
+
+    private static boolean isDashes(String line) {
+        boolean dash = false;
+        for (int i = 0; i < line.length(); i++) {
+            final char c = line.charAt(i);
+            if (c == '-') {
+                dash = true;
+            } else if (c != ' ' && c != '\t') {
+                return false;
+            }
+        }
+        return dash;
+    }
+
+    /**
+     * @param line line
+     * @return whether the line is the server name printed by qstat -a before each table, e.g. <code>server:</code>
+     */
+    private static boolean isServer(String line) {
+        final String trimmed = line.trim();
+        return trimmed.endsWith(":") && trimmed.indexOf(' ') < 0;
+    }
+
+    private static int[] columnStarts(String dashes) {
+        final List<Integer> starts = new ArrayList<Integer>();
+        for (int i = 0; i < dashes.length(); i++) {
+            if (dashes.charAt(i) == '-' && (i == 0 || dashes.charAt(i - 1) != '-')) {
+                starts.add(i);
+            }
+        }
+        final int[] result = new int[starts.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = starts.get(i).intValue();
+        }
+        return result;
+    }
+
+    /**
+     * @param dashes dashes line
+     * @param starts column starts
+     * @return the width of each column, i.e. the length of its dashes
+     */
+    private static int[] columnWidths(String dashes, int[] starts) {
+        final int[] widths = new int[starts.length];
+        for (int i = 0; i < starts.length; i++) {
+            int end = starts[i];
+            while (end < dashes.length() && dashes.charAt(end) == '-') {
+                end++;
+            }
+            widths[i] = end - starts[i];
+        }
+        return widths;
+    }
+
+    private static int[] columnTypes(String header, int[] starts) {
+        final int[] columns = new int[starts.length];
+        boolean time = false;
+        for (int i = 0; i < starts.length; i++) {
+            final String name = cell(header, starts, i).toLowerCase();
+            if ("job id".equals(name) || "job_id".equals(name) || "jobid".equals(name)) {
+                columns[i] = COLUMN_ID;
+            } else if ("name".equals(name) || "jobname".equals(name)) {
+                columns[i] = COLUMN_NAME;
+            } else if ("user".equals(name) || "username".equals(name)) {
+                columns[i] = COLUMN_OWNER;
+            } else if ("time use".equals(name)) {
+                columns[i] = COLUMN_TIME_USE;
+            } else if ("s".equals(name)) {
+                columns[i] = COLUMN_STATE;
+            } else if ("queue".equals(name)) {
+                columns[i] = COLUMN_QUEUE;
+            } else if ("sessid".equals(name)) {
+                columns[i] = COLUMN_SESSION_ID;
+            } else if ("nds".equals(name)) {
+                columns[i] = COLUMN_NODES;
+            } else if ("tsk".equals(name)) {
+                columns[i] = COLUMN_TASKS;
+            } else if ("memory".equals(name) || "mem".equals(name)) {
+                columns[i] = COLUMN_MEMORY;
+            } else if ("time".equals(name)) {
+                // qstat -a lists the requested time first, then the elapsed time
+                columns[i] = time ? COLUMN_ELAPSED_TIME : COLUMN_REQUESTED_TIME;
+                time = true;
+            } else {
+                columns[i] = COLUMN_UNKNOWN;
+                if (LOGGER.isLoggable(Level.FINE)) {
+                    LOGGER.fine("Ignoring qstat column: " + name);
+                }
+            }
+        }
+        return columns;
+    }
+
+    private static String cell(String line, int[] starts, int column) {
+        final int start = starts[column];
+        if (start >= line.length()) {
+            return "";
+        }
+        final int end = column + 1 < starts.length ? Math.min(starts[column + 1], line.length()) : line.length();
+        return line.substring(start, end).trim();
+    }
+
+    private static JobSummary parseRow(String line, int[] starts, int[] widths, int[] columns) {
+        final JobSummary job = new JobSummary();
+        for (int i = 0; i < starts.length; i++) {
+            final String value = cell(line, starts, i);
+            switch (columns[i]) {
+            case COLUMN_ID:
+                job.setId(value);
+                // OpenPBS marks truncated ids with a trailing '*', Torque just cuts them to the column width
+                job.setIdTruncated(value.endsWith("*") || value.length() >= widths[i]);
+                break;
+            case COLUMN_NAME:
+                job.setName(value);
+                break;
+            case COLUMN_OWNER:
+                job.setOwner(value);
+                break;
+            case COLUMN_TIME_USE:
+                job.setTimeUse(value);
+                break;
+            case COLUMN_STATE:
+                job.setState(value);
+                break;
+            case COLUMN_QUEUE:
+                job.setQueue(value);
+                break;
+            case COLUMN_SESSION_ID:
+                job.setSessionId(parseNumber(value));
+                break;
+            case COLUMN_NODES:
+                job.setNodes(parseNumber(value));
+                break;
+            case COLUMN_TASKS:
+                job.setTasks(parseNumber(value));
+                break;
+            case COLUMN_MEMORY:
+                job.setRequestedMemory(value);
+                break;
+            case COLUMN_REQUESTED_TIME:
+                job.setRequestedTime(value);
+                break;
+            case COLUMN_ELAPSED_TIME:
+                job.setElapsedTime(value);
+                break;
+            default:
+                break;
+            }
+        }
+        return job;
+    }
+
+    /**
+     * @param value column value, <code>--</code> when not set
+     * @return the number, or -1 if not set
+     */
+    private static int parseNumber(String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException nfe) {
+            return -1;
+        }
+    }
+
+}
@@ -0,0 +1,106 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2012-2015 Bruno P. Kinoshita, BioUno
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tupilabs.pbs.parser;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.tupilabs.pbs.model.Queue;
+import com.tupilabs.pbs.model.ResourceValue;
+
+/**
+ * Maps qstat queue attributes onto {@link Queue} fields. Shared by the parsers of the different qstat queue formats,
+ * so that they populate queues the same way.
+ *
+ * @author Bruno P. Kinoshita
+ * @since 0.11
+ */
+final class QueueFieldMapper {
+
+    private final static Logger LOGGER = Logger.getLogger(QueueFieldMapper.class.getName());
+
+    /**
+     * Hidden constructor of the utility class.
+     */
+    private QueueFieldMapper() {
+    }
+
+    /**
+     * Set a queue attribute. Unknown attributes are ignored, and logged at FINE level.
+     *
+     * @param queue queue
+     * @param key attribute name as listed by qstat -Q -f, in lower case, e.g. <code>queue_type</code> or
+     *            <code>resources_max.walltime</code>
+     * @param value attribute value
+     */
+    static void map(Queue queue, String key, String value) {
+        if ("queue_type".equals(key)) {
+            queue.setQueueType(value);
+        } else if ("priority".equals(key)) {
+            try {
+                queue.setPriority(Integer.parseInt(value));
+            } catch (NumberFormatException nfe) {
+                LOGGER.log(Level.WARNING, "Failed parsing queue priority: " + nfe.getMessage(), nfe);
+                queue.setPriority(-1);
+            }
+        } else if ("total_jobs".equals(key)) {
+            try {
+                queue.setTotalJobs(Integer.parseInt(value));
+            } catch (NumberFormatException nfe) {
+                LOGGER.log(Level.WARNING, "Failed parsing queue total jobs: " + nfe.getMessage(), nfe);
+                queue.setPriority(-1);
+            }
+        } else if ("state_count".equals(key)) {
+            queue.setStateCount(value);
+        } else if ("mtime".equals(key)) {
+            queue.setMtime(value);
+        } else if ("max_user_run".equals(key)) {
+            try {
+                queue.setMaxUserRun(Integer.parseInt(value));
+            } catch (NumberFormatException nfe) {
+                LOGGER.log(Level.WARNING, "Failed parsing queue max user run: " + nfe.getMessage(), nfe);
+                queue.setPriority(-1);
+            }
+        } else if ("enabled".equals(key)) {
+            queue.setEnabled(Boolean.parseBoolean(value));
+        } else if ("started".equals(key)) {
+            queue.setStarted(Boolean.parseBoolean(value));
+        } else if (key.startsWith("resources_max.")) {
+            queue.getResourcesMax().put(key, value);
+            queue.getResourcesMaxValues().put(key, ResourceValue.parse(value));
+        } else if (key.startsWith("resources_min.")) {
+            queue.getResourcesMin().put(key, value);
+            queue.getResourcesMinValues().put(key, ResourceValue.parse(value));
+        } else if (key.startsWith("resources_assigned.")) {
+            queue.getResourcesAssigned().put(key, value);
+            queue.getResourcesAssignedValues().put(key, ResourceValue.parse(value));
+        } else if (key.startsWith("resources_default.")) {
+            queue.getResourcesDefault().put(key, value);
+            queue.getResourcesDefaultValues().put(key, ResourceValue.parse(value));
+        } else if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.fine("Unmapped key, value: " + key + ", " + value);
+        }
+    }
+
+}
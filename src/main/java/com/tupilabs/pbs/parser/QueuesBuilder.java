@@ -0,0 +1,67 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2012-2015 Bruno P. Kinoshita, BioUno
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tupilabs.pbs.parser;
+
+import java.util.LinkedList;
+import java.util.List;
+
+import com.tupilabs.pbs.model.Queue;
+
+/**
+ * {@link AttributeHandler} building the queues of the qstat output, with {@link QueueFieldMapper}.
+ *
+ * @author Bruno P. Kinoshita
+ * @since 0.11
+ */
+final class QueuesBuilder implements AttributeHandler {
+
+    private final List<Queue> queues = new LinkedList<Queue>();
+
+    private Queue queue;
+
+    @Override
+    public void startRecord(String id) {
+        queue = new Queue();
+        queue.setName(id);
+    }
+
+    @Override
+    public void attribute(String name, byte[] value, int offset, int length) {
+        QueueFieldMapper.map(queue, name, AttributeTokenizer.decodeValue(value, offset, length));
+    }
+
+    @Override
+    public void endRecord() {
+        queues.add(queue);
+        queue = null;
+    }
+
+    /**
+     * @return the queues built
+     */
+    List<Queue> getQueues() {
+        return queues;
+    }
+
+}
@@ -0,0 +1,122 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2012-2015 Bruno P. Kinoshita, BioUno
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tupilabs.pbs.util;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Pool of fixed size byte chunks, reused across command executions to buffer their output.
+ * <p>
+ * The chunks are small enough (64 KiB by default) to never be humongous objects for G1. The pool keeps released
+ * chunks up to a maximum number of bytes, and lets the garbage collector take the rest.
+ *
+ * @author Bruno P. Kinoshita
+ * @since 0.11
+ */
+public class BufferPool {
+
+    /**
+     * Default chunk size, in bytes.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+
+    /**
+     * Default maximum number of bytes retained by the pool.
+     */
+    public static final long DEFAULT_MAX_RETAINED = 16L * 1024 * 1024;
+
+    private final int chunkSize;
+
+    private final int maxChunks;
+
+    private final Deque<byte[]> chunks = new ArrayDeque<byte[]>();
+
+    /**
+     * Create a pool with the default chunk size and retained memory cap.
+     */
+    public BufferPool() {
+        this(DEFAULT_CHUNK_SIZE, DEFAULT_MAX_RETAINED);
+    }
+
+    /**
+     * Create a pool.
+     *
+     * @param chunkSize chunk size, in bytes
+     * @param maxRetained maximum number of bytes kept by the pool between uses
+     */
+    public BufferPool(int chunkSize, long maxRetained) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Invalid chunk size: " + chunkSize);
+        }
+        this.chunkSize = chunkSize;
+        this.maxChunks = (int) Math.min(Integer.MAX_VALUE, Math.max(0L, maxRetained) / chunkSize);
+    }
+
+    /**
+     * @return the chunk size, in bytes
+     */
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * @return a chunk, reused if available
+     */
+    public byte[] acquire() {
+        synchronized (chunks) {
+            final byte[] chunk = chunks.pollFirst();
+            if (chunk != null) {
+                return chunk;
+            }
+        }
+        return new byte[chunkSize];
+    }
+
+    /**
+     * Return a chunk to the pool. Chunks over the retained memory cap, or of another size, are dropped.
+     *
+     * @param chunk chunk acquired from this pool
+     */
+    public void release(byte[] chunk) {
+        if (chunk.length != chunkSize) {
+            return;
+        }
+        synchronized (chunks) {
+            if (chunks.size() < maxChunks) {
+                chunks.addFirst(chunk);
+            }
+        }
+    }
+
+    /**
+     * @return the number of bytes currently retained by the pool
+     */
+    public long getRetained() {
+        synchronized (chunks) {
+            return (long) chunks.size() * chunkSize;
+        }
+    }
+
+}
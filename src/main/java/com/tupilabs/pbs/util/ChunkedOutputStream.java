@@ -0,0 +1,201 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2012-2015 Bruno P. Kinoshita, BioUno
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tupilabs.pbs.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Output stream that buffers the output of a command in a chain of chunks from a {@link BufferPool}, instead of a
+ * single array grown by copying.
+ * <p>
+ * The buffered output is read back with {@link #toInputStream()}, which walks the chunks without joining them, or
+ * with {@link #toString()}. Closing the stream returns the chunks to the pool; writes after that fail, so a pump
+ * thread of a command that timed out can not write into chunks that were handed to another stream.
+ *
+ * @author Bruno P. Kinoshita
+ * @since 0.11
+ */
+public class ChunkedOutputStream extends OutputStream {
+
+    private final BufferPool pool;
+
+    private final List<byte[]> chunks = new ArrayList<byte[]>();
+
+    private byte[] current;
+
+    private int position;
+
+    private long size = 0L;
+
+    private boolean released = false;
+
+    /**
+     * @param pool pool providing the chunks
+     */
+    public ChunkedOutputStream(BufferPool pool) {
+        super();
+        this.pool = pool;
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see java.io.OutputStream#write(int)
+     */
+    @Override
+    public synchronized void write(int b) throws IOException {
+        ensureChunk();
+        current[position++] = (byte) b;
+        size++;
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see java.io.OutputStream#write(byte[], int, int)
+     */
+    @Override
+    public synchronized void write(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            ensureChunk();
+            final int count = Math.min(len, current.length - position);
+            System.arraycopy(b, off, current, position, count);
+            position += count;
+            off += count;
+            len -= count;
+            size += count;
+        }
+    }
+
+    private void ensureChunk() throws IOException {
+        if (released) {
+            throw new IOException("Stream closed");
+        }
+        if (current == null || position == current.length) {
+            current = pool.acquire();
+            chunks.add(current);
+            position = 0;
+        }
+    }
+
+    /**
+     * @return the number of bytes written
+     */
+    public synchronized long size() {
+        return size;
+    }
+
+    /**
+     * @return a stream reading the bytes written so far, chunk by chunk
+     */
+    public InputStream toInputStream() {
+        return new ChunksInputStream();
+    }
+
+    /**
+     * Decode the bytes written so far with the platform charset, as {@link java.io.ByteArrayOutputStream} does.
+     *
+     * @return the output as a String
+     */
+    @Override
+    public String toString() {
+        if (size == 0L) {
+            return "";
+        }
+        try {
+            return IOUtils.toString(new InputStreamReader(toInputStream(), Charset.defaultCharset()));
+        } catch (IOException e) {
+            // not thrown when reading from memory
+            throw new PBSException(e);
+        }
+    }
+
+    /**
+     * Return the chunks to the pool.
+     */
+    @Override
+    public synchronized void close() {
+        if (!released) {
+            released = true;
+            for (final byte[] chunk : chunks) {
+                pool.release(chunk);
+            }
+            chunks.clear();
+            current = null;
+        }
+    }
+
+    /**
+     * Reads the chunks in order.
+     */
+    private final class ChunksInputStream extends InputStream {
+
+        private int chunk = 0;
+
+        private int offset = 0;
+
+        private int limit() {
+            return chunk == chunks.size() - 1 ? position : chunks.get(chunk).length;
+        }
+
+        @Override
+        public int read() {
+            while (chunk < chunks.size()) {
+                if (offset < limit()) {
+                    return chunks.get(chunk)[offset++] & 0xFF;
+                }
+                chunk++;
+                offset = 0;
+            }
+            return -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            while (chunk < chunks.size()) {
+                final int available = limit() - offset;
+                if (available > 0) {
+                    final int count = Math.min(len, available);
+                    System.arraycopy(chunks.get(chunk), offset, b, off, count);
+                    offset += count;
+                    return count;
+                }
+                chunk++;
+                offset = 0;
+            }
+            return -1;
+        }
+
+    }
+
+}
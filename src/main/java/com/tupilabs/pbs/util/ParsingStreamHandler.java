@@ -0,0 +1,151 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2012-2015 Bruno P. Kinoshita, BioUno
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tupilabs.pbs.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.apache.commons.exec.ExecuteStreamHandler;
+import org.apache.commons.exec.StreamPumper;
+
+import com.tupilabs.pbs.parser.ParseException;
+import com.tupilabs.pbs.parser.Parser;
+
+/**
+ * Stream handler that parses the standard output of a process while it runs, instead of buffering it first.
+ * <p>
+ * The parser consumes the process output in {@link #start()}, which the executor calls before waiting for the
+ * process. The error stream is pumped to the given output stream in a separate thread.
+ *
+ * @author Bruno P. Kinoshita
+ * @since 0.11
+ * @param <T> parse result type
+ */
+public class ParsingStreamHandler<T> implements ExecuteStreamHandler {
+
+    private final Parser<InputStream, T> parser;
+
+    private final OutputStream err;
+
+    private InputStream processOutput;
+
+    private InputStream processError;
+
+    private Thread errorThread;
+
+    private volatile T result;
+
+    private volatile Exception failure;
+
+    /**
+     * @param parser parser for the process standard output
+     * @param err stream receiving the process error output
+     */
+    public ParsingStreamHandler(Parser<InputStream, T> parser, OutputStream err) {
+        super();
+        this.parser = parser;
+        this.err = err;
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see org.apache.commons.exec.ExecuteStreamHandler#setProcessInputStream(java.io.OutputStream)
+     */
+    @Override
+    public void setProcessInputStream(OutputStream os) throws IOException {
+        os.close();
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see org.apache.commons.exec.ExecuteStreamHandler#setProcessErrorStream(java.io.InputStream)
+     */
+    @Override
+    public void setProcessErrorStream(InputStream is) throws IOException {
+        this.processError = is;
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see org.apache.commons.exec.ExecuteStreamHandler#setProcessOutputStream(java.io.InputStream)
+     */
+    @Override
+    public void setProcessOutputStream(InputStream is) throws IOException {
+        this.processOutput = is;
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see org.apache.commons.exec.ExecuteStreamHandler#start()
+     */
+    @Override
+    public void start() throws IOException {
+        if (processError != null) {
+            errorThread = new Thread(new StreamPumper(processError, err), "Error stream pumper");
+            errorThread.setDaemon(true);
+            errorThread.start();
+        }
+        try {
+            result = parser.parse(processOutput);
+        } catch (Exception e) {
+            failure = e;
+        } finally {
+            // let the process finish even if the parser stopped early
+            final byte[] buffer = new byte[8192];
+            while (processOutput.read(buffer) >= 0) {
+                // discard
+            }
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see org.apache.commons.exec.ExecuteStreamHandler#stop()
+     */
+    @Override
+    public void stop() {
+        if (errorThread != null) {
+            try {
+                errorThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * @return the parse result, available once the process has finished
+     * @throws ParseException if the parser failed
+     */
+    public T getResult() throws ParseException {
+        if (failure instanceof ParseException) {
+            throw (ParseException) failure;
+        } else if (failure != null) {
+            throw new ParseException(failure);
+        }
+        return result;
+    }
+
+}
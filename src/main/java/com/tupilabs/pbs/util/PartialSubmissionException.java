@@ -0,0 +1,62 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2012-2015 Bruno P. Kinoshita, BioUno
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tupilabs.pbs.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * PBS Exception thrown when a job was submitted in several qsub commands, and one of them failed after others had
+ * already submitted jobs. The ids of the jobs submitted are kept, so that they can be tracked or deleted.
+ *
+ * @author Bruno P. Kinoshita
+ * @since 0.11
+ */
+public class PartialSubmissionException extends PBSException {
+
+    private static final long serialVersionUID = 4190867032469153530L;
+
+    private final ArrayList<String> submittedJobIds;
+
+    /**
+     * Constructor with message, ids of the jobs already submitted, and cause.
+     *
+     * @param message exception message
+     * @param submittedJobIds ids of the jobs submitted before the failure
+     * @param cause exception cause
+     */
+    public PartialSubmissionException(String message, List<String> submittedJobIds, Throwable cause) {
+        super(message, cause);
+        this.submittedJobIds = new ArrayList<String>(submittedJobIds);
+    }
+
+    /**
+     * @return ids of the jobs submitted before the failure, in submission order
+     */
+    public List<String> getSubmittedJobIds() {
+        return Collections.unmodifiableList(submittedJobIds);
+    }
+
+}
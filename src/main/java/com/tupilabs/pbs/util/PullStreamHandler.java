@@ -0,0 +1,160 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2012-2015 Bruno P. Kinoshita, BioUno
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tupilabs.pbs.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.exec.DefaultExecuteResultHandler;
+import org.apache.commons.exec.ExecuteStreamHandler;
+import org.apache.commons.exec.StreamPumper;
+
+/**
+ * Stream handler that hands the standard output of a process to the caller, who reads it at its own pace, e.g. to
+ * parse it lazily.
+ * <p>
+ * The executor closes the process streams once the process exits, so {@link #stop()} waits until the caller has
+ * {@link #release() released} the output, after reading it to the end or giving up on it. The error stream is pumped
+ * to the given output stream in a separate thread.
+ *
+ * @author Bruno P. Kinoshita
+ * @since 0.11
+ */
+public class PullStreamHandler implements ExecuteStreamHandler {
+
+    /**
+     * Interval between checks of whether the process failed to start, in milliseconds.
+     */
+    private static final long START_POLL_INTERVAL = 100L;
+
+    private final OutputStream err;
+
+    private final CountDownLatch started = new CountDownLatch(1);
+
+    private final CountDownLatch released = new CountDownLatch(1);
+
+    private volatile InputStream processOutput;
+
+    private InputStream processError;
+
+    private Thread errorThread;
+
+    /**
+     * @param err stream receiving the process error output
+     */
+    public PullStreamHandler(OutputStream err) {
+        super();
+        this.err = err;
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see org.apache.commons.exec.ExecuteStreamHandler#setProcessInputStream(java.io.OutputStream)
+     */
+    @Override
+    public void setProcessInputStream(OutputStream os) throws IOException {
+        os.close();
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see org.apache.commons.exec.ExecuteStreamHandler#setProcessErrorStream(java.io.InputStream)
+     */
+    @Override
+    public void setProcessErrorStream(InputStream is) throws IOException {
+        this.processError = is;
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see org.apache.commons.exec.ExecuteStreamHandler#setProcessOutputStream(java.io.InputStream)
+     */
+    @Override
+    public void setProcessOutputStream(InputStream is) throws IOException {
+        this.processOutput = is;
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see org.apache.commons.exec.ExecuteStreamHandler#start()
+     */
+    @Override
+    public void start() throws IOException {
+        if (processError != null) {
+            errorThread = new Thread(new StreamPumper(processError, err), "Error stream pumper");
+            errorThread.setDaemon(true);
+            errorThread.start();
+        }
+        started.countDown();
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see org.apache.commons.exec.ExecuteStreamHandler#stop()
+     */
+    @Override
+    public void stop() {
+        try {
+            released.await();
+            if (errorThread != null) {
+                errorThread.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Wait for the process to start, and get its standard output.
+     *
+     * @param resultHandler result handler of the execution, to detect a process that failed to start
+     * @return the process standard output
+     * @throws PBSException if the process failed to start
+     */
+    public InputStream getOutput(DefaultExecuteResultHandler resultHandler) {
+        try {
+            while (!started.await(START_POLL_INTERVAL, TimeUnit.MILLISECONDS)) {
+                if (resultHandler.hasResult()) {
+                    throw new PBSException("Failed to start command: " + resultHandler.getException(),
+                            resultHandler.getException());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PBSException("Interrupted waiting for command to start", e);
+        }
+        return processOutput;
+    }
+
+    /**
+     * Release the standard output, letting the executor finish.
+     */
+    public void release() {
+        released.countDown();
+    }
+
+}
@@ -0,0 +1,291 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2012-2015 Bruno P. Kinoshita, BioUno
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tupilabs.pbs.util;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Output stream that buffers the output of a command in memory, in a {@link ChunkedOutputStream}, until it exceeds a
+ * threshold, and then moves it to a temporary file.
+ * <p>
+ * The output is read back with {@link #toInputStream()}; once spilled, the file is read through
+ * {@link MappedByteBuffer} windows, so the heap used does not grow with the size of the output. Closing the stream
+ * releases the chunks and deletes the file. If part of the output can not be written, e.g. when the disk is full, the
+ * stream fails: later writes and reads throw an {@link IOException}, instead of losing part of the output.
+ *
+ * @author Bruno P. Kinoshita
+ * @since 0.11
+ */
+public class SpillingOutputStream extends OutputStream {
+
+    private static final Logger LOGGER = Logger.getLogger(SpillingOutputStream.class.getName());
+
+    /**
+     * Size of the file regions mapped at a time.
+     */
+    private static final long WINDOW_SIZE = 64L * 1024 * 1024;
+
+    private static final String TEMPORARY_FILE_PREFIX = "pbs-output";
+
+    /**
+     * Size of the buffer in front of the temporary file, as the output is pumped in small writes.
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final long threshold;
+
+    private ChunkedOutputStream memory;
+
+    private File file;
+
+    private OutputStream fileOutput;
+
+    private long size = 0L;
+
+    private boolean closed = false;
+
+    /**
+     * Error that lost part of the output, while spilling it.
+     */
+    private IOException failure;
+
+    /**
+     * @param pool pool providing the in-memory chunks
+     * @param threshold number of bytes kept in memory before spilling to a temporary file
+     */
+    public SpillingOutputStream(BufferPool pool, long threshold) {
+        super();
+        this.memory = new ChunkedOutputStream(pool);
+        this.threshold = threshold;
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see java.io.OutputStream#write(int)
+     */
+    @Override
+    public synchronized void write(int b) throws IOException {
+        final OutputStream target = target(1);
+        try {
+            target.write(b);
+        } catch (IOException e) {
+            failure = e;
+            throw e;
+        }
+        size++;
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see java.io.OutputStream#write(byte[], int, int)
+     */
+    @Override
+    public synchronized void write(byte[] b, int off, int len) throws IOException {
+        final OutputStream target = target(len);
+        try {
+            target.write(b, off, len);
+        } catch (IOException e) {
+            failure = e;
+            throw e;
+        }
+        size += len;
+    }
+
+    private OutputStream target(int len) throws IOException {
+        checkFailure();
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        if (fileOutput == null && size + len > threshold) {
+            spill();
+        }
+        return fileOutput != null ? fileOutput : memory;
+    }
+
+    private void spill() throws IOException {
+        File spillFile = null;
+        OutputStream spillOutput = null;
+        try {
+            spillFile = File.createTempFile(TEMPORARY_FILE_PREFIX, ".tmp");
+            if (LOGGER.isLoggable(Level.FINE)) {
+                LOGGER.fine("Spilling command output over " + threshold + " bytes to " + spillFile);
+            }
+            spillOutput = new BufferedOutputStream(new FileOutputStream(spillFile), BUFFER_SIZE);
+            IOUtils.copy(memory.toInputStream(), spillOutput);
+        } catch (IOException e) {
+            // the output can not be kept whole anymore
+            failure = e;
+            if (spillOutput != null) {
+                closeQuietly(spillOutput, spillFile);
+            }
+            if (spillFile != null && !spillFile.delete()) {
+                spillFile.deleteOnExit();
+            }
+            memory.close();
+            memory = null;
+            throw e;
+        }
+        file = spillFile;
+        fileOutput = spillOutput;
+        memory.close();
+        memory = null;
+    }
+
+    private void checkFailure() throws IOException {
+        if (failure != null) {
+            throw new IOException("Command output lost while spilling it to a temporary file: "
+                    + failure.getMessage(), failure);
+        }
+    }
+
+    private static void closeQuietly(OutputStream out, File file) {
+        try {
+            out.close();
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "Failed to close " + file + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @return the number of bytes written
+     */
+    public synchronized long size() {
+        return size;
+    }
+
+    /**
+     * @return whether the output was moved to a temporary file
+     */
+    public synchronized boolean isSpilled() {
+        return file != null;
+    }
+
+    /**
+     * @return a stream reading the bytes written so far
+     * @throws IOException if the temporary file can not be read, or the output could not be spilled to it
+     */
+    public synchronized InputStream toInputStream() throws IOException {
+        checkFailure();
+        if (file == null) {
+            return memory.toInputStream();
+        }
+        fileOutput.flush();
+        return new MappedInputStream(file, size);
+    }
+
+    /**
+     * Release the chunks, or delete the temporary file.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (memory != null) {
+            memory.close();
+        }
+        if (file != null) {
+            closeQuietly(fileOutput, file);
+            // a mapping may keep the file open on some platforms until the buffer is collected
+            if (!file.delete()) {
+                file.deleteOnExit();
+            }
+        }
+    }
+
+    /**
+     * Reads a file through mapped windows of at most {@link #WINDOW_SIZE} bytes.
+     */
+    private static final class MappedInputStream extends InputStream {
+
+        private final File file;
+
+        private final long length;
+
+        private long position = 0L;
+
+        private MappedByteBuffer window;
+
+        MappedInputStream(File file, long length) {
+            this.file = file;
+            this.length = length;
+        }
+
+        private boolean ensureWindow() throws IOException {
+            if (window != null && window.hasRemaining()) {
+                return true;
+            }
+            if (position >= length) {
+                return false;
+            }
+            final RandomAccessFile raf = new RandomAccessFile(file, "r");
+            try {
+                window = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.min(WINDOW_SIZE, length - position));
+            } finally {
+                raf.close();
+            }
+            position += window.remaining();
+            return true;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return ensureWindow() ? window.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (!ensureWindow()) {
+                return -1;
+            }
+            final int count = Math.min(len, window.remaining());
+            window.get(b, off, count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return window == null ? 0 : window.remaining();
+        }
+
+    }
+
+}
@@ -23,6 +23,10 @@
  */
 package com.tupilabs.pbs.util;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
 import java.util.Vector;
 
 /**
@@ -72,4 +76,147 @@ public final class Utils {
         return rv.toArray(new String[rv.size()]);
     }
 
+    /**
+     * Parses a PBS size value, such as <code>8166332kb</code>, <code>16gb</code> or <code>1024</code>, into bytes.
+     * Units are binary (kb = 1024 bytes) and case insensitive; a trailing <code>w</code> (words) is read as 8 bytes.
+     *
+     * @param value size value
+     * @return number of bytes, or -1 if the value cannot be parsed
+     * @since 0.11
+     */
+    public static long parseSize(String value) {
+        if (value == null) {
+            return -1L;
+        }
+        final String trimmed = value.trim().toLowerCase();
+        int end = trimmed.length();
+        while (end > 0 && !Character.isDigit(trimmed.charAt(end - 1))) {
+            end--;
+        }
+        if (end == 0) {
+            return -1L;
+        }
+        final String unit = trimmed.substring(end);
+        long multiplier;
+        if (unit.length() == 0 || "b".equals(unit)) {
+            multiplier = 1L;
+        } else if ("kb".equals(unit) || "k".equals(unit)) {
+            multiplier = 1L << 10;
+        } else if ("mb".equals(unit) || "m".equals(unit)) {
+            multiplier = 1L << 20;
+        } else if ("gb".equals(unit) || "g".equals(unit)) {
+            multiplier = 1L << 30;
+        } else if ("tb".equals(unit) || "t".equals(unit)) {
+            multiplier = 1L << 40;
+        } else if ("pb".equals(unit) || "p".equals(unit)) {
+            multiplier = 1L << 50;
+        } else if ("w".equals(unit)) {
+            multiplier = 8L;
+        } else if ("kw".equals(unit)) {
+            multiplier = 8L << 10;
+        } else if ("mw".equals(unit)) {
+            multiplier = 8L << 20;
+        } else if ("gw".equals(unit)) {
+            multiplier = 8L << 30;
+        } else {
+            return -1L;
+        }
+        try {
+            return Long.parseLong(trimmed.substring(0, end)) * multiplier;
+        } catch (NumberFormatException nfe) {
+            return -1L;
+        }
+    }
+
+    /**
+     * Parses a PBS duration, either in seconds (<code>3600</code>) or as <code>[[hh:]mm:]ss</code>
+     * (<code>01:00:00</code>), into seconds.
+     *
+     * @param value duration value
+     * @return number of seconds, or -1 if the value cannot be parsed
+     * @since 0.11
+     */
+    public static long parseDuration(String value) {
+        if (value == null) {
+            return -1L;
+        }
+        final String trimmed = value.trim();
+        if (trimmed.length() == 0) {
+            return -1L;
+        }
+        long seconds = 0L;
+        int start = 0;
+        try {
+            while (true) {
+                final int colon = trimmed.indexOf(':', start);
+                if (colon < 0) {
+                    final String last = trimmed.substring(start);
+                    final int dot = last.indexOf('.');
+                    return seconds * 60L + Long.parseLong(dot >= 0 ? last.substring(0, dot) : last);
+                }
+                seconds = seconds * 60L + Long.parseLong(trimmed.substring(start, colon));
+                start = colon + 1;
+            }
+        } catch (NumberFormatException nfe) {
+            return -1L;
+        }
+    }
+
+    /**
+     * Compacts a list of array indices into a PBS range expression, such as <code>1-500,502,510-9000</code>. The
+     * indices are sorted and duplicates are removed.
+     *
+     * @param indices array indices
+     * @return range expression, empty if there are no indices
+     * @since 0.11
+     */
+    public static String compactRanges(Collection<Integer> indices) {
+        final List<String> ranges = splitRanges(indices, Integer.MAX_VALUE);
+        return ranges.isEmpty() ? "" : ranges.get(0);
+    }
+
+    /**
+     * Compacts a list of array indices into one or more PBS range expressions (see
+     * {@link #compactRanges(Collection)}), none longer than <code>maxLength</code> characters. A single range is
+     * never split, as it is always short.
+     *
+     * @param indices array indices
+     * @param maxLength maximum length of each expression
+     * @return range expressions, in ascending index order
+     * @since 0.11
+     */
+    public static List<String> splitRanges(Collection<Integer> indices, int maxLength) {
+        final int[] sorted = new int[indices.size()];
+        int count = 0;
+        for (final Integer index : indices) {
+            sorted[count++] = index.intValue();
+        }
+        Arrays.sort(sorted);
+
+        final List<String> expressions = new ArrayList<String>();
+        final StringBuilder expression = new StringBuilder();
+        int i = 0;
+        while (i < count) {
+            final int begin = sorted[i];
+            int end = begin;
+            // long, so that end + 1 does not overflow at Integer.MAX_VALUE
+            while (i < count && sorted[i] <= (long) end + 1) {
+                end = sorted[i++];
+            }
+            final String range = begin == end ? String.valueOf(begin) : begin + "-" + end;
+            if (expression.length() > 0 && expression.length() + 1 + range.length() > maxLength) {
+                expressions.add(expression.toString());
+                expression.setLength(0);
+            }
+            if (expression.length() > 0) {
+                expression.append(',');
+            }
+            expression.append(range);
+        }
+        if (expression.length() > 0) {
+            expressions.add(expression.toString());
+        }
+        return expressions;
+    }
+
 }
@@ -0,0 +1,87 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2012-2015 Bruno P. Kinoshita, BioUno
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tupilabs.pbs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+import com.tupilabs.pbs.ServerDialect.Family;
+import com.tupilabs.pbs.parser.NodeJsonParser;
+import com.tupilabs.pbs.parser.NodeXmlStreamParser;
+import com.tupilabs.pbs.parser.QstatArrayJobParser;
+import com.tupilabs.pbs.parser.QstatJobsJsonParser;
+import com.tupilabs.pbs.parser.QstatJobsXmlParser;
+
+/**
+ * Tests for {@link ServerDialect} and {@link CommandPlan}.
+ *
+ * @author Bruno P. Kinoshita
+ * @since 0.11
+ */
+public class CommandPlanTest {
+
+    @Test
+    public void testDetectDialect() {
+        final ServerDialect openpbs = ServerDialect.parse("pbs_version = 23.06.06\n");
+        assertEquals(Family.OPENPBS, openpbs.getFamily());
+        assertEquals("23.06.06", openpbs.getVersion());
+        assertEquals(23, openpbs.getMajorVersion());
+        final ServerDialect torque = ServerDialect.parse("Version: 6.1.3\nCommit: 6f3ea3d6\n");
+        assertEquals(Family.TORQUE, torque.getFamily());
+        assertEquals(6, torque.getMajorVersion());
+        assertEquals(ServerDialect.UNKNOWN, ServerDialect.parse("qstat: invalid option -- '-'"));
+    }
+
+    @Test
+    public void testTorquePlan() {
+        final CommandPlan plan = new CommandPlan(new ServerDialect(Family.TORQUE, "6.1.3"));
+        assertEquals("[qnodes, -x, n001]", Arrays.toString(plan.nodes("n001").getCommandLine().toStrings()));
+        assertTrue(plan.nodes(null).getParser() instanceof NodeXmlStreamParser);
+        final CommandPlan.Query<?> jobs = plan.jobs(Arrays.asList("1.server", "2.server"), true);
+        assertEquals("[qstat, -f, -x, 1.server, 2.server]", Arrays.toString(jobs.getCommandLine().toStrings()));
+        assertTrue(jobs.getParser() instanceof QstatJobsXmlParser);
+        assertEquals("[qstat, -f, -Q]", Arrays.toString(plan.queues("").getCommandLine().toStrings()));
+    }
+
+    @Test
+    public void testOpenPBSPlan() {
+        final CommandPlan plan = new CommandPlan(new ServerDialect(Family.OPENPBS, "23.06.06"));
+        assertEquals("[pbsnodes, -a, -v, -F, json]", Arrays.toString(plan.nodes(null).getCommandLine().toStrings()));
+        assertTrue(plan.nodes(null).getParser() instanceof NodeJsonParser);
+        final CommandPlan.Query<?> jobs = plan.jobs(Collections.<String> emptyList(), true);
+        assertEquals("[qstat, -f, -F, json]", Arrays.toString(jobs.getCommandLine().toStrings()));
+        assertTrue(jobs.getParser() instanceof QstatJobsJsonParser);
+        assertEquals("[qstat, -f, -t, -F, json, 12[]]",
+                Arrays.toString(plan.arrayJobs("12[]").getCommandLine().toStrings()));
+        final CommandPlan.Query<?> arrayJob = plan.arrayJob("12[]");
+        assertEquals("[qstat, -f, -t, 12[]]", Arrays.toString(arrayJob.getCommandLine().toStrings()));
+        assertTrue(arrayJob.getParser() instanceof QstatArrayJobParser);
+    }
+
+}
@@ -0,0 +1,106 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2012-2015 Bruno P. Kinoshita, BioUno
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tupilabs.pbs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+
+import org.apache.commons.exec.CommandLine;
+import org.apache.commons.exec.DefaultExecuteResultHandler;
+import org.apache.commons.exec.ExecuteWatchdog;
+import org.junit.Assume;
+import org.junit.Test;
+
+import com.tupilabs.pbs.util.BufferPool;
+import com.tupilabs.pbs.util.ChunkedOutputStream;
+import com.tupilabs.pbs.util.PBSException;
+import com.tupilabs.pbs.util.PullStreamHandler;
+
+/**
+ * Tests for {@link JobIterator}, with a shell loop printing jobs in place of qstat.
+ *
+ * @author Bruno P. Kinoshita
+ * @since 0.11
+ */
+public class JobIteratorTest {
+
+    private static final String ENDLESS_JOBS = "i=0; while true; do i=$((i+1)); "
+            + "printf 'Job Id: %s.server\\n    Job_Name = job%s\\n' $i $i; done";
+
+    private DefaultExecuteResultHandler resultHandler;
+
+    private JobIterator iterator(String script) throws Exception {
+        final CommandLine cmdLine = new CommandLine("/bin/sh");
+        cmdLine.addArgument("-c");
+        cmdLine.addArgument(script, false);
+        final ChunkedOutputStream err = new ChunkedOutputStream(new BufferPool());
+        final PullStreamHandler streamHandler = new PullStreamHandler(err);
+        final ExecuteWatchdog watchdog = new ExecuteWatchdog(ExecuteWatchdog.INFINITE_TIMEOUT);
+        resultHandler = PBS.execute(cmdLine, null, streamHandler, watchdog);
+        return new JobIterator(streamHandler.getOutput(resultHandler), streamHandler, watchdog, resultHandler, err);
+    }
+
+    @Test
+    public void testCloseKillsCommand() throws Exception {
+        Assume.assumeTrue(File.separatorChar == '/');
+        final JobIterator jobs = iterator(ENDLESS_JOBS);
+        try {
+            for (int i = 1; i <= 3; i++) {
+                assertTrue(jobs.hasNext());
+                assertEquals(i + ".server", jobs.next().getId());
+            }
+        } finally {
+            jobs.close();
+        }
+        assertFalse(jobs.hasNext());
+        resultHandler.waitFor(10000L);
+        assertTrue(resultHandler.hasResult());
+    }
+
+    @Test
+    public void testUnknownJob() throws Exception {
+        Assume.assumeTrue(File.separatorChar == '/');
+        final JobIterator jobs = iterator("echo 'qstat: Unknown Job Id 1.server' >&2; exit 153");
+        try {
+            assertFalse(jobs.hasNext());
+        } finally {
+            jobs.close();
+        }
+    }
+
+    @Test(expected = PBSException.class)
+    public void testFailure() throws Exception {
+        Assume.assumeTrue(File.separatorChar == '/');
+        final JobIterator jobs = iterator("echo 'qstat: cannot connect to server pbs (errno=111)' >&2; exit 2");
+        try {
+            jobs.hasNext();
+        } finally {
+            jobs.close();
+        }
+    }
+
+}
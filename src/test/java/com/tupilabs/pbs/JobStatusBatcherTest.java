@@ -0,0 +1,111 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2012-2015 Bruno P. Kinoshita, BioUno
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tupilabs.pbs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.tupilabs.pbs.model.Job;
+import com.tupilabs.pbs.util.PBSException;
+
+/**
+ * Tests for {@link JobStatusBatcher}.
+ *
+ * @author Bruno P. Kinoshita
+ * @since 0.11
+ */
+public class JobStatusBatcherTest {
+
+    @Test
+    public void testBatchesLookups() throws Exception {
+        final AtomicInteger lookups = new AtomicInteger();
+        final JobStatusBatcher batcher = new JobStatusBatcher(200L) {
+            @Override
+            protected Map<String, Job> lookup(Collection<String> jobIds) {
+                lookups.incrementAndGet();
+                final Map<String, Job> jobs = new HashMap<String, Job>();
+                for (final String jobId : jobIds) {
+                    if (!jobId.startsWith("9")) {
+                        final Job job = new Job();
+                        job.setId(jobId);
+                        jobs.put(jobId, job);
+                    }
+                }
+                return jobs;
+            }
+        };
+        final List<Future<Job>> futures = new ArrayList<Future<Job>>();
+        for (int i = 0; i < 100; i++) {
+            futures.add(batcher.submit((i % 10 == 0 ? "9" : "1") + i + ".server"));
+        }
+        assertEquals("11.server", futures.get(1).get().getId());
+        assertNull(futures.get(10).get());
+        int found = 0;
+        for (final Future<Job> future : futures) {
+            if (future.get() != null) {
+                found++;
+            }
+        }
+        assertEquals(90, found);
+        assertEquals(1, lookups.get());
+        batcher.shutdown();
+    }
+
+    @Test
+    public void testFailurePropagates() throws Exception {
+        final JobStatusBatcher batcher = new JobStatusBatcher(0L) {
+            @Override
+            protected Map<String, Job> lookup(Collection<String> jobIds) {
+                throw new PBSException("qstat failed");
+            }
+        };
+        final Future<Job> future = batcher.submit("1.server");
+        try {
+            future.get();
+            fail("Expected the lookup failure");
+        } catch (ExecutionException e) {
+            assertEquals("qstat failed", e.getCause().getMessage());
+        }
+        try {
+            batcher.qstat("2.server");
+            fail("Expected the lookup failure");
+        } catch (PBSException e) {
+            assertEquals("qstat failed", e.getMessage());
+        }
+        batcher.shutdown();
+    }
+
+}
@@ -0,0 +1,71 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2012-2015 Bruno P. Kinoshita, BioUno
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tupilabs.pbs;
+
+
+import java.util.Collections;
+
+import org.junit.Test;
+
+import com.tupilabs.pbs.util.PBSException;
+
+/**
+ * Tests for the handling of the {@link PBS} command errors.
+ *
+ * @author Bruno P. Kinoshita
+ * @since 0.11
+ */
+public class PBSTest {
+
+    @Test
+    public void testJobsGone() {
+        // Torque and OpenPBS, with no job left in the chunk
+        PBS.checkJobErrors("qstat", 153, true,
+                "qstat: Unknown Job Id 1.server\nqstat: 2.server Job has finished, use -x or -H to obtain "
+                        + "historical job information\n");
+    }
+
+    @Test(expected = PBSException.class)
+    public void testOtherErrorWithResults() {
+        PBS.checkJobErrors("qstat", 1, false,
+                "qstat: Unknown Job Id 1.server\nqstat: cannot connect to server pbs (errno=111)\n");
+    }
+
+    @Test(expected = PBSException.class)
+    public void testFailureWithoutErrorOutput() {
+        PBS.checkJobErrors("qstat", 1, true, "");
+    }
+
+    @Test
+    public void testWarningWithSuccess() {
+        PBS.checkJobErrors("qstat", 0, false, "qstat: warning\n");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoArrayIds() {
+        // rejected before running qsub -t ""
+        PBS.qsubArrayJobs("job.sh", Collections.<Integer> emptyList());
+    }
+
+}
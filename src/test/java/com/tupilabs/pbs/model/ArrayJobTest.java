@@ -0,0 +1,102 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2012-2015 Bruno P. Kinoshita, BioUno
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tupilabs.pbs.model;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link ArrayJob}.
+ *
+ * @author Bruno P. Kinoshita
+ * @since 0.11
+ */
+public class ArrayJobTest {
+
+    @Test
+    public void testAggregates() {
+        final Map<String, String> variables = new HashMap<String, String>();
+        variables.put("variable_list", "PBS_O_HOME=/home/alice");
+        final ArrayJob arrayJob = new ArrayJob();
+        final Job array = new Job();
+        array.setId("123[].server");
+        assertFalse(arrayJob.add(array));
+        for (int i = 1; i <= 1000; i++) {
+            final Job job = new Job();
+            job.setId("123[" + i + "].server");
+            job.setName("align-" + i);
+            job.setOwner("alice@login1");
+            job.setState(i <= 10 ? "R" : "Q");
+            job.setExecHost(i <= 10 ? "n00" + (i % 2) + "/0" : null);
+            job.setVariableList(variables);
+            arrayJob.add(job);
+        }
+        assertEquals("123[].server", arrayJob.getId());
+        assertEquals(1000, arrayJob.size());
+        assertEquals(990, arrayJob.count("Q"));
+        assertEquals(10, arrayJob.count("R"));
+        assertEquals(0, arrayJob.count("H"));
+        assertArrayEquals(new int[] { 1, 2, 3, 4, 5, 6, 7, 8, 9, 10 }, arrayJob.getIndices("R"));
+        assertEquals("n001/0", arrayJob.getExecHost(3));
+        assertNull(arrayJob.getExecHost(300));
+
+        final Job job = arrayJob.getJob(7);
+        assertEquals("123[7].server", job.getId());
+        assertEquals("align-7", job.getName());
+        assertEquals("R", job.getState());
+        assertEquals("alice@login1", job.getOwner());
+        assertSame(variables, job.getVariableList());
+        assertNull(arrayJob.getJob(1001));
+    }
+
+    @Test
+    public void testOtherArray() {
+        final ArrayJob arrayJob = new ArrayJob();
+        final Job first = new Job();
+        first.setId("123[1].server");
+        first.setState("Q");
+        assertTrue(arrayJob.add(first));
+        final Job other = new Job();
+        other.setId("124[2].server");
+        other.setState("R");
+        assertFalse(arrayJob.add(other));
+        final Job second = new Job();
+        second.setId("123[2].server");
+        second.setState("Q");
+        assertTrue(arrayJob.add(second));
+        assertEquals(2, arrayJob.size());
+        assertEquals(0, arrayJob.count("R"));
+        assertEquals("123[].server", arrayJob.getId());
+    }
+
+}
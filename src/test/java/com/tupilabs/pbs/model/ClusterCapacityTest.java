@@ -0,0 +1,78 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2012-2015 Bruno P. Kinoshita, BioUno
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tupilabs.pbs.model;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link ClusterCapacity}.
+ *
+ * @author Bruno P. Kinoshita
+ * @since 0.11
+ */
+public class ClusterCapacityTest {
+
+    private static Node node(String name, String state, String jobs, String availmem, String... properties) {
+        final Node node = new Node(name, 4, "cluster", QueueState.fromMask(QueueState.parseMask(state)),
+                new NodeStatus("availmem=" + availmem), NodeOccupancy.parse(jobs, null), null);
+        node.getProperties().addAll(Arrays.asList(properties));
+        return node;
+    }
+
+    @Test
+    public void testTotals() {
+        final ClusterCapacity capacity = new ClusterCapacity(Arrays.asList(
+                node("n001", "free", "0-1/1.server", "1kb", "bigmem", "ib"),
+                node("n002", "free", null, "2kb", "ib"),
+                node("n003", "down", null, "4kb", "ib")));
+        assertEquals(12, capacity.getProcessors(null));
+        assertEquals(6, capacity.getFreeCores(null));
+        assertEquals(2, capacity.getFreeCores("bigmem"));
+        assertEquals(6, capacity.getFreeCores("ib"));
+        assertEquals(2, capacity.getBusyCores("ib"));
+        assertEquals(7 * 1024, capacity.getAvailableMemory("ib"));
+        assertEquals(0, capacity.getFreeCores("gpu"));
+    }
+
+    @Test
+    public void testIncrementalUpdate() {
+        final ClusterCapacity capacity = new ClusterCapacity(Arrays.asList(
+                node("n001", "free", null, "1kb", "bigmem"),
+                node("n002", "free", null, "1kb", "ib")));
+        assertEquals(0, capacity.update(Arrays.asList(
+                node("n001", "free", null, "1kb", "bigmem"),
+                node("n002", "free", null, "1kb", "ib"))));
+        assertEquals(2, capacity.update(Arrays.asList(
+                node("n001", "job-exclusive", "0-3/2.server", "1kb", "bigmem"))));
+        assertEquals(0, capacity.getFreeCores(null));
+        assertEquals(4, capacity.getBusyCores("bigmem"));
+        assertEquals(0, capacity.getNodeCount("ib"));
+        assertEquals(1, capacity.getProperties().size());
+    }
+
+}
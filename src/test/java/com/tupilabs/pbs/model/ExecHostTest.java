@@ -0,0 +1,84 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2012-2015 Bruno P. Kinoshita, BioUno
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tupilabs.pbs.model;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link ExecHost} and {@link ClusterView}.
+ *
+ * @author Bruno P. Kinoshita
+ * @since 0.11
+ */
+public class ExecHostTest {
+
+    @Test
+    public void testParseRanges() {
+        final ExecHost execHost = ExecHost.parse("n001/0-3+n002/0-3");
+        assertEquals(2, execHost.getHostCount());
+        assertEquals("n001", execHost.getHost(0));
+        assertEquals(4, execHost.getCoreCount(1));
+        assertEquals(8, execHost.getTotalCores());
+        assertEquals("n001/0-3+n002/0-3", execHost.toString());
+    }
+
+    @Test
+    public void testParseSingleCoreSlots() {
+        final ExecHost execHost = ExecHost.parse("n001/0+n001/1+n002/0+n001/3,5-6");
+        assertEquals(2, execHost.getHostCount());
+        assertArrayEquals(new int[] { 0, 1, 3, 5, 6 }, execHost.getCores(0));
+        assertEquals("n001/0-1,3,5-6+n002/0", execHost.toString());
+    }
+
+    @Test
+    public void testParseEmpty() {
+        assertTrue(ExecHost.parse(null).isEmpty());
+        assertTrue(ExecHost.parse(" ").isEmpty());
+    }
+
+    @Test
+    public void testClusterView() {
+        final Node n1 = new Node("n001", 8, "cluster", QueueState.FREE);
+        final Node n2 = new Node("n002.example.com", 8, "cluster", QueueState.FREE);
+        final Job a = new Job();
+        a.setExecHost("n001/0-3+n002/0-3");
+        final Job b = new Job();
+        b.setExecHost("n001/4");
+        final Job c = new Job();
+        final ClusterView view = new ClusterView(Arrays.asList(n1, n2), Arrays.asList(a, b, c));
+        assertEquals(Arrays.asList(a, b), view.getJobs(n1));
+        assertEquals(Arrays.asList(a), view.getJobs(n2));
+        assertEquals(Arrays.asList(n1, n2), view.getNodes(a));
+        assertTrue(view.getNodes(c).isEmpty());
+        assertEquals(5, view.getUsedCores(n1));
+        assertEquals(0.5d, view.getUtilization(n2), 0.0001d);
+    }
+
+}
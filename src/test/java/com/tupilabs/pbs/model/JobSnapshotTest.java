@@ -0,0 +1,89 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2012-2015 Bruno P. Kinoshita, BioUno
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tupilabs.pbs.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Tests for {@link JobSnapshot}.
+ *
+ * @author Bruno P. Kinoshita
+ * @since 0.11
+ */
+public class JobSnapshotTest {
+
+    private static JobSnapshot snapshot;
+
+    @BeforeClass
+    public static void setUp() {
+        final List<Job> jobs = new ArrayList<Job>();
+        jobs.add(job("1.server", "alice@login1", "batch", "R", "n001/0-3+n002/0-3"));
+        jobs.add(job("2.server", "alice@login2", "debug", "R", "n002/4"));
+        jobs.add(job("3.server", "bob@login1", "batch", "R", "n003/0"));
+        jobs.add(job("4.server", "alice@login1", "batch", "Q", null));
+        snapshot = new JobSnapshot(jobs);
+    }
+
+    private static Job job(String id, String owner, String queue, String state, String execHost) {
+        final Job job = new Job();
+        job.setId(id);
+        job.setOwner(owner);
+        job.setQueue(queue);
+        job.setState(state);
+        job.setExecHost(execHost);
+        return job;
+    }
+
+    @Test
+    public void testSelect() {
+        final List<Job> jobs = snapshot.select("alice", "batch", "R", null);
+        assertEquals(1, jobs.size());
+        assertEquals("1.server", jobs.get(0).getId());
+        assertEquals(3, snapshot.count("alice@login1", null, null, null));
+        assertEquals(3, snapshot.count("alice", null, null, null));
+        assertEquals(2, snapshot.count(null, null, "R", "n002"));
+        assertEquals(4, snapshot.count(null, null, null, null));
+    }
+
+    @Test
+    public void testSelectUnknownValue() {
+        assertTrue(snapshot.select("carol", null, null, null).isEmpty());
+        assertEquals(0, snapshot.count(null, "batch", null, "n999"));
+    }
+
+    @Test
+    public void testKeys() {
+        assertEquals(2, snapshot.getOwners().size());
+        assertEquals(3, snapshot.getNodes().size());
+        assertTrue(snapshot.getQueues().contains("debug"));
+    }
+
+}
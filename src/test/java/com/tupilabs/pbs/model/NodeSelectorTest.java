@@ -0,0 +1,85 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2012-2015 Bruno P. Kinoshita, BioUno
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tupilabs.pbs.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Tests for {@link NodeSelector}.
+ *
+ * @author Bruno P. Kinoshita
+ * @since 0.11
+ */
+public class NodeSelectorTest {
+
+    private static NodeSelector selector;
+
+    @BeforeClass
+    public static void setUp() {
+        final PropertyDictionary dictionary = new PropertyDictionary();
+        final List<Node> nodes = new ArrayList<Node>();
+        // 100 nodes, so that the columns span more than one word
+        for (int i = 0; i < 100; i++) {
+            final String properties = i % 10 == 0 ? "bigmem,ib" : (i % 2 == 0 ? "ib" : "eth");
+            final String state = i == 20 ? "offline" : "free";
+            final String jobs = i == 30 ? "0-7/1.server" : null;
+            nodes.add(new Node("n" + i, 16, "cluster", QueueState.fromMask(QueueState.parseMask(state)), null,
+                    NodeOccupancy.parse(jobs, null), PropertySet.parse(properties, dictionary)));
+        }
+        selector = new NodeSelector(nodes);
+    }
+
+    @Test
+    public void testCount() {
+        assertEquals(10, selector.count("bigmem", "ib"));
+        assertEquals(50, selector.count("ib"));
+        assertEquals(100, selector.count());
+        assertEquals(0, selector.count("gpu"));
+    }
+
+    @Test
+    public void testMatch() {
+        assertEquals(9, selector.match(1, "bigmem").size());
+        assertEquals(8, selector.match(16, "bigmem").size());
+        assertEquals("n90", selector.match(16, "bigmem").get(7).getName());
+    }
+
+    @Test
+    public void testSelect() {
+        final List<Node> nodes = selector.select("nodes=4:ppn=16:bigmem:ib+2:ppn=8:ib");
+        assertEquals(6, nodes.size());
+        assertEquals("n0", nodes.get(0).getName());
+        assertEquals("n2", nodes.get(4).getName());
+        assertTrue(selector.select("nodes=9:ppn=16:bigmem").isEmpty());
+        assertEquals(1, selector.select("ppn=4:gpus=1:eth").size());
+    }
+
+}
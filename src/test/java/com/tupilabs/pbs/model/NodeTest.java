@@ -0,0 +1,190 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2012-2015 Bruno P. Kinoshita, BioUno
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tupilabs.pbs.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link Node} states.
+ *
+ * @author Bruno P. Kinoshita
+ * @since 0.11
+ */
+public class NodeTest {
+
+    private static Node node(String name, String state) {
+        return new Node(name, 4, "cluster", QueueState.fromMask(QueueState.parseMask(state)), null, null, null);
+    }
+
+    @Test
+    public void testCompoundStates() {
+        final Node node = node("n001", "job-exclusive,busy");
+        assertEquals(EnumSet.of(QueueState.JOB_EXCLUSIVE, QueueState.BUSY), node.getStates());
+        assertEquals(QueueState.JOB_EXCLUSIVE, node.getState());
+        assertFalse(node.isSchedulable());
+        assertFalse(node.isFree());
+    }
+
+    @Test
+    public void testPredicates() {
+        assertTrue(node("n001", "free").isSchedulable());
+        assertTrue(node("n001", "job-sharing").isSchedulable());
+        assertTrue(node("n001", "down,offline").isOffline());
+        assertTrue(node("n001", "down,offline").isDown());
+        assertFalse(node("n001", "free,offline").isSchedulable());
+        assertTrue(node("n001", "").hasState(QueueState.UNKNOWN));
+        assertTrue(node("n001", "something-new").hasState(QueueState.UNKNOWN));
+    }
+
+    @Test
+    public void testCount() {
+        final List<Node> nodes = Arrays.asList(node("n001", "free"), node("n002", "down,offline"),
+                node("n003", "offline"), node("n004", "free"));
+        assertEquals(2, Node.count(nodes, QueueState.FREE));
+        assertEquals(1, Node.count(nodes, QueueState.DOWN));
+        assertEquals(2, Node.count(nodes, QueueState.OFFLINE));
+    }
+
+    @Test
+    public void testNodeStatus() {
+        final NodeStatus status = new NodeStatus("rectime=1442740315,varattr=,state=free,loadave=0.50,ncpus=4,"
+                + "physmem=8166332kb,availmem=7532340kb,totmem=2gb,idletime=1183,uname=Linux n001 x86_64");
+        assertEquals(0.5d, status.getLoadAverage(), 0.0001d);
+        assertEquals(4, status.getCpus());
+        assertEquals(8166332L * 1024L, status.getPhysicalMemory());
+        assertEquals(7532340L * 1024L, status.getAvailableMemory());
+        assertEquals(2L << 30, status.getTotalMemory());
+        assertEquals(1183L, status.getIdleTime());
+        assertEquals("free", status.getState());
+        assertEquals("Linux n001 x86_64", status.get("uname"));
+        assertEquals(9, status.asMap().size());
+        assertEquals(-1, new NodeStatus(null).getCpus());
+    }
+
+    @Test
+    public void testOccupancy() {
+        final Map<String, String> interned = new HashMap<String, String>();
+        final NodeOccupancy occupancy = NodeOccupancy.parse("0/12.server,1/12.server,4-6/13.server", interned);
+        assertEquals(5, occupancy.getBusyCoreCount());
+        assertTrue(occupancy.isBusy(5));
+        assertFalse(occupancy.isBusy(2));
+        assertEquals("13.server", occupancy.getJobId(6));
+        assertEquals(null, occupancy.getJobId(7));
+        assertEquals(Arrays.asList("12.server", "13.server"), occupancy.getJobIds());
+        final List<Job> jobs = occupancy.toJobs();
+        assertEquals(5, jobs.size());
+        assertEquals(4, jobs.get(2).getQueueIndex());
+        assertEquals("13.server", jobs.get(2).getName());
+        assertTrue(occupancy.getJobId(0) == NodeOccupancy.parse("3/12.server", interned).getJobId(3));
+        assertEquals(0, NodeOccupancy.parse(null, null).getBusyCoreCount());
+    }
+
+    @Test
+    public void testOccupancySharedCore() {
+        // one core listed with two jobs: both are kept, as separate jobs
+        final NodeOccupancy occupancy = NodeOccupancy.parse("0/1.srv,0/2.srv,1/2.srv", null);
+        assertEquals(2, occupancy.getBusyCoreCount());
+        assertEquals("1.srv", occupancy.getJobId(0));
+        assertEquals(Arrays.asList("1.srv", "2.srv"), occupancy.getJobIds());
+        final List<Job> jobs = occupancy.toJobs();
+        assertEquals(3, jobs.size());
+        assertEquals(0, jobs.get(0).getQueueIndex());
+        assertEquals("1.srv", jobs.get(0).getName());
+        assertEquals(0, jobs.get(1).getQueueIndex());
+        assertEquals("2.srv", jobs.get(1).getName());
+        assertEquals(1, jobs.get(2).getQueueIndex());
+        assertEquals("2.srv", jobs.get(2).getName());
+    }
+
+    @Test
+    public void testFromString() {
+        assertEquals(QueueState.OFFLINE, QueueState.fromString("offline"));
+        assertEquals(QueueState.DOWN, QueueState.fromString("down,offline"));
+        assertEquals(QueueState.UNKNOWN, QueueState.fromString(null));
+    }
+
+    @Test
+    public void testSerializationRoundTrip() throws Exception {
+        final Node plain = new Node("n001", 4, "cluster", QueueState.FREE);
+        plain.getProperties().add("gpu");
+        plain.getProperties().add("bigmem");
+        final Job job = new Job();
+        job.setName("1.server");
+        plain.getJobs().add(job);
+        plain.getStatus().put("gpus", "2");
+        final Node plainCopy = roundTrip(plain);
+        // changes made through getStatus() are serialized
+        assertEquals("2", plainCopy.getStatus().get("gpus"));
+        assertEquals(Arrays.asList("gpu", "bigmem"), plainCopy.getProperties());
+        assertEquals(1, plainCopy.getJobs().size());
+        assertEquals("1.server", plainCopy.getJobs().get(0).getName());
+
+        final PropertyDictionary dictionary = new PropertyDictionary();
+        PropertySet.parse("ib,gpu", dictionary);
+        final Node parsed = new Node("n002", 4, "cluster", EnumSet.of(QueueState.FREE), null,
+                NodeOccupancy.parse("0/2.server", new HashMap<String, String>()),
+                PropertySet.parse("gpu,bigmem,ib", dictionary));
+        // properties keep the listed order, not the dictionary one
+        assertEquals(Arrays.asList("gpu", "bigmem", "ib"), parsed.getProperties());
+        final Node parsedCopy = roundTrip(parsed);
+        assertEquals(Arrays.asList("gpu", "bigmem", "ib"), parsedCopy.getProperties());
+        assertTrue(parsedCopy.getPropertySet().contains("ib"));
+        assertEquals(1, parsedCopy.getJobs().size());
+
+        // a status map never built is still decoded after deserialization
+        final Node withStatus = new Node("n003", 4, "cluster", EnumSet.of(QueueState.FREE),
+                new NodeStatus("state=free,ncpus=4"), null, null);
+        final Node withStatusCopy = roundTrip(withStatus);
+        assertEquals("free", withStatusCopy.getStatus().get("state"));
+        assertEquals(4, withStatusCopy.getNodeStatus().getCpus());
+    }
+
+    private static Node roundTrip(Node node) throws Exception {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(node);
+        out.close();
+        final ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        try {
+            return (Node) in.readObject();
+        } finally {
+            in.close();
+        }
+    }
+
+}
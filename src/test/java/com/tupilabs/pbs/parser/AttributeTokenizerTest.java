@@ -0,0 +1,125 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2012-2015 Bruno P. Kinoshita, BioUno
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tupilabs.pbs.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link AttributeTokenizer} events.
+ *
+ * @author Bruno P. Kinoshita
+ * @since 0.11
+ */
+public class AttributeTokenizerTest {
+
+    @Test
+    public void testAggregateWalltime() throws Exception {
+        final long[] seconds = new long[1];
+        final List<String> ids = new ArrayList<String>();
+        final AttributeHandler handler = new AttributeHandler() {
+            @Override
+            public void startRecord(String id) {
+                ids.add(id);
+            }
+
+            @Override
+            public void attribute(String name, byte[] value, int offset, int length) {
+                if ("resources_used.walltime".equals(name)) {
+                    // hh:mm:ss, read without decoding
+                    long total = 0L;
+                    long field = 0L;
+                    for (int i = offset; i < offset + length; i++) {
+                        if (value[i] == ':') {
+                            total = (total + field) * 60L;
+                            field = 0L;
+                        } else {
+                            field = field * 10L + (value[i] - '0');
+                        }
+                    }
+                    seconds[0] += total + field;
+                }
+            }
+
+            @Override
+            public void endRecord() {
+            }
+        };
+        final InputStream is = AttributeTokenizerTest.class.getResourceAsStream("/torque/qstat-f.txt");
+        try {
+            AttributeTokenizer.forJobs(handler).parse(is);
+        } finally {
+            is.close();
+        }
+        assertEquals(2, ids.size());
+        assertEquals("1234.pbs-server", ids.get(0));
+        assertEquals(20L * 60L + 12L, seconds[0]);
+    }
+
+    @Test
+    public void testEvents() throws Exception {
+        final StringBuilder events = new StringBuilder();
+        final List<String> names = new ArrayList<String>();
+        final AttributeHandler handler = new AttributeHandler() {
+            @Override
+            public void startRecord(String id) {
+                events.append("start ").append(id).append('\n');
+            }
+
+            @Override
+            public void attribute(String name, byte[] value, int offset, int length) {
+                names.add(name);
+                events.append(name).append('=').append(AttributeTokenizer.decodeValue(value, offset, length))
+                        .append('\n');
+            }
+
+            @Override
+            public void endRecord() {
+                events.append("end\n");
+            }
+        };
+        final byte[] bytes = ("Queue: batch\n    Queue_Type = Execution\n    acl_users = a,\n\tb\n"
+                + "Queue: debug\n    queue_type = Route \n").getBytes("US-ASCII");
+        final AttributeTokenizer tokenizer = AttributeTokenizer.forQueues(handler);
+        tokenizer.feed(bytes, 0, bytes.length);
+        tokenizer.finish();
+        assertEquals("start batch\nqueue_type=Execution\nacl_users=a,b\nend\n"
+                + "start debug\nqueue_type=Route\nend\n", events.toString());
+        // names are decoded once
+        assertSame(names.get(0), names.get(2));
+    }
+
+    @Test(expected = ParseException.class)
+    public void testAttributeBeforeRecord() throws Exception {
+        final byte[] bytes = "    Job_Name = test\nJob Id: 1.server\n".getBytes("US-ASCII");
+        AttributeTokenizer.forJobs(new JobsBuilder()).feed(bytes, 0, bytes.length);
+    }
+
+}
@@ -0,0 +1,67 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2012-2015 Bruno P. Kinoshita, BioUno
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tupilabs.pbs.parser;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link ByteScanner}.
+ *
+ * @author Bruno P. Kinoshita
+ * @since 0.11
+ */
+public class ByteScannerTest {
+
+    @Test
+    public void testIndexOfSameAsScalar() {
+        final Random random = new Random(42L);
+        // small alphabet around the delimiters and the bytes that trip naive zero-byte tricks
+        final byte[] alphabet = { '\n', '\t', '=', ':', 0x00, 0x01, (byte) 0x80, (byte) 0x8a, (byte) 0xff, 'a' };
+        for (int run = 0; run < 2000; run++) {
+            final byte[] bytes = new byte[random.nextInt(100)];
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = alphabet[random.nextInt(alphabet.length)];
+            }
+            final int from = bytes.length == 0 ? 0 : random.nextInt(bytes.length);
+            final int to = from + random.nextInt(bytes.length - from + 1);
+            for (final byte b : alphabet) {
+                assertEquals(scalarIndexOf(bytes, from, to, b), ByteScanner.indexOf(bytes, from, to, b));
+            }
+        }
+    }
+
+    private static int scalarIndexOf(byte[] bytes, int from, int to, byte b) {
+        for (int i = from; i < to; i++) {
+            if (bytes[i] == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+}
@@ -0,0 +1,77 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2012-2015 Bruno P. Kinoshita, BioUno
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tupilabs.pbs.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.InputStream;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.tupilabs.pbs.model.Node;
+import com.tupilabs.pbs.model.QueueState;
+
+/**
+ * Tests for {@link NodeJsonParser}.
+ *
+ * @author Bruno P. Kinoshita
+ * @since 0.11
+ */
+public class NodeJsonParserTest {
+
+    @Test
+    public void testParse() throws Exception {
+        final List<Node> nodes;
+        final InputStream is = NodeJsonParserTest.class.getResourceAsStream("/openpbs/pbsnodes-av-json.json");
+        try {
+            nodes = new NodeJsonParser().parse(is);
+        } finally {
+            is.close();
+        }
+        assertEquals(3, nodes.size());
+        final Node n001 = nodes.get(0);
+        assertEquals("n001", n001.getName());
+        assertEquals(4, n001.getNumberOfProcessors());
+        assertEquals("PBS", n001.getNodeType());
+        assertTrue(n001.hasState(QueueState.JOB_EXCLUSIVE));
+        assertEquals(4, n001.getOccupancy().getBusyCoreCount());
+        assertEquals("1234.pbs-server", n001.getOccupancy().getJobId(3));
+        assertEquals(16L * 1024 * 1024 * 1024, n001.getNodeStatus().getPhysicalMemory());
+        assertEquals(12L * 1024 * 1024 * 1024, n001.getNodeStatus().getAvailableMemory());
+        assertEquals(4, n001.getNodeStatus().getCpus());
+
+        final Node n002 = nodes.get(1);
+        assertTrue(n002.isFree());
+        assertEquals(0, n002.getOccupancy().getBusyCoreCount());
+        assertEquals(16L * 1024 * 1024 * 1024, n002.getNodeStatus().getAvailableMemory());
+
+        final Node n003 = nodes.get(2);
+        assertTrue(n003.isDown());
+        assertTrue(n003.isOffline());
+        assertTrue(n003.getProperties().isEmpty());
+    }
+
+}
@@ -0,0 +1,102 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2012-2015 Bruno P. Kinoshita, BioUno
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tupilabs.pbs.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.util.List;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+import com.tupilabs.pbs.model.Node;
+import com.tupilabs.pbs.model.QueueState;
+
+/**
+ * Tests for {@link NodeXmlParser} and {@link NodeXmlStreamParser}.
+ *
+ * @author Bruno P. Kinoshita
+ * @since 0.11
+ */
+public class NodeXmlParserTest {
+
+    private static String read(String resource) throws IOException {
+        final InputStream is = NodeXmlParserTest.class.getResourceAsStream(resource);
+        try {
+            return IOUtils.toString(is, "UTF-8");
+        } finally {
+            is.close();
+        }
+    }
+
+    private static void assertNodes(List<Node> nodes) {
+        assertEquals(3, nodes.size());
+        final Node n1 = nodes.get(0);
+        assertEquals("n001", n1.getName());
+        assertEquals(4, n1.getNumberOfProcessors());
+        assertEquals("cluster", n1.getNodeType());
+        assertTrue(n1.isFree());
+        assertEquals(2, n1.getProperties().size());
+        assertEquals("7532340kb", n1.getStatus().get("availmem"));
+        final Node n2 = nodes.get(1);
+        assertTrue(n2.hasState(QueueState.BUSY));
+        assertEquals(2, n2.getJobs().size());
+        assertEquals("13.server", n2.getJobs().get(1).getName());
+        assertTrue(nodes.get(2).isOffline());
+    }
+
+    @Test
+    public void testSaxParser() throws Exception {
+        assertNodes(new NodeXmlParser().parse(read("/torque/qnodes.xml")));
+    }
+
+    @Test
+    public void testStreamParser() throws Exception {
+        final InputStream is = NodeXmlParserTest.class.getResourceAsStream("/torque/qnodes.xml");
+        try {
+            assertNodes(new NodeXmlStreamParser().parse(is));
+        } finally {
+            is.close();
+        }
+    }
+
+    @Test
+    public void testLongStatus() throws Exception {
+        final StringBuilder status = new StringBuilder("state=free");
+        for (int i = 0; i < 20000; i++) {
+            status.append(",key").append(i).append("=value").append(i);
+        }
+        final String xml = "<Data><Node><name>n001</name><state>free</state><np>1</np><status>" + status
+                + "</status></Node></Data>";
+        final List<Node> sax = new NodeXmlParser().parse(xml);
+        assertEquals(20001, sax.get(0).getStatus().size());
+        final List<Node> stax = new NodeXmlStreamParser().parse(new StringReader(xml));
+        assertEquals(20001, stax.get(0).getStatus().size());
+    }
+
+}
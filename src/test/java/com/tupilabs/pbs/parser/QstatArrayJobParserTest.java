@@ -0,0 +1,135 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2012-2015 Bruno P. Kinoshita, BioUno
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tupilabs.pbs.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.junit.Test;
+
+import com.tupilabs.pbs.model.ArrayJob;
+import com.tupilabs.pbs.model.Job;
+
+/**
+ * Tests for {@link QstatArrayJobParser}.
+ *
+ * @author Bruno P. Kinoshita
+ * @since 0.11
+ */
+public class QstatArrayJobParserTest {
+
+    private static final int SUBJOBS = 2000;
+
+    @Test
+    public void testParse() throws Exception {
+        final ArrayJob arrayJob = new QstatArrayJobParser().parse(new ByteArrayInputStream(output()));
+        assertEquals("42[].server", arrayJob.getId());
+        assertEquals(SUBJOBS, arrayJob.size());
+        assertEquals(10, arrayJob.count("R"));
+        assertEquals(SUBJOBS - 10, arrayJob.count("Q"));
+        assertEquals("n001/1", arrayJob.getExecHost(1));
+        final Job job = arrayJob.getJob(7);
+        assertEquals("42[7].server", job.getId());
+        assertEquals("alice@login1", job.getOwner());
+    }
+
+    @Test
+    public void testSubjobsAddedWhileParsing() throws Exception {
+        // each subjob must reach the array job before the rest of the output is read, i.e. no list of the
+        // subjobs is built first
+        final byte[] output = output();
+        final CountingInputStream in = new CountingInputStream(new ByteArrayInputStream(output));
+        final long[] readAtFirstAdd = { -1L };
+        final int[] added = { 0 };
+        final ArrayJob arrayJob = new ArrayJob() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public synchronized boolean add(Job subjob) {
+                if (added[0]++ == 0) {
+                    readAtFirstAdd[0] = in.count;
+                }
+                return super.add(subjob);
+            }
+        };
+        new QstatArrayJobParser().parse(in, arrayJob);
+        assertEquals(SUBJOBS + 1, added[0]);
+        assertEquals(output.length, in.count);
+        assertTrue("first subjob added after " + readAtFirstAdd[0] + " bytes",
+                readAtFirstAdd[0] > 0 && readAtFirstAdd[0] < output.length / 2);
+    }
+
+    /**
+     * @return qstat -f -t output of an array job, with its summary record and its subjobs
+     */
+    private static byte[] output() {
+        final StringBuilder sb = new StringBuilder();
+        sb.append("Job Id: 42[].server\n    Job_Name = align\n    Job_Owner = alice@login1\n    job_state = Q\n\n");
+        for (int i = 1; i <= SUBJOBS; i++) {
+            sb.append("Job Id: 42[").append(i).append("].server\n");
+            sb.append("    Job_Name = align-").append(i).append('\n');
+            sb.append("    Job_Owner = alice@login1\n");
+            sb.append("    job_state = ").append(i <= 10 ? "R" : "Q").append('\n');
+            if (i <= 10) {
+                sb.append("    exec_host = n00").append(i % 2).append("/").append(i).append('\n');
+            }
+            sb.append("    queue = batch\n\n");
+        }
+        return sb.toString().getBytes();
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            final int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+
+    }
+
+}
@@ -0,0 +1,124 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2012-2015 Bruno P. Kinoshita, BioUno
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tupilabs.pbs.parser;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.List;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+import com.tupilabs.pbs.model.Job;
+import com.tupilabs.pbs.model.Queue;
+
+/**
+ * Tests for {@link QstatJobsByteParser} and {@link QstatQueuesByteParser}, compared with the String parsers.
+ *
+ * @author Bruno P. Kinoshita
+ * @since 0.11
+ */
+public class QstatJobsByteParserTest {
+
+    @Test
+    public void testParseSameAsText() throws Exception {
+        final byte[] bytes = read("/torque/qstat-f.txt");
+        final List<Job> expected = new QstatJobsParser().parse(new String(bytes, "UTF-8"));
+        assertSameJobs(expected, new QstatJobsByteParser().parse(new ByteArrayInputStream(bytes)));
+        // continuation lines split across chunks
+        for (final int chunk : new int[] { 1, 7, 64 }) {
+            assertSameJobs(expected, new QstatJobsByteParser().parse(new ChunkedInputStream(bytes, chunk)));
+        }
+    }
+
+    @Test
+    public void testParseNonAscii() throws Exception {
+        final byte[] bytes = "Job Id: 1.server\r\n    Job_Name = café\r\n    Variable_List = A=1,\r\n\tB=2\r\n"
+                .getBytes("UTF-8");
+        final String charset = Charset.defaultCharset().name();
+        final Job job = new QstatJobsByteParser().parse(bytes, 0, bytes.length).get(0);
+        assertEquals("1.server", job.getId());
+        assertEquals(new String("café".getBytes("UTF-8"), charset), job.getName());
+        assertEquals("A=1,B=2", job.getVariableList().get("variable_list"));
+    }
+
+    @Test
+    public void testParseQueues() throws Exception {
+        final byte[] bytes = read("/torque/qstat-Q-f.txt");
+        final List<Queue> expected = new QstatQueuesParser().parse(new String(bytes, "UTF-8"));
+        final List<Queue> queues = new QstatQueuesByteParser().parse(new ChunkedInputStream(bytes, 5));
+        assertEquals(expected.size(), queues.size());
+        for (int i = 0; i < queues.size(); i++) {
+            assertEquals(expected.get(i).getName().trim(), queues.get(i).getName());
+            assertEquals(expected.get(i).getTotalJobs(), queues.get(i).getTotalJobs());
+            assertEquals(expected.get(i).getResourcesMax(), queues.get(i).getResourcesMax());
+            assertEquals(expected.get(i).getStateCount(), queues.get(i).getStateCount());
+        }
+    }
+
+    private static void assertSameJobs(List<Job> expected, List<Job> jobs) {
+        assertEquals(expected.size(), jobs.size());
+        for (int i = 0; i < jobs.size(); i++) {
+            assertEquals(expected.get(i).getId(), jobs.get(i).getId());
+            assertEquals(expected.get(i).getName(), jobs.get(i).getName());
+            assertEquals(expected.get(i).getExecHost(), jobs.get(i).getExecHost());
+            assertEquals(expected.get(i).getResourcesUsed(), jobs.get(i).getResourcesUsed());
+            assertEquals(expected.get(i).getResourceList(), jobs.get(i).getResourceList());
+            assertEquals(expected.get(i).getVariableList(), jobs.get(i).getVariableList());
+            assertEquals(expected.get(i).getExitStatus(), jobs.get(i).getExitStatus());
+        }
+    }
+
+    private static byte[] read(String resource) throws Exception {
+        final InputStream is = QstatJobsByteParserTest.class.getResourceAsStream(resource);
+        try {
+            return IOUtils.toByteArray(is);
+        } finally {
+            is.close();
+        }
+    }
+
+    /**
+     * Returns at most <code>chunk</code> bytes per read, like a pipe.
+     */
+    private static final class ChunkedInputStream extends ByteArrayInputStream {
+
+        private final int chunk;
+
+        ChunkedInputStream(byte[] bytes, int chunk) {
+            super(bytes);
+            this.chunk = chunk;
+        }
+
+        @Override
+        public synchronized int read(byte[] b, int off, int len) {
+            return super.read(b, off, Math.min(len, chunk));
+        }
+
+    }
+
+}
@@ -0,0 +1,85 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2012-2015 Bruno P. Kinoshita, BioUno
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tupilabs.pbs.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.tupilabs.pbs.model.Job;
+
+/**
+ * Tests for {@link QstatJobsIncrementalParser}.
+ *
+ * @author Bruno P. Kinoshita
+ * @since 0.11
+ */
+public class QstatJobsIncrementalParserTest {
+
+    private static byte[] output(String... states) throws Exception {
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < states.length; i++) {
+            sb.append("Job Id: ").append(i).append(".server\n");
+            sb.append("    Job_Name = job").append(i).append('\n');
+            sb.append("    job_state = ").append(states[i]).append('\n');
+            sb.append("    Variable_List = A=1,\n\tB=").append(i).append('\n');
+        }
+        return sb.toString().getBytes("US-ASCII");
+    }
+
+    @Test
+    public void testReuseUnchangedJobs() throws Exception {
+        final QstatJobsIncrementalParser parser = new QstatJobsIncrementalParser();
+        final byte[] first = output("R", "Q", "Q");
+        final List<Job> jobs = parser.parse(new ByteArrayInputStream(first));
+        assertEquals(0, parser.getReused());
+        final List<Job> expected = new QstatJobsByteParser().parse(first, 0, first.length);
+        for (int i = 0; i < jobs.size(); i++) {
+            assertEquals(expected.get(i).getId(), jobs.get(i).getId());
+            assertEquals(expected.get(i).getName(), jobs.get(i).getName());
+            assertEquals(expected.get(i).getState(), jobs.get(i).getState());
+            assertEquals(expected.get(i).getVariableList(), jobs.get(i).getVariableList());
+        }
+
+        final byte[] second = output("R", "R", "Q");
+        final List<Job> polled = parser.parse(second, 0, second.length);
+        assertEquals(2, parser.getReused());
+        assertSame(jobs.get(0), polled.get(0));
+        assertNotSame(jobs.get(1), polled.get(1));
+        assertEquals("R", polled.get(1).getState());
+        assertSame(jobs.get(2), polled.get(2));
+
+        // job 2 is gone, and is parsed again when it comes back
+        parser.parse(new ByteArrayInputStream(output("R", "R")));
+        final List<Job> back = parser.parse(new ByteArrayInputStream(second));
+        assertEquals(2, parser.getReused());
+        assertNotSame(jobs.get(2), back.get(2));
+    }
+
+}
@@ -0,0 +1,87 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2012-2015 Bruno P. Kinoshita, BioUno
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tupilabs.pbs.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+import com.tupilabs.pbs.model.Job;
+
+/**
+ * Tests for {@link QstatJobsIterator}.
+ *
+ * @author Bruno P. Kinoshita
+ * @since 0.11
+ */
+public class QstatJobsIteratorTest {
+
+    @Test
+    public void testSameAsParser() throws Exception {
+        final InputStream is = QstatJobsIteratorTest.class.getResourceAsStream("/torque/qstat-f.txt");
+        final byte[] bytes;
+        try {
+            bytes = IOUtils.toByteArray(is);
+        } finally {
+            is.close();
+        }
+        final List<Job> expected = new QstatJobsByteParser().parse(bytes, 0, bytes.length);
+        final QstatJobsIterator jobs = new QstatJobsIterator(new ByteArrayInputStream(bytes));
+        for (final Job job : expected) {
+            assertTrue(jobs.hasNext());
+            final Job next = jobs.next();
+            assertEquals(job.getId(), next.getId());
+            assertEquals(job.getName(), next.getName());
+            assertEquals(job.getResourcesUsed(), next.getResourcesUsed());
+        }
+        assertFalse(jobs.hasNext());
+    }
+
+    @Test
+    public void testLazy() {
+        // endless output: only the bytes up to the second job header are read for the first job
+        final InputStream endless = new InputStream() {
+            private final byte[] job = "Job Id: 1.server\n    Job_Name = test\n".getBytes();
+            private int position = 0;
+
+            @Override
+            public int read() throws IOException {
+                return job[position++ % job.length];
+            }
+        };
+        final QstatJobsIterator jobs = new QstatJobsIterator(endless);
+        for (int i = 0; i < 3; i++) {
+            assertEquals("test", jobs.next().getName());
+        }
+    }
+
+}
@@ -0,0 +1,87 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2012-2015 Bruno P. Kinoshita, BioUno
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tupilabs.pbs.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.InputStream;
+import java.io.StringReader;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.tupilabs.pbs.model.Job;
+
+/**
+ * Tests for {@link QstatJobsJsonParser}.
+ *
+ * @author Bruno P. Kinoshita
+ * @since 0.11
+ */
+public class QstatJobsJsonParserTest {
+
+    @Test
+    public void testParse() throws Exception {
+        final List<Job> jobs;
+        final InputStream is = QstatJobsJsonParserTest.class.getResourceAsStream("/openpbs/qstat-f-json.json");
+        try {
+            jobs = new QstatJobsJsonParser().parse(is);
+        } finally {
+            is.close();
+        }
+        assertEquals(2, jobs.size());
+        final Job job = jobs.get(0);
+        assertEquals("1234.pbs-server", job.getId());
+        assertEquals("align-sample-01", job.getName());
+        assertEquals("alice@login1", job.getOwner());
+        assertEquals("R", job.getState());
+        assertEquals("workq", job.getQueue());
+        assertEquals("01:02:03", job.getResourcesUsed().get("resources_used.cput"));
+        assertEquals("1:ncpus=4:mem=4gb", job.getResourceList().get("resource_list.select"));
+        assertEquals(21456, job.getSessionId());
+        assertEquals(42, job.getSubstate());
+        assertTrue(job.isRerunable());
+        assertEquals("align.sh", job.getSubmitArgs());
+        assertEquals("login1", job.getSubmitHost());
+        assertEquals(4, job.getParsedExecHost().getTotalCores());
+        assertEquals("PBS_O_HOME=/home/alice,PBS_O_PATH=/usr/local/bin:/usr/bin:/bin,"
+                + "PBS_O_WORKDIR=/home/alice/work,PBS_O_QUEUE=workq", job.getVariableList().get("variable_list"));
+
+        final Job finished = jobs.get(1);
+        assertEquals("F", finished.getState());
+        assertEquals(271, finished.getExitStatus());
+        assertEquals("Job run at Sun Oct 19 at 07:58 on (n002:ncpus=1) and finished \"early\"",
+                finished.getComment());
+    }
+
+    @Test
+    public void testParseNoJobs() throws Exception {
+        assertTrue(new QstatJobsJsonParser().parse(new StringReader("")).isEmpty());
+        assertTrue(new QstatJobsJsonParser().parse(
+                new StringReader("{\"timestamp\":1760860960,\"pbs_version\":\"23.06.06\",\"pbs_server\":\"s\"}"))
+                .isEmpty());
+    }
+
+}
@@ -0,0 +1,64 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2012-2015 Bruno P. Kinoshita, BioUno
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tupilabs.pbs.parser;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import com.tupilabs.pbs.model.Job;
+
+/**
+ * Tests for {@link QstatJobsParser}, with inputs accepted by its former, regular expression based, implementation.
+ *
+ * @author Bruno P. Kinoshita
+ * @since 0.11
+ */
+public class QstatJobsParserTest {
+
+    @Test
+    public void testHeaderWhitespace() throws Exception {
+        final List<Job> jobs = new QstatJobsParser().parse("Job  Id: 1.server\n    Job_Name = one\n"
+                + "JOB\tID:2.server\n    Job_Name = two\n" + "job id: 3.server\n    Job_Name = three\n");
+        assertEquals(3, jobs.size());
+        assertEquals("1.server", jobs.get(0).getId());
+        assertEquals("one", jobs.get(0).getName());
+        assertEquals("2.server", jobs.get(1).getId());
+        assertEquals("two", jobs.get(1).getName());
+        assertEquals("3.server", jobs.get(2).getId());
+    }
+
+    @Test
+    public void testUnindentedLines() throws Exception {
+        final List<Job> jobs = new QstatJobsParser().parse("Job Id: 1.server\nJob_Name = one\n"
+                + "Error_Path = login1:/home/alice/one.e1\nnot an attribute: ignored\n    job_state = R\n");
+        assertEquals(1, jobs.size());
+        assertEquals("one", jobs.get(0).getName());
+        assertEquals("login1:/home/alice/one.e1", jobs.get(0).getErrorPath());
+        assertEquals("R", jobs.get(0).getState());
+    }
+
+}
@@ -0,0 +1,96 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2012-2015 Bruno P. Kinoshita, BioUno
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tupilabs.pbs.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.InputStream;
+import java.io.StringReader;
+import java.util.List;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+import com.tupilabs.pbs.model.Job;
+
+/**
+ * Tests for {@link QstatJobsXmlParser}, compared with {@link QstatJobsParser} for the same jobs.
+ *
+ * @author Bruno P. Kinoshita
+ * @since 0.11
+ */
+public class QstatJobsXmlParserTest {
+
+    @Test
+    public void testParseSameAsText() throws Exception {
+        final List<Job> xmlJobs;
+        final InputStream xml = QstatJobsXmlParserTest.class.getResourceAsStream("/torque/qstat-f-x.xml");
+        try {
+            xmlJobs = new QstatJobsXmlParser().parse(xml);
+        } finally {
+            xml.close();
+        }
+        final List<Job> textJobs;
+        final InputStream text = QstatJobsXmlParserTest.class.getResourceAsStream("/torque/qstat-f.txt");
+        try {
+            textJobs = new QstatJobsParser().parse(IOUtils.toString(text, "UTF-8"));
+        } finally {
+            text.close();
+        }
+        assertEquals(2, xmlJobs.size());
+        assertEquals(textJobs.size(), xmlJobs.size());
+        for (int i = 0; i < xmlJobs.size(); i++) {
+            final Job xmlJob = xmlJobs.get(i);
+            final Job textJob = textJobs.get(i);
+            assertEquals(textJob.getId(), xmlJob.getId());
+            assertEquals(textJob.getName(), xmlJob.getName());
+            assertEquals(textJob.getOwner(), xmlJob.getOwner());
+            assertEquals(textJob.getState(), xmlJob.getState());
+            assertEquals(textJob.getQueue(), xmlJob.getQueue());
+            assertEquals(textJob.getExecHost(), xmlJob.getExecHost());
+            assertEquals(textJob.getResourcesUsed(), xmlJob.getResourcesUsed());
+            assertEquals(textJob.getResourceList(), xmlJob.getResourceList());
+            assertEquals(textJob.getVariableList(), xmlJob.getVariableList());
+            assertEquals(textJob.getSessionId(), xmlJob.getSessionId());
+            assertEquals(textJob.getWalltimeRemaining(), xmlJob.getWalltimeRemaining());
+            assertEquals(textJob.getComment(), xmlJob.getComment());
+            assertEquals(textJob.getExitStatus(), xmlJob.getExitStatus());
+        }
+        assertEquals("01:02:03", xmlJobs.get(0).getResourcesUsed().get("resources_used.cput"));
+        assertEquals(85200L, xmlJobs.get(0).getWalltimeRemaining());
+        final Job completed = xmlJobs.get(1);
+        assertEquals("C", completed.getState());
+        assertEquals(271, completed.getExitStatus());
+        assertEquals("1760860950", completed.getCompTime());
+        assertEquals(12.5d, completed.getTotalRuntime(), 0.001d);
+        assertEquals("Job exceeded its walltime limit & was killed", completed.getComment());
+    }
+
+    @Test
+    public void testParseEmpty() throws Exception {
+        assertTrue(new QstatJobsXmlParser().parse(new StringReader("")).isEmpty());
+    }
+
+}
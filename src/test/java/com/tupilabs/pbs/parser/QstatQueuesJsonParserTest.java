@@ -0,0 +1,71 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2012-2015 Bruno P. Kinoshita, BioUno
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tupilabs.pbs.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.InputStream;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.tupilabs.pbs.model.Queue;
+import com.tupilabs.pbs.model.ResourceValue;
+
+/**
+ * Tests for {@link QstatQueuesJsonParser}.
+ *
+ * @author Bruno P. Kinoshita
+ * @since 0.11
+ */
+public class QstatQueuesJsonParserTest {
+
+    @Test
+    public void testParse() throws Exception {
+        final List<Queue> queues;
+        final InputStream is = QstatQueuesJsonParserTest.class.getResourceAsStream("/openpbs/qstat-Q-f-json.json");
+        try {
+            queues = new QstatQueuesJsonParser().parse(is);
+        } finally {
+            is.close();
+        }
+        assertEquals(2, queues.size());
+        final Queue workq = queues.get(0);
+        assertEquals("workq", workq.getName());
+        assertEquals("Execution", workq.getQueueType());
+        assertEquals(100, workq.getPriority());
+        assertEquals(52, workq.getTotalJobs());
+        assertEquals(12, workq.getStateCounts().getQueued());
+        assertEquals(40, workq.getStateCounts().getRunning());
+        assertEquals(48 * 3600L, workq.getResourcesMaxValues().get("resources_max.walltime").getValue());
+        assertEquals(ResourceValue.Kind.SIZE, workq.getResourcesAssignedValues().get("resources_assigned.mem")
+                .getKind());
+        assertTrue(workq.isEnabled());
+        assertFalse(queues.get(1).isEnabled());
+        assertTrue(queues.get(1).isStarted());
+    }
+
+}
@@ -0,0 +1,76 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2012-2015 Bruno P. Kinoshita, BioUno
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tupilabs.pbs.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.InputStream;
+import java.util.List;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+import com.tupilabs.pbs.model.Queue;
+import com.tupilabs.pbs.model.ResourceValue;
+
+/**
+ * Tests for {@link QstatQueuesParser}.
+ *
+ * @author Bruno P. Kinoshita
+ * @since 0.11
+ */
+public class QstatQueuesParserTest {
+
+    @Test
+    public void testParse() throws Exception {
+        final InputStream is = QstatQueuesParserTest.class.getResourceAsStream("/torque/qstat-Q-f.txt");
+        final List<Queue> queues;
+        try {
+            queues = new QstatQueuesParser().parse(IOUtils.toString(is, "UTF-8"));
+        } finally {
+            is.close();
+        }
+        assertEquals(2, queues.size());
+        final Queue batch = queues.get(0);
+        assertEquals("batch", batch.getName().trim());
+        assertEquals(52, batch.getTotalJobs());
+        assertEquals(12, batch.getStateCounts().getQueued());
+        assertEquals(40, batch.getStateCounts().getRunning());
+        assertEquals(52, batch.getStateCounts().getTotal());
+        assertEquals("64gb", batch.getResourcesMax().get("resources_max.mem"));
+        final ResourceValue mem = batch.getResourcesMaxValues().get("resources_max.mem");
+        assertEquals(ResourceValue.Kind.SIZE, mem.getKind());
+        assertEquals(64L << 30, mem.getValue());
+        assertEquals(72L * 3600L, batch.getResourcesMaxValues().get("resources_max.walltime").getValue());
+        assertEquals(ResourceValue.Kind.NUMBER, batch.getResourcesDefaultValues().get("resources_default.nodes")
+                .getKind());
+        final Queue debug = queues.get(1);
+        assertFalse(debug.isStarted());
+        assertEquals(ResourceValue.Kind.TEXT, debug.getResourcesDefaultValues().get("resources_default.nodes")
+                .getKind());
+        assertEquals(0, debug.getStateCounts().getTotal());
+    }
+
+}
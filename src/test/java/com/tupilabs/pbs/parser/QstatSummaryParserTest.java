@@ -0,0 +1,116 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2012-2015 Bruno P. Kinoshita, BioUno
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tupilabs.pbs.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.InputStream;
+import java.util.List;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+import com.tupilabs.pbs.model.Job;
+import com.tupilabs.pbs.model.JobSummary;
+
+/**
+ * Tests for {@link QstatSummaryParser}.
+ *
+ * @author Bruno P. Kinoshita
+ * @since 0.11
+ */
+public class QstatSummaryParserTest {
+
+    @Test
+    public void testParse() throws Exception {
+        final List<JobSummary> jobs = parse("/torque/qstat.txt");
+        assertEquals(3, jobs.size());
+        final JobSummary job = jobs.get(0);
+        assertEquals("1234.pbs-server", job.getId());
+        assertEquals("align-sample-01", job.getName());
+        assertEquals("alice", job.getOwner());
+        assertEquals("01:02:03", job.getTimeUse());
+        assertEquals("R", job.getState());
+        assertEquals("batch", job.getQueue());
+        assertEquals(-1, job.getSessionId());
+        assertEquals("1236[].pbs-server", jobs.get(2).getId());
+        assertFalse(job.isIdTruncated());
+
+        final Job full = job.toJob();
+        assertEquals("01:02:03", full.getResourcesUsed().get("resources_used.cput"));
+        assertEquals("batch", full.getQueue());
+        assertNull(full.getName());
+    }
+
+    @Test
+    public void testParseAlternative() throws Exception {
+        final List<JobSummary> jobs = parse("/torque/qstat-a.txt");
+        assertEquals(2, jobs.size());
+        final JobSummary job = jobs.get(0);
+        assertEquals("1234.pbs-server", job.getId());
+        assertEquals("align-sample-01", job.getName());
+        assertEquals("alice", job.getOwner());
+        assertEquals("batch", job.getQueue());
+        assertEquals(21456, job.getSessionId());
+        assertEquals(2, job.getNodes());
+        assertEquals(32, job.getTasks());
+        assertEquals("64gb", job.getRequestedMemory());
+        assertEquals("24:00:00", job.getRequestedTime());
+        assertEquals("R", job.getState());
+        assertEquals("01:02:03", job.getElapsedTime());
+        assertNull(job.getTimeUse());
+        assertEquals(-1, jobs.get(1).getSessionId());
+        assertEquals("Q", jobs.get(1).getState());
+    }
+
+    @Test
+    public void testTruncatedIds() throws Exception {
+        final String text = "Job id            Name             User              Time Use S Queue\n"
+                + "----------------  ---------------- ----------------  -------- - -----\n"
+                + "1234567.long-ser* align-sample-01  alice             01:02:03 R batch\n"
+                + "1234568.long-serv align-sample-02  alice             01:02:03 R batch\n"
+                + "98.short          STDIN            bob                      0 Q short\n";
+        final List<JobSummary> jobs = new QstatSummaryParser().parse(text);
+        assertEquals(3, jobs.size());
+        // OpenPBS marks truncated ids with '*'
+        assertEquals("1234567.long-ser*", jobs.get(0).getId());
+        assertTrue(jobs.get(0).isIdTruncated());
+        // Torque cuts them to the column width
+        assertTrue(jobs.get(1).isIdTruncated());
+        assertFalse(jobs.get(2).isIdTruncated());
+    }
+
+    private static List<JobSummary> parse(String resource) throws Exception {
+        final InputStream is = QstatSummaryParserTest.class.getResourceAsStream(resource);
+        try {
+            return new QstatSummaryParser().parse(IOUtils.toString(is, "UTF-8"));
+        } finally {
+            is.close();
+        }
+    }
+
+}
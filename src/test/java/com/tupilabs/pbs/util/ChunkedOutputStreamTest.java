@@ -0,0 +1,90 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2012-2015 Bruno P. Kinoshita, BioUno
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tupilabs.pbs.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.io.IOException;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+/**
+ * Tests for {@link ChunkedOutputStream} and {@link BufferPool}.
+ *
+ * @author Bruno P. Kinoshita
+ * @since 0.11
+ */
+public class ChunkedOutputStreamTest {
+
+    @Test
+    public void testReadAcrossChunks() throws IOException {
+        final BufferPool pool = new BufferPool(16, 1024);
+        final ChunkedOutputStream out = new ChunkedOutputStream(pool);
+        final byte[] expected = new byte[100];
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = (byte) i;
+        }
+        out.write(expected, 0, 50);
+        out.write(expected[50]);
+        out.write(expected, 51, 49);
+        assertEquals(100L, out.size());
+        assertArrayEquals(expected, IOUtils.toByteArray(out.toInputStream()));
+        out.close();
+        assertEquals(7 * 16L, pool.getRetained());
+    }
+
+    @Test
+    public void testToString() throws IOException {
+        final ChunkedOutputStream out = new ChunkedOutputStream(new BufferPool(4, 0));
+        assertEquals("", out.toString());
+        out.write("qstat: Unknown Job Id 1.server".getBytes());
+        assertEquals("qstat: Unknown Job Id 1.server", out.toString());
+        out.close();
+    }
+
+    @Test
+    public void testPoolReuseAndCap() {
+        final BufferPool pool = new BufferPool(8, 16);
+        final byte[] first = pool.acquire();
+        final byte[] second = pool.acquire();
+        final byte[] third = pool.acquire();
+        pool.release(first);
+        pool.release(second);
+        pool.release(third);
+        pool.release(new byte[4]);
+        assertEquals(16L, pool.getRetained());
+        assertSame(second, pool.acquire());
+    }
+
+    @Test(expected = IOException.class)
+    public void testWriteAfterClose() throws IOException {
+        final ChunkedOutputStream out = new ChunkedOutputStream(new BufferPool());
+        out.close();
+        out.write(1);
+    }
+
+}
@@ -0,0 +1,89 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2012-2015 Bruno P. Kinoshita, BioUno
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tupilabs.pbs.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+/**
+ * Tests for {@link SpillingOutputStream}.
+ *
+ * @author Bruno P. Kinoshita
+ * @since 0.11
+ */
+public class SpillingOutputStreamTest {
+
+    private static byte[] bytes(int length) {
+        final byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = (byte) (i * 31);
+        }
+        return bytes;
+    }
+
+    @Test
+    public void testInMemory() throws IOException {
+        final BufferPool pool = new BufferPool(16, 1024);
+        final SpillingOutputStream out = new SpillingOutputStream(pool, 100);
+        final byte[] expected = bytes(100);
+        out.write(expected);
+        assertFalse(out.isSpilled());
+        assertArrayEquals(expected, IOUtils.toByteArray(out.toInputStream()));
+        out.close();
+        assertEquals(7 * 16L, pool.getRetained());
+    }
+
+    @Test
+    public void testSpilled() throws IOException {
+        final BufferPool pool = new BufferPool(16, 1024);
+        final SpillingOutputStream out = new SpillingOutputStream(pool, 100);
+        final byte[] expected = bytes(1000);
+        out.write(expected, 0, 60);
+        out.write(expected, 60, 60);
+        out.write(expected[120]);
+        out.write(expected, 121, 879);
+        assertTrue(out.isSpilled());
+        assertEquals(1000L, out.size());
+        // the chunks are released as soon as the output moves to the file
+        assertEquals(4 * 16L, pool.getRetained());
+        assertArrayEquals(expected, IOUtils.toByteArray(out.toInputStream()));
+        out.close();
+    }
+
+    @Test(expected = IOException.class)
+    public void testWriteAfterClose() throws IOException {
+        final SpillingOutputStream out = new SpillingOutputStream(new BufferPool(), 0);
+        out.write(1);
+        out.close();
+        out.write(2);
+    }
+
+}
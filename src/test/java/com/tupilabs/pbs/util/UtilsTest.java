@@ -0,0 +1,87 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2012-2015 Bruno P. Kinoshita, BioUno
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tupilabs.pbs.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link Utils}.
+ *
+ * @author Bruno P. Kinoshita
+ * @since 0.11
+ */
+public class UtilsTest {
+
+    @Test
+    public void testCompactRanges() {
+        assertEquals("", Utils.compactRanges(new ArrayList<Integer>()));
+        assertEquals("7", Utils.compactRanges(Arrays.asList(7)));
+        assertEquals("1-3,5,9-10", Utils.compactRanges(Arrays.asList(10, 3, 1, 2, 5, 9, 2)));
+    }
+
+    @Test
+    public void testSplitRanges() {
+        final List<Integer> indices = new ArrayList<Integer>();
+        for (int i = 0; i < 30000; i += 2) {
+            indices.add(i);
+        }
+        final List<String> expressions = Utils.splitRanges(indices, 1000);
+        int count = 0;
+        for (final String expression : expressions) {
+            assertTrue(expression.length() <= 1000);
+            count += expression.split(",").length;
+        }
+        assertEquals(indices.size(), count);
+        assertTrue(expressions.get(0).startsWith("0,2,4,"));
+        assertEquals(Arrays.asList("1-500,502", "510-9000"), Utils.splitRanges(rangeOf(1, 500, 502, 510, 9000), 12));
+    }
+
+    @Test(timeout = 5000)
+    public void testRangesAtMaxValue() {
+        final int max = Integer.MAX_VALUE;
+        assertEquals(String.valueOf(max), Utils.compactRanges(Arrays.asList(max)));
+        assertEquals("1," + (max - 2) + "-" + max, Utils.compactRanges(Arrays.asList(max, 1, max - 1, max - 2, max)));
+        assertEquals(Arrays.asList("1", (max - 1) + "-" + max), Utils.splitRanges(Arrays.asList(1, max - 1, max), 5));
+    }
+
+    private static List<Integer> rangeOf(int begin, int end, int single, int begin2, int end2) {
+        final List<Integer> indices = new ArrayList<Integer>();
+        for (int i = begin; i <= end; i++) {
+            indices.add(i);
+        }
+        indices.add(single);
+        for (int i = begin2; i <= end2; i++) {
+            indices.add(i);
+        }
+        return indices;
+    }
+
+}
@@ -0,0 +1,56 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2012-2015 Bruno P. Kinoshita, BioUno
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.tupilabs.pbs.util;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link XXHash64}, with the reference implementation values.
+ *
+ * @author Bruno P. Kinoshita
+ * @since 0.11
+ */
+public class XXHash64Test {
+
+    @Test
+    public void testHash() throws Exception {
+        assertEquals(0xEF46DB3751D8E999L, XXHash64.hash(new byte[0], 0, 0, 0L));
+        assertEquals(0xD24EC4F1A98C6E5BL, XXHash64.hash("a".getBytes("US-ASCII"), 0, 1, 0L));
+        assertEquals(0x44BC2CF5AD770999L, XXHash64.hash("xabcx".getBytes("US-ASCII"), 1, 3, 0L));
+    }
+
+    @Test
+    public void testHashLong() {
+        // stripes of 32 bytes, then 8, 4 and single bytes
+        final byte[] bytes = new byte[103];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) (i * 31 + 7);
+        }
+        assertEquals(0x6A5D4AB1878A1324L, XXHash64.hash(bytes, 0, bytes.length, 0L));
+        assertEquals(0xDDDA2AA377B132F6L, XXHash64.hash(bytes, 0, bytes.length, 0x123456789L));
+    }
+
+}